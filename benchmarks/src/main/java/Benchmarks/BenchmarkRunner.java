@@ -0,0 +1,30 @@
+package Benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Ejecuta los benchmarks con el perfilador de GC activado, así que cada resultado
+ * trae, además de operaciones por segundo, los bytes reservados por operación
+ * (gc.alloc.rate.norm). Los resultados se guardan en JSON para compararlos con una
+ * ejecución de referencia guardada antes de un cambio (por ejemplo con JMH Visualizer
+ * o con un diff de los valores).
+ * Uso: java -jar benchmarks.jar [regex de benchmarks] [archivo de resultados]
+ */
+public class BenchmarkRunner {
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : "Benchmarks\\..*Benchmark";
+        String resultFile = args.length > 1 ? args[1] : "jmh-result.json";
+        Options options = new OptionsBuilder()
+                .include(include)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(resultFile)
+                .build();
+        new Runner(options).run();
+    }
+}
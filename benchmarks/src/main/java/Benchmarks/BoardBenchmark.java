@@ -0,0 +1,94 @@
+package Benchmarks;
+
+import Model.Entities.Board;
+import Model.Entities.BoardIndex;
+import Model.Entities.Coords;
+import Model.Entities.Direction;
+import Model.Entities.HexCell;
+import Model.Entities.Piece;
+import Model.Entities.Player;
+import Model.Service.BoardService;
+import org.javatuples.Pair;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Construcción del tablero y consultas geométricas de {@link BoardService}.
+ * Las consultas por celda recorren en ciclo las 121 celdas para no medir siempre la misma.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BoardBenchmark {
+    @Param({"2", "6"})
+    public int players;
+
+    private ArrayList<Player> playerList;
+    private Board board;
+    private final Coords[] cells = new Coords[BoardIndex.CELL_COUNT];
+    private final Coords[] pixels = new Coords[BoardIndex.CELL_COUNT];
+    private int cursor;
+
+    @Setup
+    public void setup() {
+        playerList = new ArrayList<>();
+        for (int i = 0; i < players; i++) {
+            playerList.add(new Player("P" + i, Piece.COLORS[i]));
+        }
+        board = new Board();
+        BoardService.createBoard(board);
+        BoardService.setupPieces(board, playerList);
+        for (int i = 0; i < BoardIndex.CELL_COUNT; i++) {
+            cells[i] = new Coords(BoardIndex.q(i), BoardIndex.r(i));
+            pixels[i] = BoardService.pixelOf(i);
+        }
+    }
+
+    private int nextCell() {
+        int cell = cursor;
+        cursor = cell + 1 == BoardIndex.CELL_COUNT ? 0 : cell + 1;
+        return cell;
+    }
+
+    @Benchmark
+    public Board createBoard() {
+        Board fresh = new Board();
+        BoardService.createBoard(fresh);
+        return fresh;
+    }
+
+    /**
+     * Coloca las piezas sobre un tablero ya creado; volver a colocarlas reemplaza las anteriores.
+     */
+    @Benchmark
+    public Board setupPieces() {
+        BoardService.setupPieces(board, playerList);
+        return board;
+    }
+
+    @Benchmark
+    public ArrayList<Pair<Direction, HexCell>> getNeighbors() {
+        return BoardService.getNeighbors(board, cells[nextCell()]);
+    }
+
+    @Benchmark
+    public Coords pixelToPointyHex() {
+        Coords pixel = pixels[nextCell()];
+        return BoardService.pixelToPointyHex(pixel.getX(), pixel.getY());
+    }
+}
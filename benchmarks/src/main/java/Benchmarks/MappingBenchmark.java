@@ -0,0 +1,73 @@
+package Benchmarks;
+
+import DTO.GameStateDTO;
+import Model.Entities.GameSnapshot;
+import Model.Entities.GameState;
+import Model.Service.GameStateMapper;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * El camino de cada difusión del servidor: instantánea a DTO con
+ * {@link GameStateMapper#toDTO(GameSnapshot)} y el DTO a JSON con Gson, más la
+ * decodificación que hace cada cliente al recibirlo.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MappingBenchmark {
+    @Param({"2", "6"})
+    public int players;
+
+    private GameSnapshot snapshot;
+    private GameStateDTO dto;
+    private String json;
+    private final Gson gson = new GsonBuilder().create();
+
+    @Setup
+    public void setup() {
+        GameState state = Positions.position(players, 20);
+        snapshot = GameSnapshot.capture(state, null);
+        dto = GameStateMapper.toDTO(snapshot);
+        json = gson.toJson(dto);
+    }
+
+    @Benchmark
+    public GameStateDTO toDTO() {
+        return GameStateMapper.toDTO(snapshot);
+    }
+
+    @Benchmark
+    public String encodeJson() {
+        return gson.toJson(dto);
+    }
+
+    @Benchmark
+    public GameStateDTO decodeJson() {
+        return gson.fromJson(json, GameStateDTO.class);
+    }
+
+    /**
+     * Lo que cuesta al servidor preparar una difusión completa.
+     */
+    @Benchmark
+    public String toDTOAndEncode() {
+        return gson.toJson(GameStateMapper.toDTO(snapshot));
+    }
+}
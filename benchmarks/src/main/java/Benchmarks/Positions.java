@@ -0,0 +1,50 @@
+package Benchmarks;
+
+import Model.Entities.Board;
+import Model.Entities.GameState;
+import Model.Entities.Piece;
+import Model.Entities.Player;
+import Model.Service.BoardService;
+import Model.Service.GameRulesService;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Random;
+
+/**
+ * Posiciones fijas para los benchmarks: la salida de una partida y posiciones de
+ * medio juego obtenidas con turnos aleatorios de semilla fija, para que cada
+ * ejecución mida exactamente lo mismo.
+ */
+final class Positions {
+    private static final long SEED = 7L;
+
+    private Positions() {
+    }
+
+    /**
+     * Posición tras jugar una cantidad de turnos aleatorios desde la salida.
+     * @param playerCount Jugadores de la partida, con los colores en el orden de GameService.
+     * @param plies Turnos aleatorios a jugar; 0 para la posición de salida.
+     */
+    static GameState position(int playerCount, int plies) {
+        ArrayList<Player> players = new ArrayList<>();
+        for (int i = 0; i < playerCount; i++) {
+            players.add(new Player("P" + i, Piece.COLORS[i]));
+        }
+        Board board = new Board();
+        BoardService.createBoard(board);
+        BoardService.setupPieces(board, players);
+        GameState state = new GameState(board, players.getFirst(), players, 0, new HashMap<>(),
+                null, null, false, null);
+        Random random = new Random(SEED);
+        int[] moves = new int[GameRulesService.MAX_TURN_MOVES];
+        for (int ply = 0; ply < plies; ply++) {
+            int color = Piece.colorIndex(state.getCurrentPlayer().getColor());
+            int count = GameRulesService.generateTurnMoves(board, color, moves);
+            if (count == 0) break;
+            state.makeMove(moves[random.nextInt(count)]);
+        }
+        return state;
+    }
+}
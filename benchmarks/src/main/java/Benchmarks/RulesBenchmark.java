@@ -0,0 +1,97 @@
+package Benchmarks;
+
+import Model.Entities.Board;
+import Model.Entities.BoardIndex;
+import Model.Entities.Coords;
+import Model.Entities.Direction;
+import Model.Entities.GameState;
+import Model.Entities.Piece;
+import Model.Service.GameRulesService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reglas de {@link GameRulesService} sobre la salida y sobre una posición de medio
+ * juego: movimientos de una pieza (con y sin reservas de memoria), turnos completos
+ * de un color y comprobación de victoria.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RulesBenchmark {
+    @Param({"2", "6"})
+    public int players;
+
+    @Param({"0", "40"})
+    public int plies;
+
+    private Board board;
+    private String color;
+    private int colorIndex;
+    private Coords[] pieces;
+    private int[] pieceIndices;
+    private final int[] moves = new int[GameRulesService.MAX_TURN_MOVES];
+    private int cursor;
+
+    @Setup
+    public void setup() {
+        GameState state = Positions.position(players, plies);
+        board = state.getBoard();
+        color = state.getCurrentPlayer().getColor();
+        colorIndex = Piece.colorIndex(color);
+        ArrayList<Integer> own = new ArrayList<>();
+        for (int i = 0; i < BoardIndex.CELL_COUNT; i++) {
+            if (board.isOccupiedBy(i, colorIndex)) {
+                own.add(i);
+            }
+        }
+        pieces = new Coords[own.size()];
+        pieceIndices = new int[own.size()];
+        for (int i = 0; i < own.size(); i++) {
+            pieceIndices[i] = own.get(i);
+            pieces[i] = new Coords(BoardIndex.q(own.get(i)), BoardIndex.r(own.get(i)));
+        }
+    }
+
+    private int nextPiece() {
+        int piece = cursor;
+        cursor = piece + 1 == pieces.length ? 0 : piece + 1;
+        return piece;
+    }
+
+    @Benchmark
+    public HashMap<Coords, Direction> getValidMoves() {
+        return GameRulesService.getValidMoves(board, pieces[nextPiece()]);
+    }
+
+    @Benchmark
+    public int getValidMovesIndexed() {
+        return GameRulesService.getValidMoves(board, pieceIndices[nextPiece()], moves);
+    }
+
+    @Benchmark
+    public int generateTurnMoves() {
+        return GameRulesService.generateTurnMoves(board, colorIndex, moves);
+    }
+
+    @Benchmark
+    public boolean hasWon() {
+        return GameRulesService.hasWon(board, color);
+    }
+}
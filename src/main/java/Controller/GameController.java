@@ -3,22 +3,37 @@ package Controller;
 import Model.Entities.GameState;
 import Model.Entities.Player;
 import Model.Entities.Coords;
+import Model.Entities.GameSnapshot;
+import Model.Entities.Move;
+import Model.Entities.Piece;
+import Model.Entities.Zobrist;
 import Model.Service.GameStateListener;
 import Model.Service.GameStateMapper;
 import Model.Service.BoardService;
 import Model.Service.GameService;
+import Model.Service.GameSession;
 import DTO.GameStateDTO;
 
 import java.util.ArrayList;
 
 public class GameController implements GameStateListener {
 
+    private final GameSession session;
     private final GameService gameService;
     private GameStateUpdateCallback updateCallback;
 
-    public GameController() {
-        this.gameService = GameService.getInstance();
-        this.gameService.setGameStateListener(this);
+    /**
+     * Crea el controlador de una partida concreta y se registra como listener de su sesión.
+     * @param session La sesión de la partida que controla.
+     */
+    public GameController(GameSession session) {
+        this.session = session;
+        this.gameService = session.getGameService();
+        session.addListener(this);
+    }
+
+    public GameSession getSession() {
+        return session;
     }
 
     /**
@@ -59,6 +74,51 @@ public class GameController implements GameStateListener {
         gameService.turn(hexCoords);
     }
 
+    /**
+     * Gestiona un clic sobre una celda ya expresada en coordenadas hexagonales,
+     * por ejemplo el de un jugador controlado por la computadora.
+     * @param hexCoords Las coordenadas axiales de la celda.
+     */
+    public void handleHexClick(Coords hexCoords) {
+        gameService.turn(hexCoords);
+    }
+
+    /**
+     * Juega un turno completo con la misma secuencia de clics que haría un jugador:
+     * selecciona la pieza, recorre cada aterrizaje de la cadena de saltos (o el
+     * paso simple) y, si la secuencia de saltos sigue abierta al llegar al
+     * destino, termina el turno.
+     * @param move El movimiento codificado con {@link Move#encode}.
+     * @return true si la pieza llegó de su origen al destino; false si algún clic
+     *         fue rechazado, en cuyo caso el turno puede haber quedado a medias.
+     */
+    public boolean playMove(int move) {
+        GameState state = gameService.getGameState();
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int color = Piece.colorIndex(state.getCurrentPlayer().getColor());
+        long boardKey = state.getBoard().getZobristKey();
+        handleHexClick(Coords.ofIndex(from));
+        if (Move.isJump(move)) {
+            int cell = from;
+            while (cell != to) {
+                cell = BoardService.jumpLanding(cell, Move.direction(move));
+                if (cell < 0) {
+                    break;
+                }
+                handleHexClick(Coords.ofIndex(cell));
+            }
+        } else {
+            handleHexClick(Coords.ofIndex(to));
+        }
+        if (gameService.getGameState().isJumpSequence()) {
+            endTurn();
+        }
+        // Sólo la pieza movida debe haber cambiado de celda.
+        long expected = boardKey ^ Zobrist.piece(color, from) ^ Zobrist.piece(color, to);
+        return from != to && gameService.getGameState().getBoard().getZobristKey() == expected;
+    }
+
     /**
      * Finaliza el turno del jugador actual y notifica al GameService
      * para que el siguiente jugador pueda tomar el control.
@@ -70,11 +130,20 @@ public class GameController implements GameStateListener {
     /**
      * Obtiene el estado actual del juego y lo convierte en un objeto DTO
      * (Data Transfer Object) para que la vista pueda renderizarlo sin
-     * acoplarse directamente al modelo.
+     * acoplarse directamente al modelo. Lee la última instantánea publicada,
+     * por lo que no necesita sincronizarse con el procesamiento de turnos.
      * @return El DTO con la información necesaria para la vista.
      */
     public GameStateDTO getGameViewDTO() {
-        return GameStateMapper.toDTO(gameService.getGameState());
+        return GameStateMapper.toDTO(gameService.getSnapshot());
+    }
+
+    /**
+     * Devuelve la última instantánea inmutable del estado del juego.
+     * @return La instantánea publicada por el GameService.
+     */
+    public GameSnapshot getSnapshot() {
+        return gameService.getSnapshot();
     }
 
     public Player getCurrentPlayer() {
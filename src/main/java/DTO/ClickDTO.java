@@ -0,0 +1,23 @@
+package DTO;
+
+/**
+ * A click on the board sent by a client, in panel pixels.
+ * The field names are the ones the JSON protocol has always used.
+ */
+public class ClickDTO {
+    private final int value0;
+    private final int value1;
+
+    public ClickDTO(int value0, int value1) {
+        this.value0 = value0;
+        this.value1 = value1;
+    }
+
+    public int getValue0() {
+        return value0;
+    }
+
+    public int getValue1() {
+        return value1;
+    }
+}
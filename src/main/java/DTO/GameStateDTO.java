@@ -5,6 +5,7 @@ import Model.Entities.Player;
 import View.PixelCell;
 
 import java.util.ArrayList;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -20,10 +21,13 @@ public class GameStateDTO {
     private final boolean isJumpSequence;
     private final String currentPlayerColor;
     private final ArrayList<Player> players;
+    // Steps each color still needs to get all of its pieces into its goal triangle, each piece
+    // counted to its nearest goal cell, keyed by color. Not the apex distance the bots evaluate.
+    private final Map<String, Integer> goalDistances;
 
     public GameStateDTO(ArrayList<PixelCell> piecePositions, Coords selectedPiecePixel,
                         Set<Coords> validMovePixels, String currentPlayerName, String winnerName, boolean isJumpSequence,
-                        String currentPlayerColor, ArrayList<Player> players) {
+                        String currentPlayerColor, ArrayList<Player> players, Map<String, Integer> goalDistances) {
         this.piecePositions = piecePositions;
         this.selectedPiecePixel = selectedPiecePixel;
         this.validMovePixels = validMovePixels;
@@ -32,6 +36,7 @@ public class GameStateDTO {
         this.isJumpSequence = isJumpSequence;
         this.currentPlayerColor = currentPlayerColor;
         this.players = players;
+        this.goalDistances = goalDistances;
     }
 
     public ArrayList<PixelCell> getPiecePositions() {
@@ -73,4 +78,12 @@ public class GameStateDTO {
     public ArrayList<Player> getPlayers() {
         return players;
     }
+
+    /**
+     * Remaining distance to the goal triangle for each player's color, as computed by
+     * {@code GameRulesService.goalDistance}; 0 means all pieces are home.
+     */
+    public Map<String, Integer> getGoalDistances() {
+        return goalDistances;
+    }
 }
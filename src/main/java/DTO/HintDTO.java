@@ -0,0 +1,39 @@
+package DTO;
+
+import Model.Entities.Coords;
+
+/**
+ * A suggested move sent to a client after it asks for a hint.
+ * The cells are already converted to pixel coordinates, like the ones in {@link GameStateDTO}.
+ */
+public class HintDTO {
+    private final Coords fromPixel;
+    private final Coords toPixel;
+    // Search score from the point of view of the player to move; higher is better.
+    private final int score;
+    // Turns searched ahead.
+    private final int depth;
+
+    public HintDTO(Coords fromPixel, Coords toPixel, int score, int depth) {
+        this.fromPixel = fromPixel;
+        this.toPixel = toPixel;
+        this.score = score;
+        this.depth = depth;
+    }
+
+    public Coords getFromPixel() {
+        return fromPixel;
+    }
+
+    public Coords getToPixel() {
+        return toPixel;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+}
@@ -0,0 +1,42 @@
+package DTO;
+
+/**
+ * One table of the lobby as listed to clients in reply to "LIST".
+ */
+public class RoomDTO {
+    private final String id;
+    // Seated players, bots included.
+    private final int players;
+    private final int maxPlayers;
+    private final int spectators;
+    // True once every seat is taken and the game has been created; nobody else can sit down.
+    private final boolean started;
+
+    public RoomDTO(String id, int players, int maxPlayers, int spectators, boolean started) {
+        this.id = id;
+        this.players = players;
+        this.maxPlayers = maxPlayers;
+        this.spectators = spectators;
+        this.started = started;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public int getPlayers() {
+        return players;
+    }
+
+    public int getMaxPlayers() {
+        return maxPlayers;
+    }
+
+    public int getSpectators() {
+        return spectators;
+    }
+
+    public boolean isStarted() {
+        return started;
+    }
+}
@@ -0,0 +1,97 @@
+package DTO;
+
+import Model.Entities.Player;
+
+import java.util.ArrayList;
+import java.util.Map;
+
+/**
+ * A sequenced game state update for clients that keep their own copy of the board.
+ * A keyframe carries every cell; a delta carries only the cells that changed since a
+ * version the client acknowledged. Cells and moves are board indices, not pixels:
+ * the client maps them with BoardService.pixelOf, so the board geometry never goes
+ * over the wire.
+ */
+public class StateUpdateDTO {
+    // Version of the state this update describes; increases with every broadcast of the table.
+    private final long version;
+    // Version the cells are relative to, or -1 for a keyframe.
+    private final long baseVersion;
+    // Keyframe: the color index of each of the 121 cells (-1 when empty), or no cells before the board exists.
+    // Delta: pairs of cell index and new color index, only for the cells that changed.
+    private final byte[] cells;
+    // Board index of the selected piece, or -1.
+    private final int selectedCell;
+    private final int[] validMoves;
+    private final String currentPlayerName;
+    private final String currentPlayerColor;
+    private final String winnerName;
+    private final boolean isJumpSequence;
+    // Always present in keyframes; in deltas only when the player list changed.
+    private final ArrayList<Player> players;
+    private final Map<String, Integer> goalDistances;
+
+    public StateUpdateDTO(long version, long baseVersion, byte[] cells, int selectedCell, int[] validMoves,
+                          String currentPlayerName, String currentPlayerColor, String winnerName,
+                          boolean isJumpSequence, ArrayList<Player> players, Map<String, Integer> goalDistances) {
+        this.version = version;
+        this.baseVersion = baseVersion;
+        this.cells = cells;
+        this.selectedCell = selectedCell;
+        this.validMoves = validMoves;
+        this.currentPlayerName = currentPlayerName;
+        this.currentPlayerColor = currentPlayerColor;
+        this.winnerName = winnerName;
+        this.isJumpSequence = isJumpSequence;
+        this.players = players;
+        this.goalDistances = goalDistances;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public long getBaseVersion() {
+        return baseVersion;
+    }
+
+    public boolean isKeyframe() {
+        return baseVersion < 0;
+    }
+
+    public byte[] getCells() {
+        return cells;
+    }
+
+    public int getSelectedCell() {
+        return selectedCell;
+    }
+
+    public int[] getValidMoves() {
+        return validMoves;
+    }
+
+    public String getCurrentPlayerName() {
+        return currentPlayerName;
+    }
+
+    public String getCurrentPlayerColor() {
+        return currentPlayerColor;
+    }
+
+    public String getWinnerName() {
+        return winnerName;
+    }
+
+    public boolean isJumpSequence() {
+        return isJumpSequence;
+    }
+
+    public ArrayList<Player> getPlayers() {
+        return players;
+    }
+
+    public Map<String, Integer> getGoalDistances() {
+        return goalDistances;
+    }
+}
@@ -0,0 +1,59 @@
+package Model.AI;
+
+/**
+ * Puntuación de cada movimiento legal del jugador con el turno, ordenados de
+ * mejor a peor desde su punto de vista.
+ */
+public final class AnalysisResult {
+    private final int[] moves;
+    private final int[] scores;
+    private final int depth;
+    private final long nodes;
+    private final long elapsedNanos;
+
+    AnalysisResult(int[] moves, int[] scores, int depth, long nodes, long elapsedNanos) {
+        this.moves = moves;
+        this.scores = scores;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public int getMoveCount() {
+        return moves.length;
+    }
+
+    /**
+     * Movimiento en la posición i del ranking, codificado con {@link Model.Entities.Move#encode}.
+     */
+    public int getMove(int i) {
+        return moves[i];
+    }
+
+    public int getScore(int i) {
+        return scores[i];
+    }
+
+    /**
+     * El mejor movimiento, o -1 si el jugador no tenía movimientos.
+     */
+    public int getBestMove() {
+        return moves.length == 0 ? -1 : moves[0];
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public long getNodesPerSecond() {
+        return elapsedNanos == 0 ? 0 : nodes * 1_000_000_000L / elapsedNanos;
+    }
+}
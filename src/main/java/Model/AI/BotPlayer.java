@@ -0,0 +1,218 @@
+package Model.AI;
+
+import Model.Entities.GameSnapshot;
+import Model.Entities.GameState;
+import Model.Entities.Piece;
+import Model.Entities.Player;
+import Model.Service.GameRulesService;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Jugador controlado por la computadora. Elige sus turnos con una
+ * {@link ParanoidSearch} o, en mesas de muchos jugadores, con una
+ * {@link MonteCarloSearch}, siempre sobre la última instantánea del juego, así
+ * que nunca bloquea ni modifica el estado vivo de la partida.
+ * Cada movimiento tiene un presupuesto de tiempo y la partida completa un
+ * presupuesto de tiempo de CPU: cuando se agota, el bot sigue jugando pero sólo
+ * mira un turno hacia adelante. Acumula nodos y tiempo para informar nodos por segundo.
+ * Con una {@link EndgameTable}, cuando quedan pocas piezas propias fuera de la meta
+ * y ningún rival ocupa sus celdas, juega el turno que la tabla indica como más corto
+ * para terminar, sin buscar; en cualquier otro caso busca.
+ */
+public class BotPlayer implements AutoCloseable {
+    public static final long DEFAULT_MOVE_BUDGET_NANOS = 500_000_000L;
+    public static final long DEFAULT_GAME_CPU_BUDGET_NANOS = 60_000_000_000L;
+    public static final int DEFAULT_MAX_DEPTH = 12;
+    public static final int DEFAULT_TABLE_MEGABYTES = 8;
+    /**
+     * Lo devuelve {@link #chooseMove} cuando el bot usa MCTS y su presupuesto compartido
+     * ya tiene todas las búsquedas que admite: hay que volver a pedir el turno más tarde.
+     */
+    public static final int BUSY = -2;
+
+    // Presupuesto mínimo por movimiento, y turnos que se reservan del presupuesto restante.
+    private static final long MIN_MOVE_BUDGET_NANOS = 5_000_000L;
+    private static final int RESERVED_MOVES = 30;
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private final Player player;
+    private final ParanoidSearch search;
+    private final MonteCarloSearch monteCarlo;
+    private final long moveBudgetNanos;
+    private final long gameCpuBudgetNanos;
+    private final int maxDepth;
+    private long cpuUsedNanos;
+    private long totalNodes;
+    private long totalSearchNanos;
+    private SearchResult lastResult;
+    private EndgameTable endgameTable;
+    private final int[] endgameMoves = new int[GameRulesService.MAX_TURN_MOVES];
+
+    public BotPlayer(Player player) {
+        this(player, DEFAULT_MOVE_BUDGET_NANOS, DEFAULT_GAME_CPU_BUDGET_NANOS, DEFAULT_MAX_DEPTH);
+    }
+
+    /**
+     * @param player El jugador de la partida al que representa el bot.
+     * @param moveBudgetNanos Tiempo máximo de búsqueda por movimiento.
+     * @param gameCpuBudgetNanos Tiempo de CPU total para toda la partida.
+     * @param maxDepth Profundidad máxima de búsqueda en turnos.
+     */
+    public BotPlayer(Player player, long moveBudgetNanos, long gameCpuBudgetNanos, int maxDepth) {
+        this.player = player;
+        this.search = new ParanoidSearch(new TranspositionTable(DEFAULT_TABLE_MEGABYTES));
+        this.monteCarlo = null;
+        this.moveBudgetNanos = moveBudgetNanos;
+        this.gameCpuBudgetNanos = gameCpuBudgetNanos;
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * Crea un bot que juega con búsqueda alfa-beta y los presupuestos por defecto.
+     * @param player El jugador de la partida al que representa el bot.
+     * @param search El motor alfa-beta, que pasa a ser de este bot; su tabla de
+     *               transposiciones puede compartirse con otros bots.
+     */
+    public BotPlayer(Player player, ParanoidSearch search) {
+        this.player = player;
+        this.search = search;
+        this.monteCarlo = null;
+        this.moveBudgetNanos = DEFAULT_MOVE_BUDGET_NANOS;
+        this.gameCpuBudgetNanos = DEFAULT_GAME_CPU_BUDGET_NANOS;
+        this.maxDepth = DEFAULT_MAX_DEPTH;
+    }
+
+    /**
+     * Crea un bot que juega con búsqueda de Monte Carlo y los presupuestos por defecto.
+     * Para MCTS los nodos informados son simulaciones y el tiempo de CPU es el de
+     * todos sus hilos.
+     * @param player El jugador de la partida al que representa el bot.
+     * @param monteCarlo El motor MCTS, que pasa a ser de este bot.
+     */
+    public BotPlayer(Player player, MonteCarloSearch monteCarlo) {
+        this.player = player;
+        this.search = null;
+        this.monteCarlo = monteCarlo;
+        this.moveBudgetNanos = DEFAULT_MOVE_BUDGET_NANOS;
+        this.gameCpuBudgetNanos = DEFAULT_GAME_CPU_BUDGET_NANOS;
+        this.maxDepth = DEFAULT_MAX_DEPTH;
+    }
+
+    /**
+     * Elige el turno a jugar en la posición de la instantánea. Debe llamarse
+     * cuando el turno es de este bot.
+     * @param snapshot La última instantánea publicada.
+     * @return El movimiento codificado con {@link Model.Entities.Move#encode}, o -1 si no hay.
+     */
+    public int chooseMove(GameSnapshot snapshot) {
+        return chooseMove(snapshot, 0);
+    }
+
+    /**
+     * Elige el turno como {@link #chooseMove(GameSnapshot)}, descontando del presupuesto
+     * del movimiento el tiempo que el turno ya esperó antes de empezar a pensar.
+     * @param snapshot La última instantánea publicada.
+     * @param waitedNanos Tiempo transcurrido desde que el turno se pidió.
+     * @return El movimiento codificado, -1 si no hay o {@link #BUSY} si hay que reintentar.
+     */
+    public int chooseMove(GameSnapshot snapshot, long waitedNanos) {
+        GameState state = snapshot.toGameState();
+        if (state == null || state.getCurrentPlayer() != player) {
+            return -1;
+        }
+        if (endgameTable != null) {
+            SearchResult result = endgameTable.bestMove(state, Piece.colorIndex(player.getColor()), endgameMoves);
+            if (result != null) {
+                totalNodes += result.getNodes();
+                totalSearchNanos += result.getElapsedNanos();
+                lastResult = result;
+                return result.getBestMove();
+            }
+        }
+        long remaining = gameCpuBudgetNanos - cpuUsedNanos;
+        long budget;
+        int depth;
+        if (remaining <= 0) {
+            budget = MIN_MOVE_BUDGET_NANOS;
+            depth = 1;
+        } else {
+            budget = Math.min(moveBudgetNanos, remaining / RESERVED_MOVES) - Math.max(0, waitedNanos);
+            budget = Math.max(MIN_MOVE_BUDGET_NANOS, budget);
+            depth = maxDepth;
+        }
+
+        SearchResult result;
+        if (monteCarlo != null) {
+            result = monteCarlo.search(snapshot, budget);
+            if (result == null) {
+                return BUSY;
+            }
+            long cpu = monteCarlo.getLastCpuNanos();
+            cpuUsedNanos += cpu > 0 ? cpu : result.getElapsedNanos();
+        } else {
+            long cpuBefore = THREADS.getCurrentThreadCpuTime();
+            result = search.search(state, budget, depth);
+            long cpuAfter = THREADS.getCurrentThreadCpuTime();
+            // Sin medición de CPU disponible (-1) se descuenta el tiempo de reloj.
+            cpuUsedNanos += cpuBefore < 0 ? result.getElapsedNanos() : cpuAfter - cpuBefore;
+        }
+        totalNodes += result.getNodes();
+        totalSearchNanos += result.getElapsedNanos();
+        lastResult = result;
+        return result.getBestMove();
+    }
+
+    /**
+     * Usa una tabla de finales para jugar los finales sin buscar; null para no usarla.
+     */
+    public void setEndgameTable(EndgameTable endgameTable) {
+        this.endgameTable = endgameTable;
+    }
+
+    /**
+     * Cierra el motor MCTS, si el bot lo usa. El bot no debe usarse después.
+     */
+    @Override
+    public void close() {
+        if (monteCarlo != null) {
+            monteCarlo.close();
+        }
+    }
+
+    public boolean isMonteCarlo() {
+        return monteCarlo != null;
+    }
+
+    public Player getPlayer() {
+        return player;
+    }
+
+    /**
+     * Resultado de la última búsqueda, o null si todavía no jugó.
+     */
+    public SearchResult getLastResult() {
+        return lastResult;
+    }
+
+    public long getCpuUsedNanos() {
+        return cpuUsedNanos;
+    }
+
+    public long getRemainingCpuNanos() {
+        return Math.max(0, gameCpuBudgetNanos - cpuUsedNanos);
+    }
+
+    public long getTotalNodes() {
+        return totalNodes;
+    }
+
+    /**
+     * Nodos por segundo promedio de todas las búsquedas de la partida.
+     */
+    public long getAverageNodesPerSecond() {
+        return totalSearchNanos == 0 ? 0 : totalNodes * 1_000_000_000L / totalSearchNanos;
+    }
+}
@@ -0,0 +1,174 @@
+package Model.AI;
+
+import Model.Entities.BoardIndex;
+import Model.Entities.Piece;
+
+/**
+ * Numeración compacta de las posiciones de final de partida de un solo color:
+ * diez piezas, de las cuales K están fuera del triángulo de meta y el resto dentro.
+ * Las posiciones de cada K ocupan un bloque contiguo, y dentro del bloque el índice
+ * combina el rango colexicográfico del conjunto de celdas de fuera con el del
+ * conjunto de celdas de meta ocupadas, así que no hay huecos ni posiciones repetidas.
+ * Todo se calcula para el color de referencia {@link #REFERENCE_COLOR}; los demás
+ * colores se llevan a él girando el tablero, porque la estrella es simétrica ante
+ * giros de 60 grados.
+ */
+final class EndgameIndex {
+    static final int REFERENCE_COLOR = 0;
+    static final int PIECES = BoardIndex.TRIANGLE_SIZE;
+    static final int OUTSIDE_CELLS = BoardIndex.CELL_COUNT - BoardIndex.TRIANGLE_SIZE;
+    // Con 4 piezas fuera harían falta más de mil millones de posiciones.
+    static final int MAX_SUPPORTED_OUTSIDE = 3;
+
+    private static final long[][] BINOMIAL = new long[BoardIndex.CELL_COUNT + 1][PIECES + 1];
+    // Rango de cada celda del color de referencia entre las de fuera o las de meta; -1 si no pertenece.
+    private static final int[] OUTSIDE_RANK = new int[BoardIndex.CELL_COUNT];
+    private static final int[] GOAL_RANK = new int[BoardIndex.CELL_COUNT];
+    private static final int[] OUTSIDE_CELL = new int[OUTSIDE_CELLS];
+    private static final int[] GOAL_CELL = new int[PIECES];
+    // Celda equivalente del color de referencia para cada color y celda.
+    private static final int[][] TO_REFERENCE = new int[Piece.COLOR_COUNT][BoardIndex.CELL_COUNT];
+    private static final long[] LEVEL_OFFSET = new long[MAX_SUPPORTED_OUTSIDE + 2];
+
+    static {
+        for (int n = 0; n <= BoardIndex.CELL_COUNT; n++) {
+            BINOMIAL[n][0] = 1;
+            for (int k = 1; k <= Math.min(n, PIECES); k++) {
+                BINOMIAL[n][k] = BINOMIAL[n - 1][k - 1] + (k <= n - 1 ? BINOMIAL[n - 1][k] : 0);
+            }
+        }
+        int outside = 0;
+        int goal = 0;
+        for (int i = 0; i < BoardIndex.CELL_COUNT; i++) {
+            if (BoardIndex.isGoalCell(i, REFERENCE_COLOR)) {
+                OUTSIDE_RANK[i] = -1;
+                GOAL_RANK[i] = goal;
+                GOAL_CELL[goal++] = i;
+            } else {
+                GOAL_RANK[i] = -1;
+                OUTSIDE_RANK[i] = outside;
+                OUTSIDE_CELL[outside++] = i;
+            }
+        }
+        for (int color = 0; color < Piece.COLOR_COUNT; color++) {
+            TO_REFERENCE[color] = rotationToReference(color);
+        }
+        for (int k = 0; k <= MAX_SUPPORTED_OUTSIDE; k++) {
+            LEVEL_OFFSET[k + 1] = LEVEL_OFFSET[k] + levelSize(k);
+        }
+    }
+
+    private EndgameIndex() {
+    }
+
+    /**
+     * Busca el giro de la estrella que lleva la meta y la salida de un color a las del
+     * color de referencia y devuelve la correspondencia de celdas que produce.
+     */
+    private static int[] rotationToReference(int colorIndex) {
+        int[] map = new int[BoardIndex.CELL_COUNT];
+        for (int turns = 0; turns < 6; turns++) {
+            boolean matches = true;
+            for (int i = 0; i < BoardIndex.CELL_COUNT; i++) {
+                int q = BoardIndex.q(i);
+                int r = BoardIndex.r(i);
+                for (int t = 0; t < turns; t++) {
+                    // Giro de 60 grados en coordenadas cúbicas: (q, r, s) -> (-r, -s, -q).
+                    int s = -q - r;
+                    q = -r;
+                    r = -s;
+                }
+                map[i] = BoardIndex.indexOf(q, r);
+                if (BoardIndex.isGoalCell(i, colorIndex) != BoardIndex.isGoalCell(map[i], REFERENCE_COLOR)
+                        || BoardIndex.isHomeCell(i, colorIndex) != BoardIndex.isHomeCell(map[i], REFERENCE_COLOR)) {
+                    matches = false;
+                    break;
+                }
+            }
+            if (matches) {
+                return map;
+            }
+        }
+        throw new IllegalStateException("No rotation maps color " + colorIndex + " to the reference color");
+    }
+
+    static long binomial(int n, int k) {
+        return k < 0 || k > n ? 0 : BINOMIAL[n][k];
+    }
+
+    /**
+     * Cantidad de posiciones con exactamente k piezas fuera de la meta.
+     */
+    static long levelSize(int k) {
+        return binomial(OUTSIDE_CELLS, k) * binomial(PIECES, PIECES - k);
+    }
+
+    /**
+     * Cantidad total de posiciones con a lo sumo maxOutside piezas fuera de la meta.
+     */
+    static long stateCount(int maxOutside) {
+        return LEVEL_OFFSET[maxOutside + 1];
+    }
+
+    static int toReference(int colorIndex, int index) {
+        return TO_REFERENCE[colorIndex][index];
+    }
+
+    /**
+     * Índice de una posición del color de referencia dada como bitset de 128 bits.
+     * @return El índice, o -1 si hay más de maxOutside piezas fuera de la meta.
+     */
+    static long index(long word0, long word1, int maxOutside) {
+        int outside = 0;
+        int inGoal = 0;
+        long outsideRank = 0;
+        long goalRank = 0;
+        for (int word = 0; word < 2; word++) {
+            long bits = word == 0 ? word0 : word1;
+            while (bits != 0) {
+                int cell = (word << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                int goal = GOAL_RANK[cell];
+                if (goal >= 0) {
+                    goalRank += BINOMIAL[goal][++inGoal];
+                } else {
+                    if (++outside > maxOutside) {
+                        return -1;
+                    }
+                    outsideRank += BINOMIAL[OUTSIDE_RANK[cell]][outside];
+                }
+            }
+        }
+        return LEVEL_OFFSET[outside] + outsideRank * BINOMIAL[PIECES][inGoal] + goalRank;
+    }
+
+    /**
+     * Inverso de {@link #index}: reconstruye el bitset de una posición en {@code out[0..1]}.
+     */
+    static void decode(long index, long[] out) {
+        int outside = 0;
+        while (index >= LEVEL_OFFSET[outside + 1]) {
+            outside++;
+        }
+        long local = index - LEVEL_OFFSET[outside];
+        int inGoal = PIECES - outside;
+        long goalCombinations = BINOMIAL[PIECES][inGoal];
+        out[0] = 0;
+        out[1] = 0;
+        unrank(local / goalCombinations, outside, OUTSIDE_CELLS, OUTSIDE_CELL, out);
+        unrank(local % goalCombinations, inGoal, PIECES, GOAL_CELL, out);
+    }
+
+    private static void unrank(long rank, int k, int n, int[] cells, long[] out) {
+        int candidate = n - 1;
+        for (int i = k; i >= 1; i--) {
+            while (BINOMIAL[candidate][i] > rank) {
+                candidate--;
+            }
+            rank -= BINOMIAL[candidate][i];
+            int cell = cells[candidate];
+            out[BoardIndex.word(cell)] |= BoardIndex.bit(cell);
+            candidate--;
+        }
+    }
+}
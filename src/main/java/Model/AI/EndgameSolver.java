@@ -0,0 +1,177 @@
+package Model.AI;
+
+import Model.Entities.BoardIndex;
+import Model.Entities.Direction;
+import Model.Service.BoardService;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Resolutor fuera de línea de los finales de un solo color. Recorre en anchura el
+ * grafo de posiciones con a lo sumo maxOutside piezas fuera de la meta, partiendo
+ * de la meta completa. Un turno (paso o cadena de saltos) es reversible, así que la
+ * distancia desde la meta completa es la cantidad mínima de turnos para completarla.
+ * El tablero sólo tiene las piezas de ese color, y los caminos no salen del espacio
+ * resuelto: con maxOutside piezas fuera el valor es exacto para caminos en los que
+ * nunca haya más de maxOutside piezas fuera a la vez, y en el resto es una cota superior.
+ * El resultado se guarda con {@link #write} para cargarlo con {@link EndgameTable#open}.
+ */
+public class EndgameSolver {
+    // Valor de las posiciones que la búsqueda no alcanzó.
+    static final int UNREACHED = 0xFF;
+
+    private final int maxOutside;
+    private final byte[] distances;
+    private int maxDistance;
+
+    /**
+     * @param maxOutside Piezas fuera de la meta que cubre la tabla (0..3).
+     */
+    public EndgameSolver(int maxOutside) {
+        if (maxOutside < 0 || maxOutside > EndgameIndex.MAX_SUPPORTED_OUTSIDE) {
+            throw new IllegalArgumentException("Pieces outside the goal must be 0.."
+                    + EndgameIndex.MAX_SUPPORTED_OUTSIDE + ": " + maxOutside);
+        }
+        this.maxOutside = maxOutside;
+        this.distances = new byte[(int) EndgameIndex.stateCount(maxOutside)];
+    }
+
+    /**
+     * Calcula la distancia de todas las posiciones, capa por capa.
+     * @return La distancia máxima encontrada.
+     */
+    public int solve() {
+        Arrays.fill(distances, (byte) UNREACHED);
+        long[] full = {BoardIndex.goalMask(EndgameIndex.REFERENCE_COLOR, 0),
+                BoardIndex.goalMask(EndgameIndex.REFERENCE_COLOR, 1)};
+        int start = (int) EndgameIndex.index(full[0], full[1], maxOutside);
+        distances[start] = 0;
+        int[] frontier = {start};
+        int frontierSize = 1;
+        int[] next = new int[1024];
+        long[] cells = new long[2];
+        int distance = 0;
+        while (frontierSize > 0) {
+            int nextSize = 0;
+            for (int f = 0; f < frontierSize; f++) {
+                EndgameIndex.decode(frontier[f], cells);
+                long word0 = cells[0];
+                long word1 = cells[1];
+                for (int word = 0; word < 2; word++) {
+                    long pieces = word == 0 ? word0 : word1;
+                    while (pieces != 0) {
+                        int from = (word << 6) + Long.numberOfTrailingZeros(pieces);
+                        pieces &= pieces - 1;
+                        for (int d = 0; d < Direction.COUNT; d++) {
+                            int neighbor = BoardService.neighbor(from, d);
+                            if (neighbor < 0) continue;
+                            if (!occupied(word0, word1, neighbor)) {
+                                int state = moved(word0, word1, from, neighbor);
+                                if (state >= 0 && distances[state] == (byte) UNREACHED) {
+                                    distances[state] = (byte) (distance + 1);
+                                    next = append(next, nextSize++, state);
+                                }
+                                continue;
+                            }
+                            int over = neighbor;
+                            int landing = BoardService.jumpLanding(from, d);
+                            while (landing >= 0 && occupied(word0, word1, over) && !occupied(word0, word1, landing)) {
+                                int state = moved(word0, word1, from, landing);
+                                if (state >= 0 && distances[state] == (byte) UNREACHED) {
+                                    distances[state] = (byte) (distance + 1);
+                                    next = append(next, nextSize++, state);
+                                }
+                                over = BoardService.neighbor(landing, d);
+                                landing = BoardService.jumpLanding(landing, d);
+                            }
+                        }
+                    }
+                }
+            }
+            if (nextSize > 0) {
+                distance++;
+            }
+            int[] swap = frontier;
+            frontier = next;
+            next = swap.length >= 1024 ? swap : new int[1024];
+            frontierSize = nextSize;
+        }
+        maxDistance = distance;
+        return distance;
+    }
+
+    private static boolean occupied(long word0, long word1, int index) {
+        return ((index < 64 ? word0 : word1) & BoardIndex.bit(index)) != 0;
+    }
+
+    /**
+     * Índice de la posición que resulta de mover una pieza, o -1 si queda fuera del espacio resuelto.
+     */
+    private int moved(long word0, long word1, int from, int to) {
+        if (from < 64) word0 &= ~BoardIndex.bit(from); else word1 &= ~BoardIndex.bit(from);
+        if (to < 64) word0 |= BoardIndex.bit(to); else word1 |= BoardIndex.bit(to);
+        return (int) EndgameIndex.index(word0, word1, maxOutside);
+    }
+
+    private static int[] append(int[] array, int size, int value) {
+        if (size == array.length) {
+            array = Arrays.copyOf(array, size * 2);
+        }
+        array[size] = value;
+        return array;
+    }
+
+    /**
+     * Cantidad de posiciones que la búsqueda no alcanzó desde la meta completa.
+     */
+    public long countUnreached() {
+        long count = 0;
+        for (byte distance : distances) {
+            if (distance == (byte) UNREACHED) count++;
+        }
+        return count;
+    }
+
+    public int getMaxOutside() {
+        return maxOutside;
+    }
+
+    public int getMaxDistance() {
+        return maxDistance;
+    }
+
+    public long getStateCount() {
+        return distances.length;
+    }
+
+    /**
+     * Escribe la tabla resuelta: la cabecera de {@link EndgameTable} seguida de un byte por posición.
+     * @param path Archivo de destino; se reemplaza si existe.
+     */
+    public void write(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(EndgameTable.HEADER_BYTES);
+            header.putInt(EndgameTable.MAGIC)
+                    .putInt(EndgameTable.VERSION)
+                    .putInt(EndgameIndex.PIECES)
+                    .putInt(maxOutside)
+                    .putLong(distances.length)
+                    .putInt(maxDistance)
+                    .putInt(0)
+                    .flip();
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            ByteBuffer body = ByteBuffer.wrap(distances);
+            while (body.hasRemaining()) {
+                channel.write(body);
+            }
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package Model.AI;
+
+import Model.Entities.Board;
+import Model.Entities.BoardIndex;
+import Model.Entities.GameState;
+import Model.Service.GameRulesService;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Tabla de finales generada por {@link EndgameSolver}: para cada posición de un color
+ * con pocas piezas fuera de su meta guarda la cantidad mínima de turnos para
+ * completarla. El archivo se proyecta en memoria en modo de sólo lectura, así que
+ * abrirlo no copia nada al heap y las páginas las comparte el sistema operativo
+ * entre procesos. Consultar una posición sólo calcula su índice y lee un byte; es
+ * segura desde cualquier hilo.
+ * Formato: cabecera de {@link #HEADER_BYTES} bytes (marca, versión, piezas por color,
+ * piezas fuera cubiertas, cantidad de posiciones, distancia máxima) y un byte por
+ * posición, en el orden de {@link EndgameIndex}.
+ */
+public class EndgameTable {
+    public static final int UNKNOWN = -1;
+    public static final String DEFAULT_FILE = "endgame.tbl";
+
+    static final int MAGIC = 0x43434547; // "CCEG"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 32;
+
+    private final MappedByteBuffer data;
+    private final int maxOutside;
+    private final int maxDistance;
+    private final long stateCount;
+
+    private EndgameTable(MappedByteBuffer data, int maxOutside, int maxDistance, long stateCount) {
+        this.data = data;
+        this.maxOutside = maxOutside;
+        this.maxDistance = maxDistance;
+        this.stateCount = stateCount;
+    }
+
+    /**
+     * Proyecta en memoria un archivo de tabla y valida su cabecera. El canal se
+     * cierra enseguida; la proyección sigue siendo válida.
+     * @param path El archivo escrito por {@link EndgameSolver#write}.
+     * @throws IOException si no se puede leer o no es una tabla compatible.
+     */
+    public static EndgameTable open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (data.capacity() < HEADER_BYTES || data.getInt(0) != MAGIC) {
+                throw new IOException("Not an endgame table: " + path);
+            }
+            if (data.getInt(4) != VERSION || data.getInt(8) != EndgameIndex.PIECES) {
+                throw new IOException("Unsupported endgame table version " + data.getInt(4) + ": " + path);
+            }
+            int maxOutside = data.getInt(12);
+            long stateCount = data.getLong(16);
+            if (maxOutside < 0 || maxOutside > EndgameIndex.MAX_SUPPORTED_OUTSIDE
+                    || stateCount != EndgameIndex.stateCount(maxOutside)
+                    || data.capacity() != HEADER_BYTES + stateCount) {
+                throw new IOException("Corrupt endgame table: " + path);
+            }
+            return new EndgameTable(data, maxOutside, data.getInt(24), stateCount);
+        }
+    }
+
+    /**
+     * Turnos mínimos para que un color complete su meta, si la posición está en la tabla.
+     * Sólo cuenta las piezas de ese color: el resto del tablero se supone vacío.
+     * @param board El tablero.
+     * @param colorIndex Índice del color según {@link Model.Entities.Piece#COLORS}.
+     * @return La cantidad de turnos, o {@link #UNKNOWN} si hay demasiadas piezas fuera de la meta.
+     */
+    public int movesToFinish(Board board, int colorIndex) {
+        long word0 = 0;
+        long word1 = 0;
+        for (int word = 0; word < BoardIndex.WORDS; word++) {
+            long pieces = board.getOccupancy(colorIndex, word);
+            while (pieces != 0) {
+                int cell = EndgameIndex.toReference(colorIndex, (word << 6) + Long.numberOfTrailingZeros(pieces));
+                pieces &= pieces - 1;
+                if (cell < 64) word0 |= BoardIndex.bit(cell); else word1 |= BoardIndex.bit(cell);
+            }
+        }
+        if (Long.bitCount(word0) + Long.bitCount(word1) != EndgameIndex.PIECES) {
+            return UNKNOWN;
+        }
+        long index = EndgameIndex.index(word0, word1, maxOutside);
+        if (index < 0) {
+            return UNKNOWN;
+        }
+        int value = data.get(HEADER_BYTES + (int) index) & 0xFF;
+        return value == EndgameSolver.UNREACHED ? UNKNOWN : value;
+    }
+
+    /**
+     * Elige entre los turnos legales de un color el que deja su posición con menos
+     * turnos para terminar según la tabla. La puntuación del resultado es esa
+     * cantidad de turnos, negada. Sólo se usa cuando {@link #covers} acepta la
+     * posición; si no, quien llama debe buscar.
+     * @param state Copia del estado; se modifica durante la elección pero se devuelve intacto.
+     * @param colorIndex Color que mueve.
+     * @param moves Buffer con al menos {@link GameRulesService#MAX_TURN_MOVES} posiciones.
+     * @return El resultado, o null si la posición no está cubierta por la tabla.
+     */
+    public SearchResult bestMove(GameState state, int colorIndex, int[] moves) {
+        Board board = state.getBoard();
+        if (!covers(board, colorIndex)) {
+            return null;
+        }
+        long start = System.nanoTime();
+        int count = GameRulesService.generateTurnMoves(board, colorIndex, moves);
+        int bestMove = -1;
+        int bestValue = Integer.MAX_VALUE;
+        for (int i = 0; i < count; i++) {
+            long token = state.makeMove(moves[i]);
+            int value = movesToFinish(board, colorIndex);
+            state.unmakeMove(token);
+            if (value != UNKNOWN && value < bestValue) {
+                bestValue = value;
+                bestMove = moves[i];
+            }
+        }
+        if (bestMove < 0) {
+            return null;
+        }
+        return new SearchResult(bestMove, -bestValue, 1, count, System.nanoTime() - start);
+    }
+
+    /**
+     * Indica si la tabla vale para la posición de un color: tiene pocas piezas fuera de
+     * la meta como para estar en ella y ninguna pieza de otro color ocupa su meta. La
+     * tabla se resolvió con el resto del tablero vacío; un rival dentro de la meta
+     * bloquea las celdas que faltan y sus distancias dejan de valer.
+     */
+    public boolean covers(Board board, int colorIndex) {
+        if (BoardIndex.TRIANGLE_SIZE - board.getPiecesInGoal(colorIndex) > maxOutside) {
+            return false;
+        }
+        for (int word = 0; word < BoardIndex.WORDS; word++) {
+            long foreign = board.getAnyOccupancy(word) & ~board.getOccupancy(colorIndex, word);
+            if ((foreign & BoardIndex.goalMask(colorIndex, word)) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int getMaxOutside() {
+        return maxOutside;
+    }
+
+    public int getMaxDistance() {
+        return maxDistance;
+    }
+
+    public long getStateCount() {
+        return stateCount;
+    }
+}
@@ -0,0 +1,233 @@
+package Model.AI;
+
+import Model.Entities.GameSnapshot;
+import Model.Entities.GameState;
+import Model.Entities.Piece;
+import Model.Service.GameRulesService;
+import Model.Service.GameSession;
+import Model.Service.GameStateListener;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sugiere el turno a jugar en la posición actual de una partida. Las sugerencias
+ * se calculan en un hilo propio o en un ejecutor compartido con otras partidas, nunca
+ * en el que procesa los turnos, con un tiempo máximo por búsqueda. Se guardan por clave de Zobrist de la posición: pedir otra vez
+ * la misma posición, o que la pidan varios espectadores de la mesa, no cuesta nada,
+ * y las peticiones simultáneas comparten un único cálculo.
+ * Escucha la sesión: en cuanto el estado cambia (un clic o un fin de turno), las
+ * búsquedas de posiciones que ya no son la actual se cancelan.
+ */
+public final class HintService implements GameStateListener, AutoCloseable {
+    public static final long DEFAULT_BUDGET_NANOS = 300_000_000L;
+    public static final int DEFAULT_MAX_DEPTH = 8;
+
+    private static final int TABLE_MEGABYTES = 8;
+    private static final int CACHE_ENTRIES = 1024;
+
+    private final GameSession session;
+    private final long budgetNanos;
+    private final ExecutorService executor;
+    // El ejecutor se creó para este servicio y se detiene con él.
+    private final boolean ownsExecutor;
+    private final TranspositionTable table;
+    // Sugerencias ya calculadas, de la usada más recientemente a la menos.
+    private final Map<Long, SearchResult> cache = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, SearchResult> eldest) {
+            return size() > CACHE_ENTRIES;
+        }
+    };
+    private final ConcurrentHashMap<Long, Request> pending = new ConcurrentHashMap<>();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cancellations = new LongAdder();
+    private volatile EndgameTable endgameTable;
+
+    public HintService(GameSession session) {
+        this(session, DEFAULT_BUDGET_NANOS);
+    }
+
+    /**
+     * Crea el servicio, con su propio hilo y su propia tabla de transposiciones, y lo
+     * registra como listener de la sesión.
+     * @param session La partida para la que se sugieren turnos.
+     * @param budgetNanos Tiempo máximo de cada búsqueda.
+     */
+    public HintService(GameSession session, long budgetNanos) {
+        this(session, budgetNanos, Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "hint");
+            thread.setDaemon(true);
+            return thread;
+        }), new TranspositionTable(TABLE_MEGABYTES), true);
+    }
+
+    /**
+     * Crea un servicio que busca en hilos y con una tabla compartidos con otras
+     * partidas, y lo registra como listener de la sesión. Cerrarlo no detiene el ejecutor.
+     * @param session La partida para la que se sugieren turnos.
+     * @param budgetNanos Tiempo máximo de cada búsqueda.
+     * @param executor Dónde se calculan las sugerencias.
+     * @param table Tabla de transposiciones de las búsquedas.
+     */
+    public HintService(GameSession session, long budgetNanos, ExecutorService executor, TranspositionTable table) {
+        this(session, budgetNanos, executor, table, false);
+    }
+
+    private HintService(GameSession session, long budgetNanos, ExecutorService executor, TranspositionTable table,
+                        boolean ownsExecutor) {
+        this.session = session;
+        this.budgetNanos = budgetNanos;
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+        this.table = table;
+        session.addListener(this);
+    }
+
+    /**
+     * Una búsqueda en curso o en cola, compartida por todos los que pidieron la misma posición.
+     */
+    private static final class Request {
+        final long key;
+        final CompletableFuture<SearchResult> future = new CompletableFuture<>();
+        final AtomicBoolean cancelled = new AtomicBoolean();
+
+        Request(long key) {
+            this.key = key;
+        }
+    }
+
+    /**
+     * Pide una sugerencia para la posición de una instantánea. No bloquea.
+     * @param snapshot La instantánea cuyo jugador con el turno pide la sugerencia.
+     * @return Un futuro con el resultado, con null si no hay nada que sugerir (partida
+     *         sin empezar o terminada, o una secuencia de saltos a medias). Se cancela
+     *         si la posición cambia antes de terminar la búsqueda.
+     */
+    public CompletableFuture<SearchResult> requestHint(GameSnapshot snapshot) {
+        requests.increment();
+        if (!snapshot.isBoardCreated() || snapshot.getWinner() != null || snapshot.isJumpSequence()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        long key = snapshot.getZobristKey();
+        SearchResult cached;
+        synchronized (cache) {
+            cached = cache.get(key);
+        }
+        if (cached != null) {
+            cacheHits.increment();
+            return CompletableFuture.completedFuture(cached);
+        }
+        Request request = new Request(key);
+        Request existing = pending.putIfAbsent(key, request);
+        if (existing != null) {
+            cacheHits.increment();
+            return existing.future;
+        }
+        executor.execute(() -> compute(request, snapshot));
+        return request.future;
+    }
+
+    private void compute(Request request, GameSnapshot snapshot) {
+        try {
+            if (request.cancelled.get()) {
+                return;
+            }
+            GameState state = snapshot.toGameState();
+            SearchResult result = null;
+            EndgameTable endgame = endgameTable;
+            if (endgame != null) {
+                int[] moves = new int[GameRulesService.MAX_TURN_MOVES];
+                result = endgame.bestMove(state, Piece.colorIndex(state.getCurrentPlayer().getColor()), moves);
+            }
+            if (result == null) {
+                // Con un ejecutor compartido puede haber dos sugerencias a la vez: cada una con su búsqueda.
+                result = new ParanoidSearch(table).search(state, budgetNanos, DEFAULT_MAX_DEPTH, request.cancelled);
+            }
+            if (request.cancelled.get()) {
+                return;
+            }
+            synchronized (cache) {
+                cache.put(request.key, result);
+            }
+            request.future.complete(result);
+        } catch (RuntimeException e) {
+            request.future.completeExceptionally(e);
+        } finally {
+            pending.remove(request.key, request);
+        }
+    }
+
+    /**
+     * Cancela las búsquedas de posiciones distintas de la indicada.
+     */
+    private void cancelExcept(long key) {
+        for (Request request : pending.values()) {
+            if (request.key != key) {
+                cancel(request);
+            }
+        }
+    }
+
+    private void cancel(Request request) {
+        if (request.cancelled.compareAndSet(false, true)) {
+            request.future.cancel(false);
+            pending.remove(request.key, request);
+            cancellations.increment();
+        }
+    }
+
+    /**
+     * Se invoca en el hilo que procesa los turnos; sólo marca las búsquedas obsoletas.
+     */
+    @Override
+    public void onGameStateUpdated(GameState newState) {
+        if (!pending.isEmpty()) {
+            cancelExcept(newState.getZobristKey());
+        }
+    }
+
+    /**
+     * Usa una tabla de finales para sugerir sin buscar en las posiciones que cubre; null para no usarla.
+     */
+    public void setEndgameTable(EndgameTable endgameTable) {
+        this.endgameTable = endgameTable;
+    }
+
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    /**
+     * Peticiones resueltas sin una búsqueda propia: desde la caché o uniéndose a una en curso.
+     */
+    public long getCacheHits() {
+        return cacheHits.sum();
+    }
+
+    public long getCancellations() {
+        return cancellations.sum();
+    }
+
+    /**
+     * Deja de escuchar la sesión, cancela lo pendiente y, si el hilo de sugerencias es
+     * propio, lo detiene.
+     */
+    @Override
+    public void close() {
+        session.removeListener(this);
+        for (Request request : pending.values()) {
+            cancel(request);
+        }
+        if (ownsExecutor) {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package Model.AI;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hilos y memoria que comparten todas las {@link MonteCarloSearch} que lo usan, por
+ * ejemplo las de todas las mesas de un servidor: un único pool de hilos de simulación
+ * y una cantidad fija de árboles. Una búsqueda toma prestado un árbol sólo mientras
+ * busca; al devolverlo queda marcado como suyo, y si nadie lo tomó mientras tanto la
+ * búsqueda siguiente del mismo bot conserva su subárbol. Cuando hace falta uno se
+ * toma el libre que lleva más tiempo sin usarse. Los árboles se crean la primera vez
+ * que hacen falta, así que sin bots MCTS no se reserva memoria.
+ * A lo sumo corren {@code searches} búsquedas a la vez, cada una con
+ * {@code threads / searches} hilos, de modo que se reparten el pool en lugar de
+ * esperarse unas a otras dentro de él. Pedir un árbol nunca bloquea: si ya corren
+ * todas, la búsqueda no empieza y quien la pidió vuelve a intentarlo más tarde, sin
+ * ocupar mientras tanto un hilo que otros necesitan.
+ */
+public class MonteCarloBudget implements AutoCloseable {
+    private final int trees;
+    private final int searches;
+    private final int treeCapacity;
+    private final int workersPerSearch;
+    private final ExecutorService pool;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // Árboles libres, del devuelto hace más tiempo al más reciente.
+    private final ArrayDeque<MonteCarloSearch.Tree> idle = new ArrayDeque<>();
+    private int created;
+    private int active;
+
+    /**
+     * @param threads Hilos de simulación en total.
+     * @param memoryBytes Memoria total para los nodos de todos los árboles.
+     * @param trees Árboles en que se reparte la memoria; conviene que alcancen para
+     *              todos los bots, así cada uno conserva el suyo entre turnos.
+     * @param searches Búsquedas que pueden correr a la vez; no más que los árboles.
+     */
+    public MonteCarloBudget(int threads, long memoryBytes, int trees, int searches) {
+        if (threads < 1 || trees < 1 || searches < 1 || searches > trees) {
+            throw new IllegalArgumentException("Invalid budget: " + threads + " threads, " + trees + " trees, "
+                    + searches + " searches");
+        }
+        this.trees = trees;
+        this.searches = searches;
+        this.treeCapacity = MonteCarloSearch.capacityFor(memoryBytes / trees);
+        this.workersPerSearch = Math.max(1, threads / searches);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "mcts-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Hilos de simulación que usa cada búsqueda.
+     */
+    public int getWorkersPerSearch() {
+        return workersPerSearch;
+    }
+
+    /**
+     * Nodos de cada árbol.
+     */
+    public int getTreeCapacity() {
+        return treeCapacity;
+    }
+
+    ExecutorService pool() {
+        return pool;
+    }
+
+    /**
+     * Presta un árbol a una búsqueda si queda lugar para una más: el que ya era suyo si
+     * está libre, uno nuevo si queda presupuesto o, si no, el libre que lleva más tiempo
+     * sin usarse.
+     * @return El árbol prestado, o null si ya corren todas las búsquedas admitidas.
+     */
+    MonteCarloSearch.Tree tryAcquire(MonteCarloSearch owner) {
+        lock.lock();
+        try {
+            if (active >= searches) {
+                return null;
+            }
+            // Con searches <= trees, siempre queda un árbol libre o por crear para quien corre.
+            active++;
+            for (MonteCarloSearch.Tree tree : idle) {
+                if (tree.owner == owner) {
+                    idle.remove(tree);
+                    return tree;
+                }
+            }
+            if (created < trees) {
+                created++;
+                return new MonteCarloSearch.Tree(treeCapacity);
+            }
+            return idle.poll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Devuelve un árbol prestado; sigue marcado como de la búsqueda que lo usó.
+     */
+    void release(MonteCarloSearch.Tree tree) {
+        lock.lock();
+        try {
+            idle.add(tree);
+            active--;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Olvida los árboles de una búsqueda que ya no se usará, para que sean los
+     * primeros en prestarse a otra.
+     */
+    void forget(MonteCarloSearch owner) {
+        lock.lock();
+        try {
+            for (MonteCarloSearch.Tree tree : idle) {
+                if (tree.owner == owner) {
+                    tree.owner = null;
+                    idle.remove(tree);
+                    idle.addFirst(tree);
+                    return;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Detiene los hilos de simulación. Las búsquedas no deben usarse después.
+     */
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+}
@@ -0,0 +1,586 @@
+package Model.AI;
+
+import Model.Entities.Board;
+import Model.Entities.BoardIndex;
+import Model.Entities.GameSnapshot;
+import Model.Entities.GameState;
+import Model.Entities.Move;
+import Model.Entities.Piece;
+import Model.Entities.Player;
+import Model.Service.GameRulesService;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Búsqueda de Monte Carlo sobre árboles (UCT) para mesas de muchos jugadores,
+ * donde la alfa-beta poda poco. Varios hilos recorren el mismo árbol a la vez
+ * (paralelismo de árbol): cada descenso suma una pérdida virtual a los nodos que
+ * atraviesa para que los demás hilos prueben otras ramas, y la expansión de un
+ * nodo se reserva con un CAS. Cada nodo guarda la recompensa acumulada del
+ * jugador que hizo el movimiento que lleva a él (estilo max-n).
+ * Los nodos viven en arreglos preasignados según un presupuesto de memoria; al
+ * llenarse, el árbol deja de crecer pero las simulaciones continúan. Los hilos y
+ * los árboles salen de un {@link MonteCarloBudget}, propio o compartido con otras
+ * búsquedas. Entre turnos se conserva el subárbol de la nueva posición, si el árbol
+ * no se prestó a otra búsqueda: se deducen los movimientos de los rivales comparando
+ * tableros y se compacta ese subárbol al principio del pool.
+ * Las simulaciones eligen, entre unos pocos movimientos al azar, el que más avanza
+ * hacia la meta; no reservan memoria.
+ */
+public class MonteCarloSearch implements AutoCloseable {
+    public static final long DEFAULT_MEMORY_BYTES = 32L << 20;
+
+    // Bytes por nodo en los seis arreglos, por dos juegos de arreglos (el segundo para compactar).
+    private static final int BYTES_PER_NODE = 2 * (4 * 5 + 8);
+    private static final int VIRTUAL_LOSS = 3;
+    // Visitas reales que necesita un nodo antes de expandirse.
+    private static final int EXPAND_VISITS = 8;
+    private static final double EXPLORATION = 1.0;
+    private static final long REWARD_SCALE = 1 << 16;
+    private static final int MAX_TREE_DEPTH = 64;
+    private static final int ROLLOUT_TURNS_PER_PLAYER = 6;
+    private static final int ROLLOUT_SAMPLES = 3;
+
+    private static final int LEAF = 0;
+    private static final int EXPANDING = 1;
+    private static final int EXPANDED = 2;
+    // Hoja que no se puede expandir: sin movimientos o sin espacio en el pool.
+    private static final int CLOSED = 3;
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private final MonteCarloBudget budget;
+    // El presupuesto se creó para esta búsqueda y se cierra con ella.
+    private final boolean ownsBudget;
+    private final int capacity;
+    // Los arreglos del árbol prestado, mientras dura una búsqueda.
+    private NodePool nodes;
+    private NodePool spare;
+    private final AtomicInteger nextFree = new AtomicInteger();
+    private final Worker[] workers;
+
+    private GameSnapshot rootPosition;
+    private List<Player> rootPlayers;
+    private int[] turnColors;
+    private long deadline;
+    private int reusedNodes;
+    private final LongAdder cpuNanos = new LongAdder();
+    private long lastCpuNanos;
+
+    /**
+     * Crea una búsqueda con sus propios hilos y su propio árbol.
+     * @param threads Hilos que recorren el árbol en paralelo.
+     * @param memoryBytes Memoria máxima para los nodos del árbol.
+     */
+    public MonteCarloSearch(int threads, long memoryBytes) {
+        this(new MonteCarloBudget(threads, memoryBytes, 1, 1), true);
+    }
+
+    /**
+     * Crea una búsqueda que toma sus hilos y su árbol de un presupuesto compartido.
+     */
+    public MonteCarloSearch(MonteCarloBudget budget) {
+        this(budget, false);
+    }
+
+    private MonteCarloSearch(MonteCarloBudget budget, boolean ownsBudget) {
+        this.budget = budget;
+        this.ownsBudget = ownsBudget;
+        this.capacity = budget.getTreeCapacity();
+        this.workers = new Worker[budget.getWorkersPerSearch()];
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = new Worker(0x9E3779B97F4A7C15L * (i + 1));
+        }
+    }
+
+    /**
+     * Nodos de un árbol que cabe en esa memoria, contando el segundo juego de arreglos.
+     */
+    static int capacityFor(long memoryBytes) {
+        return (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1024, memoryBytes / BYTES_PER_NODE));
+    }
+
+    /**
+     * Busca el mejor turno para el jugador con el turno en la instantánea durante
+     * el tiempo indicado, reutilizando el subárbol de la búsqueda anterior si la
+     * posición desciende de ella. Si el presupuesto ya tiene todas las búsquedas
+     * simultáneas que admite, no espera: devuelve null sin buscar. Con un presupuesto
+     * propio eso sólo ocurre si se busca desde dos hilos a la vez.
+     * @return El movimiento más visitado; la puntuación es su recompensa media
+     *         (0..1000) y los nodos son las simulaciones jugadas. null si no hubo lugar.
+     */
+    public SearchResult search(GameSnapshot snapshot, long budgetNanos) {
+        List<Player> players = snapshot.getPlayers();
+        if (!snapshot.isBoardCreated() || players.isEmpty()) {
+            return new SearchResult(-1, 0, 0, 0, 0);
+        }
+        Tree tree = budget.tryAcquire(this);
+        if (tree == null) {
+            return null;
+        }
+        try {
+            if (tree.owner != this) {
+                // El árbol era de otra búsqueda: no queda nada que reutilizar.
+                tree.owner = this;
+                rootPosition = null;
+            }
+            nodes = tree.nodes;
+            spare = tree.spare;
+            return searchTree(snapshot, players, budgetNanos);
+        } finally {
+            // compact() pudo intercambiar los dos juegos de arreglos.
+            tree.nodes = nodes;
+            tree.spare = spare;
+            nodes = null;
+            spare = null;
+            budget.release(tree);
+        }
+    }
+
+    private SearchResult searchTree(GameSnapshot snapshot, List<Player> players, long budgetNanos) {
+        long start = System.nanoTime();
+        if (!advanceRoot(snapshot)) {
+            resetTree();
+        }
+        rootPosition = snapshot;
+        rootPlayers = players;
+        turnColors = new int[players.size()];
+        for (int i = 0; i < turnColors.length; i++) {
+            turnColors[i] = Piece.colorIndex(players.get(i).getColor());
+        }
+        deadline = start + budgetNanos;
+
+        cpuNanos.reset();
+        List<Callable<Long>> tasks = new ArrayList<>(workers.length);
+        for (Worker worker : workers) {
+            worker.state = snapshot.toGameState();
+            tasks.add(worker);
+        }
+        long playouts = 0;
+        try {
+            for (Future<Long> result : budget.pool().invokeAll(tasks)) {
+                playouts += result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Playout failed", e.getCause());
+        }
+        lastCpuNanos = cpuNanos.sum();
+
+        int best = bestChild();
+        int move = best < 0 ? -1 : nodes.moves[best];
+        int score = 0;
+        if (best >= 0 && nodes.visits.get(best) > 0) {
+            score = (int) (nodes.rewards.get(best) * 1000 / (REWARD_SCALE * nodes.visits.get(best)));
+        }
+        return new SearchResult(move, score, 0, playouts, System.nanoTime() - start);
+    }
+
+    /**
+     * Nodos en uso del pool.
+     */
+    public int getNodeCount() {
+        return Math.min(nextFree.get(), capacity);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Nodos conservados de la búsqueda anterior al empezar la última búsqueda.
+     */
+    public int getReusedNodes() {
+        return reusedNodes;
+    }
+
+    /**
+     * Tiempo de CPU sumado de todos los hilos durante la última búsqueda.
+     */
+    public long getLastCpuNanos() {
+        return lastCpuNanos;
+    }
+
+    /**
+     * Descarta el árbol; la siguiente búsqueda empieza de cero.
+     */
+    public void clear() {
+        rootPosition = null;
+    }
+
+    /**
+     * Libera el árbol para otras búsquedas y, si el presupuesto era propio, detiene sus hilos.
+     */
+    @Override
+    public void close() {
+        budget.forget(this);
+        if (ownsBudget) {
+            budget.close();
+        }
+    }
+
+    private void resetTree() {
+        nodes.reset(0, -1);
+        nextFree.set(1);
+        reusedNodes = 0;
+    }
+
+    // El hijo más visitado de la raíz, o -1 si no se expandió.
+    private int bestChild() {
+        if (nodes.state.get(0) != EXPANDED) {
+            return -1;
+        }
+        int first = nodes.firstChild[0];
+        int best = -1;
+        int bestVisits = -1;
+        for (int child = first; child < first + nodes.childCount[0]; child++) {
+            int visits = nodes.visits.get(child);
+            if (visits > bestVisits) {
+                bestVisits = visits;
+                best = child;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Busca en el árbol la posición nueva siguiendo los movimientos jugados desde
+     * la raíz anterior, y si la encuentra compacta su subárbol como árbol nuevo.
+     * Cada color mueve una sola pieza por turno, así que su movimiento se deduce
+     * de la celda que dejó y la que ocupó.
+     */
+    private boolean advanceRoot(GameSnapshot snapshot) {
+        if (rootPosition == null || !rootPlayers.equals(snapshot.getPlayers())) {
+            return false;
+        }
+        int playerCount = turnColors.length;
+        int turns = Math.floorMod(snapshot.getTurnIndex() - rootPosition.getTurnIndex(), playerCount);
+        if (turns == 0) {
+            turns = rootPosition.sharesBoardWith(snapshot) ? 0 : playerCount;
+        }
+        int node = 0;
+        for (int t = 0; t < turns; t++) {
+            int color = turnColors[(rootPosition.getTurnIndex() + t) % playerCount];
+            int from = -1;
+            int to = -1;
+            for (int i = 0; i < BoardIndex.CELL_COUNT; i++) {
+                boolean before = rootPosition.getCellColor(i) == color;
+                boolean after = snapshot.getCellColor(i) == color;
+                if (before && !after) {
+                    if (from >= 0) return false;
+                    from = i;
+                } else if (after && !before) {
+                    if (to >= 0) return false;
+                    to = i;
+                }
+            }
+            if (from < 0 || to < 0 || nodes.state.get(node) != EXPANDED) {
+                return false;
+            }
+            int next = -1;
+            int first = nodes.firstChild[node];
+            for (int child = first; child < first + nodes.childCount[node]; child++) {
+                int move = nodes.moves[child];
+                if (Move.from(move) == from && Move.to(move) == to) {
+                    next = child;
+                    break;
+                }
+            }
+            if (next < 0) {
+                return false;
+            }
+            node = next;
+        }
+        compact(node);
+        return true;
+    }
+
+    /**
+     * Copia el subárbol de newRoot al otro juego de arreglos en orden de anchura,
+     * dejando los hijos de cada nodo contiguos, e intercambia los juegos.
+     */
+    private void compact(int newRoot) {
+        NodePool from = nodes;
+        NodePool to = spare;
+        // Mientras un nodo espera en la cola, firstChild guarda su índice de origen.
+        to.firstChild[0] = newRoot;
+        int end = 1;
+        for (int dst = 0; dst < end; dst++) {
+            int src = to.firstChild[dst];
+            to.moves[dst] = dst == 0 ? -1 : from.moves[src];
+            to.visits.set(dst, from.visits.get(src));
+            to.rewards.set(dst, from.rewards.get(src));
+            if (from.state.get(src) == EXPANDED) {
+                int first = from.firstChild[src];
+                int count = from.childCount[src];
+                for (int k = 0; k < count; k++) {
+                    to.firstChild[end + k] = first + k;
+                }
+                to.firstChild[dst] = end;
+                to.childCount[dst] = count;
+                to.state.set(dst, EXPANDED);
+                end += count;
+            } else {
+                to.firstChild[dst] = 0;
+                to.childCount[dst] = 0;
+                to.state.set(dst, LEAF);
+            }
+        }
+        nodes = to;
+        spare = from;
+        nextFree.set(end);
+        reusedNodes = end;
+    }
+
+    /**
+     * Un árbol de un {@link MonteCarloBudget}: los dos juegos de arreglos y la búsqueda
+     * que lo usó por última vez. Sólo lo toca la búsqueda que lo tiene prestado.
+     */
+    static final class Tree {
+        NodePool nodes;
+        NodePool spare;
+        MonteCarloSearch owner;
+
+        Tree(int capacity) {
+            nodes = new NodePool(capacity);
+            spare = new NodePool(capacity);
+        }
+    }
+
+    /**
+     * Arreglos de un árbol. Los campos planos se escriben antes de publicar el
+     * nodo con el estado EXPANDED, que es atómico, así que quien lee ese estado
+     * ve los hijos completos.
+     */
+    private static final class NodePool {
+        final int[] moves;
+        final int[] firstChild;
+        final int[] childCount;
+        final AtomicIntegerArray state;
+        final AtomicIntegerArray visits;
+        final AtomicLongArray rewards;
+
+        NodePool(int capacity) {
+            moves = new int[capacity];
+            firstChild = new int[capacity];
+            childCount = new int[capacity];
+            state = new AtomicIntegerArray(capacity);
+            visits = new AtomicIntegerArray(capacity);
+            rewards = new AtomicLongArray(capacity);
+        }
+
+        void reset(int node, int move) {
+            moves[node] = move;
+            firstChild[node] = 0;
+            childCount[node] = 0;
+            state.set(node, LEAF);
+            visits.set(node, 0);
+            rewards.set(node, 0);
+        }
+    }
+
+    /**
+     * Hilo de simulaciones con su propia copia del estado y sus propios buffers.
+     */
+    private final class Worker implements Callable<Long> {
+        private final int[] moves = new int[GameRulesService.MAX_TURN_MOVES];
+        private final int[] path = new int[MAX_TREE_DEPTH + 1];
+        private final int[] movers = new int[MAX_TREE_DEPTH + 1];
+        private final long[] tokens = new long[MAX_TREE_DEPTH + ROLLOUT_TURNS_PER_PLAYER * Piece.COLOR_COUNT];
+        private final int[] distances = new int[Piece.COLOR_COUNT];
+        private final long[] rewards = new long[Piece.COLOR_COUNT];
+        private long random;
+        GameState state;
+
+        Worker(long seed) {
+            this.random = seed;
+        }
+
+        @Override
+        public Long call() {
+            long cpuBefore = THREADS.getCurrentThreadCpuTime();
+            long playouts = 0;
+            while (System.nanoTime() < deadline || playouts == 0) {
+                playout();
+                playouts++;
+            }
+            long cpuAfter = THREADS.getCurrentThreadCpuTime();
+            if (cpuBefore >= 0) {
+                cpuNanos.add(cpuAfter - cpuBefore);
+            }
+            return playouts;
+        }
+
+        private void playout() {
+            NodePool tree = nodes;
+            Board board = state.getBoard();
+            int tokenCount = 0;
+            int pathLength = 1;
+            int winner = -1;
+            int node = 0;
+            path[0] = 0;
+            tree.visits.incrementAndGet(0);
+
+            // Selección y expansión.
+            while (pathLength <= MAX_TREE_DEPTH) {
+                int status = tree.state.get(node);
+                if (status == LEAF && (node == 0 || tree.visits.get(node) >= VIRTUAL_LOSS + EXPAND_VISITS)
+                        && tree.state.compareAndSet(node, LEAF, EXPANDING)) {
+                    status = expand(tree, node);
+                }
+                if (status != EXPANDED) {
+                    break;
+                }
+                int side = turnColors[state.getCurentTurnIndex()];
+                int child = select(tree, node);
+                tree.visits.addAndGet(child, VIRTUAL_LOSS);
+                movers[pathLength] = side;
+                path[pathLength++] = child;
+                tokens[tokenCount++] = state.makeMove(tree.moves[child]);
+                if (board.hasWon(side)) {
+                    winner = side;
+                    break;
+                }
+                node = child;
+            }
+
+            // Simulación.
+            int rolloutTurns = ROLLOUT_TURNS_PER_PLAYER * turnColors.length;
+            for (int turn = 0; winner < 0 && turn < rolloutTurns; turn++) {
+                int side = turnColors[state.getCurentTurnIndex()];
+                int count = GameRulesService.generateTurnMoves(board, side, moves);
+                if (count == 0) break;
+                tokens[tokenCount++] = state.makeMove(rolloutMove(count, side));
+                if (board.hasWon(side)) {
+                    winner = side;
+                }
+            }
+
+            // Retropropagación: se quita la pérdida virtual y se suma la recompensa de quien movió.
+            computeRewards(board, winner);
+            for (int i = pathLength - 1; i >= 1; i--) {
+                int visited = path[i];
+                tree.rewards.addAndGet(visited, rewards[movers[i]]);
+                tree.visits.addAndGet(visited, 1 - VIRTUAL_LOSS);
+            }
+            while (tokenCount > 0) {
+                state.unmakeMove(tokens[--tokenCount]);
+            }
+        }
+
+        /**
+         * Recompensa de cada color al final de la simulación, en unidades de
+         * REWARD_SCALE: todo para el ganador si lo hay y, si no, la posición
+         * relativa (vence a los rivales más lejos de su meta y empata con los iguales).
+         */
+        private void computeRewards(Board board, int winner) {
+            int playerCount = turnColors.length;
+            for (int color : turnColors) {
+                distances[color] = GameRulesService.apexDistance(board, color);
+            }
+            for (int color : turnColors) {
+                if (winner >= 0) {
+                    rewards[color] = color == winner ? REWARD_SCALE : 0;
+                    continue;
+                }
+                if (playerCount < 2) {
+                    rewards[color] = REWARD_SCALE;
+                    continue;
+                }
+                int beaten = 0;
+                for (int other : turnColors) {
+                    if (other == color) continue;
+                    beaten += distances[other] > distances[color] ? 2 : distances[other] == distances[color] ? 1 : 0;
+                }
+                rewards[color] = beaten * REWARD_SCALE / (2L * (playerCount - 1));
+            }
+        }
+
+        /**
+         * Crea los hijos de un nodo reservado con el CAS. Si no hay movimientos o
+         * no queda espacio en el pool, el nodo queda cerrado como hoja.
+         */
+        private int expand(NodePool tree, int node) {
+            int side = turnColors[state.getCurentTurnIndex()];
+            int count = GameRulesService.generateTurnMoves(state.getBoard(), side, moves);
+            if (count == 0 || nextFree.get() + count > capacity) {
+                tree.state.set(node, CLOSED);
+                return CLOSED;
+            }
+            int first = nextFree.getAndAdd(count);
+            if (first + count > capacity) {
+                tree.state.set(node, CLOSED);
+                return CLOSED;
+            }
+            for (int i = 0; i < count; i++) {
+                tree.reset(first + i, moves[i]);
+            }
+            tree.firstChild[node] = first;
+            tree.childCount[node] = count;
+            tree.state.set(node, EXPANDED);
+            return EXPANDED;
+        }
+
+        // UCT: recompensa media más el término de exploración; los hijos sin visitar van primero.
+        private int select(NodePool tree, int node) {
+            int first = tree.firstChild[node];
+            int end = first + tree.childCount[node];
+            double logParent = Math.log(Math.max(1, tree.visits.get(node)));
+            int best = first;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (int child = first; child < end; child++) {
+                int visits = tree.visits.get(child);
+                if (visits == 0) {
+                    return child;
+                }
+                double value = tree.rewards.get(child) / (double) (REWARD_SCALE * visits)
+                        + EXPLORATION * Math.sqrt(logParent / visits);
+                if (value > bestValue) {
+                    bestValue = value;
+                    best = child;
+                }
+            }
+            return best;
+        }
+
+        // Política de simulación: de unos pocos movimientos al azar, el que más avanza hacia la meta.
+        private int rolloutMove(int count, int side) {
+            int apex = BoardIndex.goalApex(side);
+            int best = moves[nextInt(count)];
+            int bestProgress = progress(best, apex);
+            for (int sample = 1; sample < ROLLOUT_SAMPLES; sample++) {
+                int move = moves[nextInt(count)];
+                int progress = progress(move, apex);
+                if (progress > bestProgress) {
+                    best = move;
+                    bestProgress = progress;
+                }
+            }
+            return best;
+        }
+
+        private int progress(int move, int apex) {
+            return BoardIndex.distance(Move.from(move), apex) - BoardIndex.distance(Move.to(move), apex);
+        }
+
+        // xorshift64*: sin objetos ni sincronización.
+        private int nextInt(int bound) {
+            random ^= random >>> 12;
+            random ^= random << 25;
+            random ^= random >>> 27;
+            long value = (random * 0x2545F4914F6CDD1DL) >>> 33;
+            return (int) ((value * bound) >>> 31);
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package Model.AI;
+
+import Model.Entities.Board;
+import Model.Entities.BoardIndex;
+import Model.Entities.GameState;
+import Model.Entities.Move;
+import Model.Entities.Piece;
+import Model.Entities.Player;
+import Model.Service.GameRulesService;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Búsqueda alfa-beta "paranoica" para partidas de dos a seis jugadores: el color
+ * que busca maximiza y supone que todos los rivales juegan en coalición para
+ * minimizar su puntuación. Usa profundización iterativa con un presupuesto de
+ * tiempo por movimiento y conserva el mejor movimiento de la última iteración
+ * completa. Cada turno generado es un turno completo según las reglas del juego
+ * (un paso, o una cadena recta de saltos que puede detenerse en cualquier
+ * aterrizaje), y se aplica sobre una copia del estado con makeMove/unmakeMove.
+ * Reutiliza sus buffers entre búsquedas; cada hilo debe tener su propia instancia,
+ * aunque varias instancias pueden compartir una {@link TranspositionTable}.
+ * Con tabla, cada nodo interior consulta su posición antes de generar movimientos:
+ * una cota suficiente corta la búsqueda y, si no, el movimiento guardado se prueba
+ * primero. Como la puntuación es relativa al color raíz, ese color se mezcla en la clave.
+ */
+public class ParanoidSearch {
+    /** Profundidad máxima en medios turnos (un turno de un jugador). */
+    public static final int MAX_PLY = 32;
+    /** Puntuación de una victoria; se le resta la distancia en turnos para preferir la más cercana. */
+    public static final int WIN = 1_000_000;
+
+    private static final int INFINITY = 2 * WIN;
+    // Cada cuántos nodos se consulta el reloj.
+    private static final int TIME_CHECK_MASK = 1023;
+    // Rango del avance de un movimiento (distancia ganada hacia la meta): -16..16.
+    private static final int PROGRESS_RANGE = 4 * BoardIndex.RADIUS + 1;
+
+    private final int[][] moves = new int[MAX_PLY][GameRulesService.MAX_TURN_MOVES];
+    private final int[] sorted = new int[GameRulesService.MAX_TURN_MOVES];
+    private final int[] buckets = new int[PROGRESS_RANGE + 1];
+    private final TranspositionTable table;
+
+    private GameState state;
+    private Board board;
+    private int[] turnColors;
+    private int rootColor;
+    private long nodes;
+    private long deadline;
+    private int completedDepth;
+    private boolean aborted;
+    private AtomicBoolean cancelled;
+    private long rootSalt;
+
+    public ParanoidSearch() {
+        this(null);
+    }
+
+    /**
+     * @param table Tabla de transposiciones a usar, posiblemente compartida con
+     *              otros hilos, o null para buscar sin ella.
+     */
+    public ParanoidSearch(TranspositionTable table) {
+        this.table = table;
+    }
+
+    public TranspositionTable getTable() {
+        return table;
+    }
+
+    /**
+     * Busca el mejor turno para el jugador que tiene el turno en el estado dado.
+     * El estado se modifica durante la búsqueda pero se devuelve intacto.
+     * @param state Copia del estado a analizar (ver {@link Model.Entities.GameSnapshot#toGameState}).
+     * @param budgetNanos Tiempo disponible; la primera iteración siempre se completa.
+     * @param maxDepth Profundidad máxima en turnos.
+     * @return El resultado de la última iteración completada.
+     */
+    public SearchResult search(GameState state, long budgetNanos, int maxDepth) {
+        return search(state, budgetNanos, maxDepth, null);
+    }
+
+    /**
+     * Igual que {@link #search(GameState, long, int)}, pero otro hilo puede cancelarla
+     * activando el indicador: la búsqueda termina en cuanto lo ve, aunque no haya
+     * completado la primera iteración, y su resultado ya no es fiable.
+     * @param cancelled Indicador de cancelación, o null.
+     */
+    public SearchResult search(GameState state, long budgetNanos, int maxDepth, AtomicBoolean cancelled) {
+        long start = System.nanoTime();
+        prepare(state, -1, start + budgetNanos);
+        this.cancelled = cancelled;
+        if (table != null) {
+            table.newSearch();
+        }
+
+        int[] rootMoves = moves[0];
+        int count = GameRulesService.generateTurnMoves(board, rootColor, rootMoves);
+        if (count == 0) {
+            return new SearchResult(-1, evaluate(), 0, 0, System.nanoTime() - start);
+        }
+        orderMoves(rootMoves, count, rootColor);
+
+        int bestMove = rootMoves[0];
+        int bestScore = -INFINITY;
+        int depthLimit = Math.min(maxDepth, MAX_PLY - 1);
+        for (int depth = 1; depth <= depthLimit; depth++) {
+            int alpha = -INFINITY;
+            int iterationBest = -1;
+            for (int i = 0; i < count; i++) {
+                int move = rootMoves[i];
+                long token = state.makeMove(move);
+                int score = board.hasWon(rootColor) ? WIN : value(depth - 1, 1, alpha, INFINITY);
+                state.unmakeMove(token);
+                if (aborted) break;
+                if (score > alpha) {
+                    alpha = score;
+                    iterationBest = i;
+                }
+            }
+            if (aborted) break;
+
+            bestMove = rootMoves[iterationBest];
+            bestScore = alpha;
+            completedDepth = depth;
+            // El mejor movimiento encabeza la lista en la siguiente iteración.
+            System.arraycopy(rootMoves, 0, rootMoves, 1, iterationBest);
+            rootMoves[0] = bestMove;
+            if (Math.abs(bestScore) >= WIN - MAX_PLY) break;
+        }
+        return new SearchResult(bestMove, bestScore, completedDepth, nodes, System.nanoTime() - start);
+    }
+
+    /**
+     * Puntúa una posición a profundidad fija y sin límite de tiempo desde el punto
+     * de vista de un color, que no necesita tener el turno. Permite repartir el
+     * árbol entre varios hilos: cada uno puntúa una rama con su propia instancia.
+     * @param state Copia del estado a analizar; se devuelve intacto.
+     * @param rootColorIndex Color para el que se puntúa (el que maximiza).
+     * @param depth Turnos a explorar desde la posición.
+     * @param ply Turnos ya jugados desde la raíz del análisis, para puntuar las
+     *            victorias igual que en una búsqueda completa.
+     * @return La puntuación paranoica de la posición.
+     */
+    public int score(GameState state, int rootColorIndex, int depth, int ply) {
+        prepare(state, rootColorIndex, Long.MAX_VALUE);
+        return value(Math.min(depth, MAX_PLY - 1 - ply), ply, -INFINITY, INFINITY);
+    }
+
+    /**
+     * Nodos visitados por la última llamada a {@link #search} o {@link #score}.
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    private void prepare(GameState state, int rootColorIndex, long deadline) {
+        this.state = state;
+        this.board = state.getBoard();
+        this.deadline = deadline;
+        this.nodes = 0;
+        this.completedDepth = 0;
+        this.aborted = false;
+        this.cancelled = null;
+
+        ArrayList<Player> players = state.getPlayers();
+        turnColors = new int[players.size()];
+        for (int i = 0; i < turnColors.length; i++) {
+            turnColors[i] = Piece.colorIndex(players.get(i).getColor());
+        }
+        rootColor = rootColorIndex >= 0 ? rootColorIndex : turnColors[state.getCurentTurnIndex()];
+        rootSalt = (rootColor + 1) * 0x9E3779B97F4A7C15L;
+    }
+
+    private int value(int depth, int ply, int alpha, int beta) {
+        nodes++;
+        if ((nodes & TIME_CHECK_MASK) == 0) {
+            if ((completedDepth > 0 && System.nanoTime() > deadline) || (cancelled != null && cancelled.get())) {
+                aborted = true;
+            }
+        }
+        if (aborted) return 0;
+        if (depth == 0) return evaluate();
+
+        long key = 0;
+        int tableMove = -1;
+        if (table != null) {
+            key = state.getZobristKey() ^ rootSalt;
+            long entry = table.probe(key);
+            if (entry != TranspositionTable.MISS) {
+                tableMove = TranspositionTable.move(entry);
+                if (TranspositionTable.depth(entry) >= depth) {
+                    int score = fromTable(TranspositionTable.score(entry), ply);
+                    int bound = TranspositionTable.bound(entry);
+                    if (bound == TranspositionTable.EXACT
+                            || (bound == TranspositionTable.LOWER_BOUND && score >= beta)
+                            || (bound == TranspositionTable.UPPER_BOUND && score <= alpha)) {
+                        return score;
+                    }
+                }
+            }
+        }
+
+        int side = turnColors[state.getCurentTurnIndex()];
+        int[] list = moves[ply];
+        int count = GameRulesService.generateTurnMoves(board, side, list);
+        if (count == 0) return evaluate();
+        orderMoves(list, count, side);
+        if (tableMove >= 0) {
+            moveToFront(list, count, tableMove);
+        }
+
+        int alphaBefore = alpha;
+        int betaBefore = beta;
+        boolean maximizing = side == rootColor;
+        int best = maximizing ? -INFINITY : INFINITY;
+        int bestMove = -1;
+        for (int i = 0; i < count; i++) {
+            long token = state.makeMove(list[i]);
+            int score;
+            if (board.hasWon(side)) {
+                score = maximizing ? WIN - ply : -WIN + ply;
+            } else {
+                score = value(depth - 1, ply + 1, alpha, beta);
+            }
+            state.unmakeMove(token);
+            if (aborted) return 0;
+
+            if (maximizing) {
+                if (score > best) {
+                    best = score;
+                    bestMove = list[i];
+                }
+                if (best > alpha) alpha = best;
+            } else {
+                if (score < best) {
+                    best = score;
+                    bestMove = list[i];
+                }
+                if (best < beta) beta = best;
+            }
+            if (alpha >= beta) break;
+        }
+
+        if (table != null) {
+            int bound = best <= alphaBefore ? TranspositionTable.UPPER_BOUND
+                    : best >= betaBefore ? TranspositionTable.LOWER_BOUND
+                    : TranspositionTable.EXACT;
+            table.store(key, bestMove, depth, bound, toTable(best, ply));
+        }
+        return best;
+    }
+
+    // Las victorias se guardan relativas al nodo y no a la raíz, para que valgan desde cualquier ply.
+    private static int toTable(int score, int ply) {
+        if (score >= WIN - MAX_PLY) return score + ply;
+        if (score <= -WIN + MAX_PLY) return score - ply;
+        return score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        if (score >= WIN - MAX_PLY) return score - ply;
+        if (score <= -WIN + MAX_PLY) return score + ply;
+        return score;
+    }
+
+    // Lleva un movimiento al principio de la lista conservando el orden del resto.
+    private static void moveToFront(int[] list, int count, int move) {
+        for (int i = 0; i < count; i++) {
+            if (list[i] == move) {
+                System.arraycopy(list, 0, list, 1, i);
+                list[0] = move;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Evaluación desde el punto de vista del color raíz: cuánto les falta a los
+     * rivales menos cuánto le falta a él, con su distancia ponderada por la
+     * cantidad de rivales para que ambos términos pesen lo mismo.
+     */
+    private int evaluate() {
+        int own = 0;
+        int others = 0;
+        for (int color : turnColors) {
+            int distance = GameRulesService.apexDistance(board, color);
+            if (color == rootColor) {
+                own = distance;
+            } else {
+                others += distance;
+            }
+        }
+        return others - (turnColors.length - 1) * own;
+    }
+
+    /**
+     * Ordena los movimientos de mayor a menor avance hacia la punta de la meta
+     * con un ordenamiento por casilleros estable: el avance sólo toma 33 valores.
+     */
+    private void orderMoves(int[] list, int count, int color) {
+        int apex = BoardIndex.goalApex(color);
+        Arrays.fill(buckets, 0);
+        for (int i = 0; i < count; i++) {
+            buckets[progressSlot(list[i], apex) + 1]++;
+        }
+        for (int slot = 1; slot <= PROGRESS_RANGE; slot++) {
+            buckets[slot] += buckets[slot - 1];
+        }
+        for (int i = 0; i < count; i++) {
+            sorted[buckets[progressSlot(list[i], apex)]++] = list[i];
+        }
+        System.arraycopy(sorted, 0, list, 0, count);
+    }
+
+    // Casillero de un movimiento: 0 para el mayor avance, PROGRESS_RANGE - 1 para el mayor retroceso.
+    private static int progressSlot(int move, int apex) {
+        int progress = BoardIndex.distance(Move.from(move), apex) - BoardIndex.distance(Move.to(move), apex);
+        return 2 * BoardIndex.RADIUS - progress;
+    }
+}
@@ -0,0 +1,247 @@
+package Model.AI;
+
+import Model.Entities.GameSnapshot;
+import Model.Entities.GameState;
+import Model.Entities.Piece;
+import Model.Service.GameRulesService;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Analizador que puntúa cada movimiento legal del jugador con el turno
+ * repartiendo el trabajo en un ForkJoinPool propio. Los movimientos de la raíz se
+ * dividen recursivamente en tareas; cuando queda profundidad suficiente, cada
+ * movimiento vuelve a dividirse en una tarea por respuesta del siguiente rival.
+ * Cada tarea reconstruye su propia copia del estado a partir de una instantánea
+ * inmutable y la explora con la {@link ParanoidSearch} de su hilo, así que no
+ * se comparte nada mutable entre hilos.
+ * El tamaño del pool es configurable para que el análisis no le quite todos los
+ * núcleos a las partidas en curso. Todas las búsquedas comparten una
+ * {@link TranspositionTable} sin bloqueos; sin tabla, las puntuaciones no dependen
+ * de la cantidad de hilos, y con ella pueden variar levemente según el orden en
+ * que los hilos llenan la tabla.
+ */
+public class PositionAnalyzer implements AutoCloseable {
+    public static final int DEFAULT_DEPTH = 3;
+    public static final int DEFAULT_TABLE_MEGABYTES = 32;
+    // Profundidad restante a partir de la cual también se reparten las respuestas.
+    private static final int SPLIT_DEPTH = 2;
+
+    private final ForkJoinPool pool;
+    private final TranspositionTable table;
+    private final ThreadLocal<ParanoidSearch> searches;
+
+    /**
+     * Crea un analizador con la mitad de los núcleos disponibles y la tabla por defecto.
+     */
+    public PositionAnalyzer() {
+        this(Math.max(1, Runtime.getRuntime().availableProcessors() / 2), DEFAULT_TABLE_MEGABYTES);
+    }
+
+    /**
+     * @param parallelism Cantidad de hilos del pool de análisis.
+     * @param tableMegabytes Tamaño de la tabla de transposiciones compartida, o 0 para no usarla.
+     */
+    public PositionAnalyzer(int parallelism, int tableMegabytes) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        }
+        this.table = tableMegabytes > 0 ? new TranspositionTable(tableMegabytes) : null;
+        this.searches = ThreadLocal.withInitial(() -> new ParanoidSearch(table));
+        this.pool = new ForkJoinPool(parallelism, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("analyzer-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * La tabla de transposiciones compartida, o null si el analizador no usa tabla.
+     */
+    public TranspositionTable getTable() {
+        return table;
+    }
+
+    /**
+     * Analiza el estado vivo de una partida. Debe llamarse desde el hilo que lo
+     * modifica; el estado sólo se lee para capturar una instantánea.
+     * @param state El estado a analizar.
+     * @param depth Turnos a explorar, contando el movimiento analizado.
+     */
+    public AnalysisResult analyze(GameState state, int depth) {
+        return analyze(GameSnapshot.capture(state, null), depth);
+    }
+
+    /**
+     * Puntúa todos los movimientos legales del jugador con el turno en la instantánea.
+     * @param snapshot Posición a analizar; puede venir de cualquier hilo.
+     * @param depth Turnos a explorar, contando el movimiento analizado.
+     * @return Los movimientos ordenados de mejor a peor, o un resultado vacío si
+     *         el tablero no existe o el jugador no tiene movimientos.
+     */
+    public AnalysisResult analyze(GameSnapshot snapshot, int depth) {
+        long start = System.nanoTime();
+        GameState state = snapshot.toGameState();
+        if (state == null) {
+            return new AnalysisResult(new int[0], new int[0], depth, 0, 0);
+        }
+        int rootColor = Piece.colorIndex(state.getCurrentPlayer().getColor());
+        int[] buffer = new int[GameRulesService.MAX_TURN_MOVES];
+        int count = GameRulesService.generateTurnMoves(state.getBoard(), rootColor, buffer);
+        int[] moves = Arrays.copyOf(buffer, count);
+        int[] scores = new int[count];
+        LongAdder nodes = new LongAdder();
+        if (count > 0) {
+            if (table != null) {
+                table.newSearch();
+            }
+            pool.invoke(new RootTask(snapshot, rootColor, Math.max(1, depth), moves, scores, 0, count, nodes));
+        }
+        sortByScore(moves, scores);
+        return new AnalysisResult(moves, scores, depth, nodes.sum(), System.nanoTime() - start);
+    }
+
+    /**
+     * Detiene el pool de análisis.
+     */
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    // Ordenamiento por inserción estable: se hace una vez por análisis sobre pocos cientos de movimientos.
+    private static void sortByScore(int[] moves, int[] scores) {
+        for (int i = 1; i < moves.length; i++) {
+            int move = moves[i];
+            int score = scores[i];
+            int j = i - 1;
+            while (j >= 0 && scores[j] < score) {
+                moves[j + 1] = moves[j];
+                scores[j + 1] = scores[j];
+                j--;
+            }
+            moves[j + 1] = move;
+            scores[j + 1] = score;
+        }
+    }
+
+    /**
+     * Puntúa los movimientos de la raíz en [from, to), partiendo el rango a la
+     * mitad hasta llegar a un único movimiento.
+     */
+    // Las tareas nunca se serializan; RecursiveAction es Serializable sólo por herencia.
+    @SuppressWarnings("serial")
+    private final class RootTask extends RecursiveAction {
+        private final GameSnapshot root;
+        private final int rootColor;
+        private final int depth;
+        private final int[] moves;
+        private final int[] scores;
+        private final int from;
+        private final int to;
+        private final LongAdder nodes;
+
+        RootTask(GameSnapshot root, int rootColor, int depth, int[] moves, int[] scores,
+                 int from, int to, LongAdder nodes) {
+            this.root = root;
+            this.rootColor = rootColor;
+            this.depth = depth;
+            this.moves = moves;
+            this.scores = scores;
+            this.from = from;
+            this.to = to;
+            this.nodes = nodes;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new RootTask(root, rootColor, depth, moves, scores, from, mid, nodes),
+                        new RootTask(root, rootColor, depth, moves, scores, mid, to, nodes));
+                return;
+            }
+            GameState state = root.toGameState();
+            state.makeMove(moves[from]);
+            nodes.increment();
+            if (state.getBoard().hasWon(rootColor)) {
+                scores[from] = ParanoidSearch.WIN;
+            } else if (depth - 1 >= SPLIT_DEPTH) {
+                scores[from] = scoreReplies(state);
+            } else {
+                ParanoidSearch search = searches.get();
+                scores[from] = search.score(state, rootColor, depth - 1, 1);
+                nodes.add(search.getNodes());
+            }
+        }
+
+        /**
+         * Reparte las respuestas del rival siguiente en tareas y se queda con la
+         * peor para el color raíz, como haría la búsqueda paranoica.
+         */
+        private int scoreReplies(GameState state) {
+            int side = Piece.colorIndex(state.getCurrentPlayer().getColor());
+            int[] buffer = new int[GameRulesService.MAX_TURN_MOVES];
+            int count = GameRulesService.generateTurnMoves(state.getBoard(), side, buffer);
+            if (count == 0) {
+                ParanoidSearch search = searches.get();
+                int score = search.score(state, rootColor, depth - 1, 1);
+                nodes.add(search.getNodes());
+                return score;
+            }
+            GameSnapshot position = GameSnapshot.capture(state, null);
+            List<ReplyTask> replies = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                replies.add(new ReplyTask(position, side, buffer[i]));
+            }
+            invokeAll(replies);
+            int best = Integer.MAX_VALUE;
+            for (ReplyTask reply : replies) {
+                best = Math.min(best, reply.score);
+            }
+            return best;
+        }
+
+        /**
+         * Puntúa una respuesta del rival a un movimiento de la raíz.
+         */
+        @SuppressWarnings("serial")
+        private final class ReplyTask extends RecursiveAction {
+            private final GameSnapshot position;
+            private final int side;
+            private final int move;
+            private int score;
+
+            ReplyTask(GameSnapshot position, int side, int move) {
+                this.position = position;
+                this.side = side;
+                this.move = move;
+            }
+
+            @Override
+            protected void compute() {
+                GameState state = position.toGameState();
+                state.makeMove(move);
+                nodes.increment();
+                if (state.getBoard().hasWon(side)) {
+                    score = -ParanoidSearch.WIN + 1;
+                } else {
+                    ParanoidSearch search = searches.get();
+                    score = search.score(state, rootColor, depth - 2, 2);
+                    nodes.add(search.getNodes());
+                }
+            }
+        }
+    }
+}
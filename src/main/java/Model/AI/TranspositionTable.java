@@ -0,0 +1,186 @@
+package Model.AI;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tabla de transposiciones de tamaño fijo, compartible entre hilos de búsqueda
+ * sin bloqueos. Vive en un único {@code long[]} preasignado: cada entrada ocupa dos
+ * longs, la clave XOR los datos y los datos, y se agrupan en cubetas de dos. Al
+ * leer se comprueba que {@code clave ^ datos} reproduzca la clave buscada, así que
+ * una entrada a medio escribir por otro hilo se descarta como fallo en lugar de
+ * devolver datos de otra posición. Ni las consultas ni los guardados crean objetos.
+ * Reemplazo: una entrada de la misma posición siempre se sobrescribe; si no, se
+ * sustituye la de la cubeta con menor profundidad, descontando la antigüedad
+ * respecto de la búsqueda actual.
+ * Formato de los datos: movimiento (20 bits), profundidad (6), tipo de cota (2),
+ * generación (6) y puntuación con signo (30). Un valor 0 indica un fallo, porque
+ * toda entrada guardada tiene un tipo de cota distinto de cero.
+ */
+public class TranspositionTable {
+    public static final int EXACT = 1;
+    public static final int LOWER_BOUND = 2;
+    public static final int UPPER_BOUND = 3;
+    public static final long MISS = 0;
+
+    private static final int ENTRY_LONGS = 2;
+    private static final int BUCKET_ENTRIES = 2;
+    private static final int BUCKET_LONGS = ENTRY_LONGS * BUCKET_ENTRIES;
+    private static final int BYTES_PER_BUCKET = BUCKET_LONGS * Long.BYTES;
+    // Peso de cada generación de antigüedad frente a la profundidad al elegir qué reemplazar.
+    private static final int AGE_WEIGHT = 8;
+
+    private final long[] table;
+    private final long bucketMask;
+    private volatile int generation;
+    private final LongAdder probes = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder stores = new LongAdder();
+
+    /**
+     * @param megabytes Memoria de la tabla; se redondea hacia abajo a una potencia de dos de cubetas.
+     */
+    public TranspositionTable(int megabytes) {
+        if (megabytes < 1) {
+            throw new IllegalArgumentException("Table size must be at least 1 MB: " + megabytes);
+        }
+        long buckets = Long.highestOneBit(((long) megabytes << 20) / BYTES_PER_BUCKET);
+        buckets = Math.min(buckets, Integer.highestOneBit((Integer.MAX_VALUE - 8) / BUCKET_LONGS));
+        this.table = new long[(int) buckets * BUCKET_LONGS];
+        this.bucketMask = buckets - 1;
+    }
+
+    /**
+     * Empaqueta los datos de una entrada.
+     * @param move Movimiento codificado, o -1 si no hay.
+     * @param depth Profundidad de la búsqueda que produjo la puntuación (0..63).
+     * @param bound {@link #EXACT}, {@link #LOWER_BOUND} o {@link #UPPER_BOUND}.
+     * @param score Puntuación de la posición.
+     */
+    private static long pack(int move, int depth, int bound, int generation, int score) {
+        return (move & 0xFFFFFL)
+                | ((long) (depth & 0x3F) << 20)
+                | ((long) bound << 26)
+                | ((long) (generation & 0x3F) << 28)
+                | ((long) score << 34);
+    }
+
+    /**
+     * Movimiento guardado en los datos de una entrada, o -1 si no había.
+     */
+    public static int move(long data) {
+        int move = (int) (data & 0xFFFFF);
+        return move == 0xFFFFF ? -1 : move;
+    }
+
+    public static int depth(long data) {
+        return (int) (data >>> 20) & 0x3F;
+    }
+
+    public static int bound(long data) {
+        return (int) (data >>> 26) & 0x3;
+    }
+
+    private static int generationOf(long data) {
+        return (int) (data >>> 28) & 0x3F;
+    }
+
+    public static int score(long data) {
+        return (int) (data >> 34);
+    }
+
+    /**
+     * Empieza una búsqueda nueva: las entradas de búsquedas anteriores envejecen y
+     * pasan a ser las primeras en reemplazarse.
+     */
+    public void newSearch() {
+        generation = (generation + 1) & 0x3F;
+    }
+
+    /**
+     * Busca una posición.
+     * @param key Clave de 64 bits de la posición.
+     * @return Los datos de la entrada, o {@link #MISS}.
+     */
+    public long probe(long key) {
+        probes.increment();
+        int base = (int) (key & bucketMask) * BUCKET_LONGS;
+        for (int slot = base; slot < base + BUCKET_LONGS; slot += ENTRY_LONGS) {
+            long data = table[slot + 1];
+            if (data != MISS && (table[slot] ^ data) == key) {
+                hits.increment();
+                return data;
+            }
+        }
+        return MISS;
+    }
+
+    /**
+     * Guarda el resultado de buscar una posición.
+     * @param key Clave de 64 bits de la posición.
+     * @param move Mejor movimiento encontrado, o -1.
+     * @param depth Profundidad buscada.
+     * @param bound Tipo de cota de la puntuación.
+     * @param score Puntuación; debe caber en 30 bits con signo.
+     */
+    public void store(long key, int move, int depth, int bound, int score) {
+        int current = generation;
+        int base = (int) (key & bucketMask) * BUCKET_LONGS;
+        int victim = base;
+        int victimValue = Integer.MAX_VALUE;
+        for (int slot = base; slot < base + BUCKET_LONGS; slot += ENTRY_LONGS) {
+            long data = table[slot + 1];
+            if (data == MISS || (table[slot] ^ data) == key) {
+                victim = slot;
+                break;
+            }
+            int age = (current - generationOf(data)) & 0x3F;
+            int value = depth(data) - AGE_WEIGHT * age;
+            if (value < victimValue) {
+                victimValue = value;
+                victim = slot;
+            }
+        }
+        long data = pack(move, Math.min(depth, 0x3F), bound, current, score);
+        table[victim] = key ^ data;
+        table[victim + 1] = data;
+        stores.increment();
+    }
+
+    /**
+     * Vacía la tabla y reinicia los contadores. No debe llamarse mientras haya búsquedas en curso.
+     */
+    public void clear() {
+        Arrays.fill(table, 0);
+        probes.reset();
+        hits.reset();
+        stores.reset();
+    }
+
+    /**
+     * Cantidad de entradas que caben en la tabla.
+     */
+    public int getCapacity() {
+        return table.length / ENTRY_LONGS;
+    }
+
+    public long getProbes() {
+        return probes.sum();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getStores() {
+        return stores.sum();
+    }
+
+    /**
+     * Fracción de consultas que encontraron su posición, entre 0 y 1.
+     */
+    public double getHitRate() {
+        long total = probes.sum();
+        return total == 0 ? 0 : hits.sum() / (double) total;
+    }
+}
@@ -1,30 +1,184 @@
 package Model.Entities;
 import java.util.HashMap;
 
+/**
+ * Tablero de juego respaldado por un arreglo denso de 121 celdas. Además de las
+ * celdas, mantiene la ocupación de cada color en bitsets de 128 bits (dos longs
+ * por color) y una máscara adicional con cualquier pieza, de modo que las
+ * consultas de ocupación son operaciones de arreglo y de bits.
+ */
 public class Board {
-    private final HashMap<Coords,  HexCell> cells;
+    // Posición de la máscara "cualquier pieza" dentro de occupancy.
+    private static final int ANY = Piece.COLOR_COUNT;
+
+    private final HexCell[] cells;
+    private final long[] occupancy;
+    // Piezas de cada color que ya están en su triángulo de meta.
+    private final int[] piecesInGoal;
+    // Suma por color de las distancias de sus piezas a la meta y a la punta de la meta.
+    private final int[] goalDistance;
+    private final int[] apexDistance;
+    // Clave de Zobrist de la colocación de piezas, mantenida con XOR en cada cambio.
+    private long zobristKey;
+    private int size;
+    private HashMap<Coords, HexCell> cellMap;
 
     public Board() {
-        this.cells = new HashMap<>();
+        this.cells = new HexCell[BoardIndex.CELL_COUNT];
+        this.occupancy = new long[(ANY + 1) * BoardIndex.WORDS];
+        this.piecesInGoal = new int[Piece.COLOR_COUNT];
+        this.goalDistance = new int[Piece.COLOR_COUNT];
+        this.apexDistance = new int[Piece.COLOR_COUNT];
     }
 
     public HexCell getCell(int q, int r) {
-        return cells.get(new Coords(q, r));
+        int index = BoardIndex.indexOf(q, r);
+        return index < 0 ? null : cells[index];
+    }
+
+    public HexCell getCell(int index) {
+        return cells[index];
     }
 
     public void putCell(HexCell hexCell) {
-        cells.put(new Coords(hexCell.getQ(), hexCell.getR()), hexCell);
+        int index = BoardIndex.indexOf(hexCell.getQ(), hexCell.getR());
+        if (index < 0) {
+            throw new IllegalArgumentException("Cell outside the board: " + hexCell.getQ() + ", " + hexCell.getR());
+        }
+        HexCell previous = cells[index];
+        if (previous == null) {
+            size++;
+        } else {
+            pieceChanged(index, previous.getPiece(), null);
+        }
+        cells[index] = hexCell;
+        hexCell.attach(this, index);
+        pieceChanged(index, null, hexCell.getPiece());
+        cellMap = null;
     }
 
     public boolean contains(Coords pos) {
-        return cells.containsKey(pos);
+        return pos != null && getCell(pos.getX(), pos.getY()) != null;
+    }
+
+    public boolean contains(int index) {
+        return index >= 0 && cells[index] != null;
     }
 
     public int size() {
-        return cells.size();
+        return size;
     }
 
+    /**
+     * Vista de las celdas indexada por coordenadas. Se construye la primera vez
+     * que se pide y se reutiliza hasta que se agregue otra celda.
+     */
     public HashMap<Coords, HexCell> getCells() {
-        return cells;
+        if (cellMap == null) {
+            HashMap<Coords, HexCell> map = new HashMap<>();
+            for (int i = 0; i < cells.length; i++) {
+                HexCell cell = cells[i];
+                if (cell != null) {
+                    map.put(Coords.ofIndex(i), cell);
+                }
+            }
+            cellMap = map;
+        }
+        return cellMap;
+    }
+
+    public boolean isOccupied(int index) {
+        return (occupancy[ANY * BoardIndex.WORDS + BoardIndex.word(index)] & BoardIndex.bit(index)) != 0;
+    }
+
+    public boolean isOccupiedBy(int index, int colorIndex) {
+        return (occupancy[colorIndex * BoardIndex.WORDS + BoardIndex.word(index)] & BoardIndex.bit(index)) != 0;
+    }
+
+    /**
+     * Devuelve una palabra del bitset de ocupación de un color.
+     * @param colorIndex Índice del color según {@link Piece#COLORS}.
+     * @param word 0 para las celdas 0..63, 1 para las celdas 64..120.
+     */
+    public long getOccupancy(int colorIndex, int word) {
+        return occupancy[colorIndex * BoardIndex.WORDS + word];
+    }
+
+    /**
+     * Devuelve una palabra de la máscara con las celdas ocupadas por cualquier color.
+     */
+    public long getAnyOccupancy(int word) {
+        return occupancy[ANY * BoardIndex.WORDS + word];
+    }
+
+    /**
+     * Cantidad de piezas de un color que ocupan su triángulo de meta. Se mantiene
+     * al mover o colocar piezas, por lo que la consulta es O(1).
+     */
+    public int getPiecesInGoal(int colorIndex) {
+        return piecesInGoal[colorIndex];
+    }
+
+    /**
+     * Un color gana cuando sus diez piezas ocupan el triángulo de meta.
+     */
+    public boolean hasWon(int colorIndex) {
+        return piecesInGoal[colorIndex] == BoardIndex.TRIANGLE_SIZE;
+    }
+
+    /**
+     * Pasos que les faltan en total a las piezas de un color para entrar en su
+     * triángulo de meta, cada una hasta su celda de meta más cercana. Vale 0 cuando
+     * todas están dentro. Se mantiene en cada movimiento, así que es O(1).
+     */
+    public int getGoalDistance(int colorIndex) {
+        return goalDistance[colorIndex];
+    }
+
+    /**
+     * Suma de las distancias de las piezas de un color a la punta de su triángulo
+     * de meta. Con el triángulo completo vale 20. Se mantiene en cada movimiento.
+     */
+    public int getApexDistance(int colorIndex) {
+        return apexDistance[colorIndex];
+    }
+
+    /**
+     * Clave de Zobrist de la colocación actual de las piezas.
+     */
+    public long getZobristKey() {
+        return zobristKey;
+    }
+
+    /**
+     * Actualiza los bitsets, la clave de Zobrist, los contadores de meta y las sumas de distancias cuando la pieza de una celda
+     * cambia. Lo invoca HexCell.setPiece, por lo que cualquier movimiento o
+     * colocación de piezas queda registrado.
+     */
+    void pieceChanged(int index, Piece oldPiece, Piece newPiece) {
+        int word = BoardIndex.word(index);
+        long bit = BoardIndex.bit(index);
+        if (oldPiece != null) {
+            int color = oldPiece.getColorIndex();
+            occupancy[color * BoardIndex.WORDS + word] &= ~bit;
+            occupancy[ANY * BoardIndex.WORDS + word] &= ~bit;
+            zobristKey ^= Zobrist.piece(color, index);
+            if ((BoardIndex.goalMask(color, word) & bit) != 0) {
+                piecesInGoal[color]--;
+            }
+            goalDistance[color] -= BoardIndex.goalDistance(color, index);
+            apexDistance[color] -= BoardIndex.apexDistance(color, index);
+        }
+        if (newPiece != null) {
+            int color = newPiece.getColorIndex();
+            occupancy[color * BoardIndex.WORDS + word] |= bit;
+            occupancy[ANY * BoardIndex.WORDS + word] |= bit;
+            zobristKey ^= Zobrist.piece(color, index);
+            if ((BoardIndex.goalMask(color, word) & bit) != 0) {
+                piecesInGoal[color]++;
+            }
+            goalDistance[color] += BoardIndex.goalDistance(color, index);
+            apexDistance[color] += BoardIndex.apexDistance(color, index);
+        }
     }
 }
@@ -0,0 +1,232 @@
+package Model.Entities;
+
+/**
+ * Geometría fija del tablero en forma de estrella. Asigna a cada una de las 121
+ * celdas un índice denso 0..120 (ordenado por fila r y luego por columna q) y
+ * permite traducir entre índice y coordenadas axiales sin crear objetos.
+ * Los conjuntos de celdas se representan como bitsets de 128 bits repartidos
+ * en dos longs: la palabra {@code index >>> 6} y el bit {@code index & 63}.
+ */
+public final class BoardIndex {
+    private BoardIndex() {}
+
+    public static final int CELL_COUNT = 121;
+    public static final int RADIUS = 8;
+    public static final int WORDS = 2;
+    public static final int TRIANGLE_SIZE = 10;
+
+    private static final int SIDE = 2 * RADIUS + 1;
+    private static final int[] Q = new int[CELL_COUNT];
+    private static final int[] R = new int[CELL_COUNT];
+    private static final int[] GRID = new int[SIDE * SIDE];
+    // Triángulos de inicio y de meta de cada color, calculados una sola vez:
+    // como listas de índices y como bitsets (color * WORDS + palabra).
+    private static final int[][] HOME_CELLS = new int[Piece.COLOR_COUNT][TRIANGLE_SIZE];
+    private static final int[][] GOAL_CELLS = new int[Piece.COLOR_COUNT][TRIANGLE_SIZE];
+    private static final long[] HOME_MASKS = new long[Piece.COLOR_COUNT * WORDS];
+    private static final long[] GOAL_MASKS = new long[Piece.COLOR_COUNT * WORDS];
+    // Punta de cada triángulo de inicio (la celda más alejada del centro).
+    private static final int[] HOME_APEX = new int[Piece.COLOR_COUNT];
+    // Distancia hexagonal entre cada par de celdas.
+    private static final byte[] DISTANCES = new byte[CELL_COUNT * CELL_COUNT];
+    // Por color (color * CELL_COUNT + celda): distancia a la celda más cercana de su
+    // triángulo de meta y a la punta de ese triángulo.
+    private static final byte[] GOAL_DISTANCES = new byte[Piece.COLOR_COUNT * CELL_COUNT];
+    private static final byte[] APEX_DISTANCES = new byte[Piece.COLOR_COUNT * CELL_COUNT];
+
+    static {
+        int index = 0;
+        for (int r = -RADIUS; r <= RADIUS; r++) {
+            for (int q = -RADIUS; q <= RADIUS; q++) {
+                int slot = (r + RADIUS) * SIDE + (q + RADIUS);
+                if (isStarCell(q, r)) {
+                    Q[index] = q;
+                    R[index] = r;
+                    GRID[slot] = index++;
+                } else {
+                    GRID[slot] = -1;
+                }
+            }
+        }
+        if (index != CELL_COUNT) {
+            throw new IllegalStateException("Unexpected star size: " + index);
+        }
+        for (int color = 0; color < Piece.COLOR_COUNT; color++) {
+            int count = 0;
+            for (int i = 0; i < CELL_COUNT; i++) {
+                if (inHomeTriangle(color, Q[i], R[i])) {
+                    HOME_CELLS[color][count++] = i;
+                    HOME_MASKS[color * WORDS + word(i)] |= bit(i);
+                    int s = -Q[i] - R[i];
+                    if (Math.max(Math.abs(Q[i]), Math.max(Math.abs(R[i]), Math.abs(s))) == RADIUS) {
+                        HOME_APEX[color] = i;
+                    }
+                }
+            }
+            if (count != TRIANGLE_SIZE) {
+                throw new IllegalStateException("Unexpected triangle size: " + count);
+            }
+        }
+        for (int a = 0; a < CELL_COUNT; a++) {
+            for (int b = 0; b < CELL_COUNT; b++) {
+                int dq = Q[a] - Q[b];
+                int dr = R[a] - R[b];
+                DISTANCES[a * CELL_COUNT + b] = (byte) ((Math.abs(dq) + Math.abs(dr) + Math.abs(dq + dr)) / 2);
+            }
+        }
+        for (int color = 0; color < Piece.COLOR_COUNT; color++) {
+            int opposite = oppositeColor(color);
+            System.arraycopy(HOME_CELLS[opposite], 0, GOAL_CELLS[color], 0, TRIANGLE_SIZE);
+            GOAL_MASKS[color * WORDS] = HOME_MASKS[opposite * WORDS];
+            GOAL_MASKS[color * WORDS + 1] = HOME_MASKS[opposite * WORDS + 1];
+            int apex = HOME_APEX[opposite];
+            for (int i = 0; i < CELL_COUNT; i++) {
+                int nearest = Integer.MAX_VALUE;
+                for (int goal : GOAL_CELLS[color]) {
+                    nearest = Math.min(nearest, distance(i, goal));
+                }
+                GOAL_DISTANCES[color * CELL_COUNT + i] = (byte) nearest;
+                APEX_DISTANCES[color * CELL_COUNT + i] = (byte) distance(i, apex);
+            }
+        }
+    }
+
+    /**
+     * La estrella es la unión de dos triángulos invertidos: el de las celdas con
+     * todas sus coordenadas cúbicas menores o iguales a 4 y el de las celdas con
+     * todas mayores o iguales a -4.
+     */
+    private static boolean isStarCell(int q, int r) {
+        int s = -q - r;
+        return (q <= 4 && r <= 4 && s <= 4) || (q >= -4 && r >= -4 && s >= -4);
+    }
+
+    /**
+     * Indica si (q, r) pertenece al triángulo inicial de un color. Cada punta de la
+     * estrella es la zona donde una de las coordenadas cúbicas supera 4 en valor absoluto.
+     */
+    private static boolean inHomeTriangle(int colorIndex, int q, int r) {
+        int s = -q - r;
+        return switch (colorIndex) {
+            case 0 -> r > 4;    // RED
+            case 1 -> r < -4;   // GREEN
+            case 2 -> q > 4;    // YELLOW
+            case 3 -> q < -4;   // PURPLE
+            case 4 -> s < -4;   // ORANGE
+            case 5 -> s > 4;    // BLUE
+            default -> false;
+        };
+    }
+
+    /**
+     * Color que empieza en la esquina opuesta. Piece.COLORS agrupa los colores
+     * opuestos por parejas, así que basta con cambiar el bit menos significativo.
+     */
+    public static int oppositeColor(int colorIndex) {
+        return colorIndex ^ 1;
+    }
+
+    /**
+     * Distancia hexagonal (cantidad mínima de pasos) entre dos celdas.
+     */
+    public static int distance(int a, int b) {
+        return DISTANCES[a * CELL_COUNT + b];
+    }
+
+    /**
+     * Distancia de una celda a la celda más cercana del triángulo de meta de un
+     * color; 0 si la celda ya está en la meta.
+     */
+    public static int goalDistance(int colorIndex, int index) {
+        return GOAL_DISTANCES[colorIndex * CELL_COUNT + index];
+    }
+
+    /**
+     * Distancia de una celda a la punta del triángulo de meta de un color.
+     */
+    public static int apexDistance(int colorIndex, int index) {
+        return APEX_DISTANCES[colorIndex * CELL_COUNT + index];
+    }
+
+    /**
+     * Índice de la i-ésima celda (0..9) del triángulo de inicio de un color.
+     */
+    public static int homeCell(int colorIndex, int i) {
+        return HOME_CELLS[colorIndex][i];
+    }
+
+    /**
+     * Índice de la i-ésima celda (0..9) del triángulo de meta de un color.
+     */
+    public static int goalCell(int colorIndex, int i) {
+        return GOAL_CELLS[colorIndex][i];
+    }
+
+    /**
+     * Índice de la punta del triángulo de inicio de un color.
+     */
+    public static int homeApex(int colorIndex) {
+        return HOME_APEX[colorIndex];
+    }
+
+    /**
+     * Índice de la punta del triángulo de meta de un color.
+     */
+    public static int goalApex(int colorIndex) {
+        return HOME_APEX[oppositeColor(colorIndex)];
+    }
+
+    /**
+     * Palabra del bitset del triángulo de inicio de un color.
+     */
+    public static long homeMask(int colorIndex, int word) {
+        return HOME_MASKS[colorIndex * WORDS + word];
+    }
+
+    public static boolean isHomeCell(int index, int colorIndex) {
+        return (HOME_MASKS[colorIndex * WORDS + word(index)] & bit(index)) != 0;
+    }
+
+    /**
+     * Palabra del bitset del triángulo de meta de un color (la esquina opuesta a su inicio).
+     */
+    public static long goalMask(int colorIndex, int word) {
+        return GOAL_MASKS[colorIndex * WORDS + word];
+    }
+
+    public static boolean isGoalCell(int index, int colorIndex) {
+        return (GOAL_MASKS[colorIndex * WORDS + word(index)] & bit(index)) != 0;
+    }
+
+    /**
+     * Devuelve el índice de la celda (q, r), o -1 si está fuera del tablero.
+     */
+    public static int indexOf(int q, int r) {
+        if (q < -RADIUS || q > RADIUS || r < -RADIUS || r > RADIUS) {
+            return -1;
+        }
+        return GRID[(r + RADIUS) * SIDE + (q + RADIUS)];
+    }
+
+    public static int q(int index) {
+        return Q[index];
+    }
+
+    public static int r(int index) {
+        return R[index];
+    }
+
+    /**
+     * Palabra del bitset en la que vive el índice dado.
+     */
+    public static int word(int index) {
+        return index >>> 6;
+    }
+
+    /**
+     * Máscara del índice dentro de su palabra (Java usa los 6 bits bajos del desplazamiento).
+     */
+    public static long bit(int index) {
+        return 1L << index;
+    }
+}
@@ -1,29 +1,85 @@
 package Model.Entities;
 
-import java.util.Objects;
+/**
+ * Par de coordenadas inmutable. Se usa tanto para coordenadas axiales (q, r)
+ * del tablero como para posiciones en píxeles.
+ * Las coordenadas dentro del rango del tablero tienen una instancia canónica
+ * creada de antemano que se obtiene con {@link #of(int, int)}, de modo que las
+ * rutas frecuentes (movimientos, vecinos, claves de mapas) no reservan memoria.
+ * Para bucles intensivos existe además una forma empaquetada en un int.
+ */
+public final class Coords {
+    private static final int CACHE_RADIUS = BoardIndex.RADIUS;
+    private static final int CACHE_SIDE = 2 * CACHE_RADIUS + 1;
+    private static final Coords[] CACHE = new Coords[CACHE_SIDE * CACHE_SIDE];
+
+    static {
+        for (int y = -CACHE_RADIUS; y <= CACHE_RADIUS; y++) {
+            for (int x = -CACHE_RADIUS; x <= CACHE_RADIUS; x++) {
+                CACHE[(y + CACHE_RADIUS) * CACHE_SIDE + (x + CACHE_RADIUS)] = new Coords(x, y);
+            }
+        }
+    }
+
+    private final int x;
+    private final int y;
 
-public class Coords {
-    private int x;
-    private int y;
     public Coords(int x, int y) {
-        this.setX(x);
-        this.setY(y);
+        this.x = x;
+        this.y = y;
     }
 
-    public int getX() {
-        return x;
+    /**
+     * Devuelve la instancia canónica para coordenadas dentro del rango del
+     * tablero; fuera de él (por ejemplo, píxeles) crea una nueva.
+     */
+    public static Coords of(int x, int y) {
+        if (x < -CACHE_RADIUS || x > CACHE_RADIUS || y < -CACHE_RADIUS || y > CACHE_RADIUS) {
+            return new Coords(x, y);
+        }
+        return CACHE[(y + CACHE_RADIUS) * CACHE_SIDE + (x + CACHE_RADIUS)];
     }
 
-    public void setX(int x) {
-        this.x = x;
+    /**
+     * Devuelve la instancia canónica de la celda con el índice denso dado.
+     */
+    public static Coords ofIndex(int index) {
+        return of(BoardIndex.q(index), BoardIndex.r(index));
+    }
+
+    /**
+     * Reconstruye unas coordenadas desde su forma empaquetada.
+     */
+    public static Coords ofPacked(int packed) {
+        return of(unpackX(packed), unpackY(packed));
+    }
+
+    /**
+     * Empaqueta dos coordenadas de 16 bits con signo en un int: x en la mitad
+     * alta e y en la baja.
+     */
+    public static int pack(int x, int y) {
+        return (x << 16) | (y & 0xFFFF);
+    }
+
+    public static int unpackX(int packed) {
+        return packed >> 16;
+    }
+
+    public static int unpackY(int packed) {
+        return (short) packed;
+    }
+
+    public int getX() {
+        return x;
     }
 
     public int getY() {
         return y;
     }
 
-    public void setY(int y) {
-        this.y = y;
+    public int packed() {
+        return pack(x, y);
     }
 
     @Override
@@ -35,6 +91,11 @@ public class Coords {
 
     @Override
     public int hashCode() {
-        return Objects.hash(x, y);
+        return 31 * x + y;
+    }
+
+    @Override
+    public String toString() {
+        return "(" + x + ", " + y + ")";
     }
 }
@@ -0,0 +1,68 @@
+package Model.Entities;
+
+/**
+ * Las seis direcciones de movimiento en coordenadas axiales. El orden de las
+ * constantes es el que usan las tablas de adyacencia, y cada dirección está a
+ * tres posiciones de su opuesta, así que {@link #opposite()} es O(1).
+ */
+public enum Direction {
+    NW(0, -1),
+    NE(1, -1),
+    E(1, 0),
+    SE(0, 1),
+    SW(-1, 1),
+    W(-1, 0);
+
+    public static final int COUNT = 6;
+    private static final Direction[] VALUES = values();
+    private static final int[] DQ = new int[COUNT];
+    private static final int[] DR = new int[COUNT];
+
+    static {
+        for (Direction direction : VALUES) {
+            DQ[direction.ordinal()] = direction.dq;
+            DR[direction.ordinal()] = direction.dr;
+        }
+    }
+
+    private final int dq;
+    private final int dr;
+
+    Direction(int dq, int dr) {
+        this.dq = dq;
+        this.dr = dr;
+    }
+
+    public int dq() {
+        return dq;
+    }
+
+    public int dr() {
+        return dr;
+    }
+
+    public Direction opposite() {
+        return VALUES[(ordinal() + COUNT / 2) % COUNT];
+    }
+
+    /**
+     * Devuelve la dirección con el ordinal dado sin copiar el arreglo de values().
+     */
+    public static Direction of(int ordinal) {
+        return VALUES[ordinal];
+    }
+
+    /**
+     * Desplazamiento en q de la dirección con el ordinal dado.
+     */
+    public static int dq(int ordinal) {
+        return DQ[ordinal];
+    }
+
+    /**
+     * Desplazamiento en r de la dirección con el ordinal dado.
+     */
+    public static int dr(int ordinal) {
+        return DR[ordinal];
+    }
+}
@@ -0,0 +1,263 @@
+package Model.Entities;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Copia inmutable del estado del juego en un instante. GameService publica una
+ * nueva después de cada acción, de modo que los lectores (difusión, espectadores,
+ * persistencia, bots) leen un estado consistente sin bloquear al hilo que procesa
+ * los turnos y pueden conservarla el tiempo que quieran.
+ * El tablero se guarda como un arreglo de 121 bytes con el color de cada celda y
+ * se comparte con la instantánea anterior cuando las piezas no se movieron
+ * (por ejemplo, al seleccionar una pieza); lo mismo ocurre con la lista de jugadores.
+ */
+public final class GameSnapshot {
+    // Valor de una celda vacía en el arreglo de colores.
+    public static final byte EMPTY = -1;
+
+    private static final byte[] EMPTY_CELLS = new byte[BoardIndex.CELL_COUNT];
+    private static final int[] NO_DISTANCES = new int[Piece.COLOR_COUNT];
+
+    static {
+        java.util.Arrays.fill(EMPTY_CELLS, EMPTY);
+    }
+
+    private final long version;
+    private final boolean boardCreated;
+    private final byte[] cells;
+    private final long boardKey;
+    // Distancia a la meta de cada color; se comparte junto con el tablero.
+    private final int[] goalDistances;
+    private final List<Player> players;
+    private final Player currentPlayer;
+    private final int turnIndex;
+    private final Player winner;
+    private final int selectedCell;
+    private final long validMoves0;
+    private final long validMoves1;
+    private final boolean jumpSequence;
+    private final long zobristKey;
+
+    private GameSnapshot(long version, boolean boardCreated, byte[] cells, long boardKey, int[] goalDistances,
+                         List<Player> players,
+                         Player currentPlayer, int turnIndex, Player winner, int selectedCell,
+                         long validMoves0, long validMoves1, boolean jumpSequence, long zobristKey) {
+        this.version = version;
+        this.boardCreated = boardCreated;
+        this.cells = cells;
+        this.boardKey = boardKey;
+        this.goalDistances = goalDistances;
+        this.players = players;
+        this.currentPlayer = currentPlayer;
+        this.turnIndex = turnIndex;
+        this.winner = winner;
+        this.selectedCell = selectedCell;
+        this.validMoves0 = validMoves0;
+        this.validMoves1 = validMoves1;
+        this.jumpSequence = jumpSequence;
+        this.zobristKey = zobristKey;
+    }
+
+    /**
+     * Instantánea inicial, sin jugadores ni tablero.
+     */
+    public static GameSnapshot empty() {
+        return new GameSnapshot(0, false, EMPTY_CELLS, 0, NO_DISTANCES, List.of(), null, 0, null, -1, 0, 0, false, 0);
+    }
+
+    /**
+     * Captura el estado actual reutilizando, cuando no cambiaron, el tablero y la
+     * lista de jugadores de la instantánea anterior.
+     * @param state El estado vivo del juego; debe leerse desde el hilo que lo modifica.
+     * @param previous La última instantánea publicada, o null.
+     * @return Una nueva instantánea con la versión siguiente.
+     */
+    public static GameSnapshot capture(GameState state, GameSnapshot previous) {
+        Board board = state.getBoard();
+        boolean boardCreated = board.size() > 0;
+        long boardKey = board.getZobristKey();
+
+        byte[] cells;
+        int[] goalDistances;
+        if (previous != null && previous.boardCreated == boardCreated && previous.boardKey == boardKey) {
+            cells = previous.cells;
+            goalDistances = previous.goalDistances;
+        } else if (!boardCreated) {
+            cells = EMPTY_CELLS;
+            goalDistances = NO_DISTANCES;
+        } else {
+            cells = new byte[BoardIndex.CELL_COUNT];
+            for (int i = 0; i < BoardIndex.CELL_COUNT; i++) {
+                HexCell cell = board.getCell(i);
+                Piece piece = cell == null ? null : cell.getPiece();
+                cells[i] = piece == null ? EMPTY : (byte) piece.getColorIndex();
+            }
+            goalDistances = new int[Piece.COLOR_COUNT];
+            for (int color = 0; color < Piece.COLOR_COUNT; color++) {
+                goalDistances[color] = board.getGoalDistance(color);
+            }
+        }
+
+        List<Player> players = previous != null && previous.players.equals(state.getPlayers())
+                ? previous.players
+                : List.copyOf(state.getPlayers());
+
+        int selectedCell = -1;
+        Coords selected = state.getSelectedPiece();
+        if (selected != null) {
+            selectedCell = BoardIndex.indexOf(selected.getX(), selected.getY());
+        }
+        long validMoves0 = 0;
+        long validMoves1 = 0;
+        for (Map.Entry<Coords, Direction> move : state.getCurrentValidMoves().entrySet()) {
+            int index = BoardIndex.indexOf(move.getKey().getX(), move.getKey().getY());
+            if (index < 0) continue;
+            if (BoardIndex.word(index) == 0) {
+                validMoves0 |= BoardIndex.bit(index);
+            } else {
+                validMoves1 |= BoardIndex.bit(index);
+            }
+        }
+
+        long version = previous == null ? 1 : previous.version + 1;
+        return new GameSnapshot(version, boardCreated, cells, boardKey, goalDistances, players, state.getCurrentPlayer(),
+                state.getCurentTurnIndex(), state.getWinner(), selectedCell, validMoves0, validMoves1,
+                state.isJumpSequence(), state.getZobristKey());
+    }
+
+    /**
+     * Número de versión, creciente con cada instantánea publicada.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public boolean isBoardCreated() {
+        return boardCreated;
+    }
+
+    /**
+     * Color de la pieza en una celda.
+     * @return El índice del color según {@link Piece#COLORS}, o {@link #EMPTY}.
+     */
+    public int getCellColor(int index) {
+        return cells[index];
+    }
+
+    public boolean isOccupied(int index) {
+        return cells[index] != EMPTY;
+    }
+
+    /**
+     * Pasos que les faltan a las piezas de un color para entrar en su triángulo de
+     * meta (ver {@link Board#getGoalDistance}).
+     */
+    public int getGoalDistance(int colorIndex) {
+        return goalDistances[colorIndex];
+    }
+
+    /**
+     * Indica si esta instantánea comparte el arreglo del tablero con otra, es decir,
+     * si ninguna pieza se movió entre ambas.
+     */
+    public boolean sharesBoardWith(GameSnapshot other) {
+        return other != null && other.cells == cells;
+    }
+
+    public List<Player> getPlayers() {
+        return players;
+    }
+
+    public Player getCurrentPlayer() {
+        return currentPlayer;
+    }
+
+    public int getTurnIndex() {
+        return turnIndex;
+    }
+
+    public Player getWinner() {
+        return winner;
+    }
+
+    /**
+     * Índice de la celda de la pieza seleccionada, o -1 si no hay selección.
+     */
+    public int getSelectedCell() {
+        return selectedCell;
+    }
+
+    /**
+     * Palabra del bitset de destinos válidos para la pieza seleccionada.
+     */
+    public long getValidMoves(int word) {
+        return word == 0 ? validMoves0 : validMoves1;
+    }
+
+    public boolean isValidMove(int index) {
+        return (getValidMoves(BoardIndex.word(index)) & BoardIndex.bit(index)) != 0;
+    }
+
+    public boolean isJumpSequence() {
+        return jumpSequence;
+    }
+
+    public long getZobristKey() {
+        return zobristKey;
+    }
+
+    /**
+     * Clave que identifica lo que ven los clientes: la clave de Zobrist de la
+     * posición combinada con la pieza seleccionada, la cantidad de jugadores y la
+     * existencia de un ganador. Si no cambia, el estado difundido tampoco.
+     */
+    public long getViewKey() {
+        long key = zobristKey ^ (players.size() * 0x9E3779B97F4A7C15L);
+        if (selectedCell >= 0) {
+            key ^= Zobrist.selection(selectedCell);
+        }
+        if (winner != null) {
+            key = ~key;
+        }
+        return key;
+    }
+
+    /**
+     * Reconstruye un GameState independiente a partir de esta instantánea, con un
+     * tablero propio y piezas nuevas. Sirve para que un motor de búsqueda explore
+     * posiciones con makeMove/unmakeMove sin tocar el estado vivo de la partida.
+     * Los jugadores son los mismos objetos; la selección y los movimientos válidos
+     * quedan vacíos.
+     * @return Un estado nuevo, o null si el tablero todavía no fue creado.
+     */
+    public GameState toGameState() {
+        if (!boardCreated) {
+            return null;
+        }
+        Board board = new Board();
+        Piece[] pieces = new Piece[Piece.COLOR_COUNT];
+        for (int i = 0; i < BoardIndex.CELL_COUNT; i++) {
+            int color = cells[i];
+            Piece piece = null;
+            if (color != EMPTY) {
+                if (pieces[color] == null) {
+                    pieces[color] = new Piece(Piece.COLORS[color]);
+                }
+                piece = pieces[color];
+            }
+            board.putCell(new HexCell(BoardIndex.q(i), BoardIndex.r(i), piece));
+        }
+        return new GameState(board, currentPlayer, new ArrayList<>(players), turnIndex,
+                new HashMap<>(), winner, null, false, null);
+    }
+
+    /**
+     * Copia de la lista de jugadores en el tipo que usa el DTO.
+     */
+    public ArrayList<Player> copyPlayers() {
+        return new ArrayList<>(players);
+    }
+}
@@ -12,12 +12,17 @@ public class GameState {
     private Player winner;
     private Coords selectedPiece;
     private boolean isJumpSequence;
-    private HashMap<Coords, String> currentValidMoves;
-    private String lastMoveDirection;
+    private HashMap<Coords, Direction> currentValidMoves;
+    private Direction lastMoveDirection;
+    // Partes de la clave de Zobrist que no dependen de la colocación de piezas.
+    private long turnKey;
+    // Secuencia de saltos en curso: celda de la pieza que salta y dirección, o -1.
+    private int jumpCell = -1;
+    private int jumpDirection = -1;
 
     public GameState(Board board, Player currentPlayer, ArrayList<Player> players, int curentTurnIndex,
-                     HashMap<Coords, String> currentValidMoves, Player winner, Coords selectedPiece,
-                     boolean isJumpSequence, String lastMoveDirection) {
+                     HashMap<Coords, Direction> currentValidMoves, Player winner, Coords selectedPiece,
+                     boolean isJumpSequence, Direction lastMoveDirection) {
         this.setBoard(board);
         this.setCurrentPlayer(currentPlayer);
         this.setPlayers(players);
@@ -57,7 +62,7 @@ public class GameState {
         return isJumpSequence;
     }
 
-    public String getLastMoveDirection() {
+    public Direction getLastMoveDirection() {
         return lastMoveDirection;
     }
 
@@ -75,6 +80,7 @@ public class GameState {
 
     public void setCurentTurnIndex(int curentTurnIndex) {
         this.curentTurnIndex = curentTurnIndex;
+        this.turnKey = Zobrist.turn(curentTurnIndex);
     }
 
     public void setWinner(Player winner) {
@@ -89,15 +95,85 @@ public class GameState {
         isJumpSequence = jumpSequence;
     }
 
-    public void setLastMoveDirection(String lastMoveDirection) {
+    public void setLastMoveDirection(Direction lastMoveDirection) {
         this.lastMoveDirection = lastMoveDirection;
     }
 
-    public HashMap<Coords, String> getCurrentValidMoves() {
+    /**
+     * Clave de Zobrist de 64 bits de la posición: colocación de las piezas de cada
+     * color, jugador con el turno y secuencia de saltos en curso. Cada parte se
+     * mantiene de forma incremental, así que obtenerla es O(1).
+     */
+    public long getZobristKey() {
+        long key = board.getZobristKey() ^ turnKey;
+        if (jumpCell >= 0) {
+            key ^= Zobrist.jump(jumpCell, jumpDirection);
+        }
+        return key;
+    }
+
+    /**
+     * Registra la secuencia de saltos en curso para la clave de Zobrist.
+     * @param cell Índice de la celda de la pieza que salta, o -1 si no hay secuencia.
+     * @param direction Dirección en la que puede continuar el salto.
+     */
+    public void setJumpState(int cell, int direction) {
+        this.jumpCell = cell;
+        this.jumpDirection = direction;
+    }
+
+    /**
+     * Ejecuta un turno completo sobre el tablero (mover una pieza y pasar el turno)
+     * sin pasar por la selección de la interfaz, sin notificar a nadie y sin
+     * reservar memoria. Pensado para motores de búsqueda que exploran muchas
+     * posiciones sobre una sola instancia. No valida el movimiento ni actualiza
+     * la selección, los movimientos válidos ni el ganador; si había una secuencia
+     * de saltos abierta, la cierra.
+     * @param move Movimiento codificado con {@link Move#encode}.
+     * @return Un token para deshacer el movimiento con {@link #unmakeMove}.
+     */
+    public long makeMove(int move) {
+        long token = (move & 0xFFFFFL)
+                | ((long) curentTurnIndex << 20)
+                | (isJumpSequence ? 1L << 23 : 0)
+                | ((long) (jumpCell + 1) << 24)
+                | ((long) (jumpDirection & 0x7) << 32);
+        HexCell from = board.getCell(Move.from(move));
+        HexCell to = board.getCell(Move.to(move));
+        to.setPiece(from.getPiece());
+        from.setPiece(null);
+        isJumpSequence = false;
+        jumpCell = -1;
+        jumpDirection = -1;
+        setCurentTurnIndex((curentTurnIndex + 1) % players.size());
+        currentPlayer = players.get(curentTurnIndex);
+        return token;
+    }
+
+    /**
+     * Deshace un movimiento hecho con {@link #makeMove}. La ocupación, el turno, la
+     * clave de Zobrist y los contadores de meta quedan exactamente como estaban.
+     * Los movimientos deben deshacerse en orden inverso.
+     * @param token El token devuelto por makeMove.
+     */
+    public void unmakeMove(long token) {
+        int move = (int) (token & 0xFFFFF);
+        HexCell from = board.getCell(Move.from(move));
+        HexCell to = board.getCell(Move.to(move));
+        from.setPiece(to.getPiece());
+        to.setPiece(null);
+        setCurentTurnIndex((int) (token >>> 20) & 0x7);
+        currentPlayer = players.get(curentTurnIndex);
+        isJumpSequence = (token & (1L << 23)) != 0;
+        jumpCell = (int) ((token >>> 24) & 0xFF) - 1;
+        jumpDirection = jumpCell < 0 ? -1 : (int) ((token >>> 32) & 0x7);
+    }
+
+    public HashMap<Coords, Direction> getCurrentValidMoves() {
         return currentValidMoves;
     }
 
-    public void setCurrentValidMoves(HashMap<Coords, String> currentValidMoves) {
+    public void setCurrentValidMoves(HashMap<Coords, Direction> currentValidMoves) {
         this.currentValidMoves = currentValidMoves;
     }
 }
\ No newline at end of file
@@ -4,6 +4,9 @@ public class HexCell {
     private int q;
     private int r;
     private Piece piece;
+    // Tablero al que pertenece la celda y su índice denso dentro de él.
+    private Board board;
+    private int index = -1;
 
     public HexCell(int q, int r, Piece piece) {
         this.q = q;
@@ -15,8 +18,16 @@ public class HexCell {
         return piece;
     }
 
+    /**
+     * Cambia la pieza de la celda y mantiene sincronizados los bitsets de
+     * ocupación del tablero al que pertenece.
+     */
     public void setPiece(Piece piece) {
+        Piece previous = this.piece;
         this.piece = piece;
+        if (board != null) {
+            board.pieceChanged(index, previous, piece);
+        }
     }
 
     public int getQ() {
@@ -24,6 +35,9 @@ public class HexCell {
     }
 
     public void setQR(int q, int r) {
+        if (board != null) {
+            throw new IllegalStateException("Cannot move a cell that already belongs to a board");
+        }
         this.q = q;
         this.r = r;
     }
@@ -31,4 +45,13 @@ public class HexCell {
     public int getR() {
         return r;
     }
+
+    public int getIndex() {
+        return index;
+    }
+
+    void attach(Board board, int index) {
+        this.board = board;
+        this.index = index;
+    }
 }
@@ -0,0 +1,33 @@
+package Model.Entities;
+
+/**
+ * Codificación de un movimiento en un int, para generar y ejecutar movimientos
+ * sin crear objetos: origen en los bits 0-7, destino en los bits 8-15,
+ * dirección en los bits 16-18 y el bit 19 indica si es un salto. Los índices
+ * son los de {@link BoardIndex}.
+ */
+public final class Move {
+    private Move() {}
+
+    private static final int JUMP_FLAG = 1 << 19;
+
+    public static int encode(int from, int to, int direction, boolean jump) {
+        return from | (to << 8) | (direction << 16) | (jump ? JUMP_FLAG : 0);
+    }
+
+    public static int from(int move) {
+        return move & 0xFF;
+    }
+
+    public static int to(int move) {
+        return (move >>> 8) & 0xFF;
+    }
+
+    public static int direction(int move) {
+        return (move >>> 16) & 0x7;
+    }
+
+    public static boolean isJump(int move) {
+        return (move & JUMP_FLAG) != 0;
+    }
+}
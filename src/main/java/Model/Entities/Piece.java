@@ -1,17 +1,51 @@
 package Model.Entities;
 
 public class Piece {
-    private String color;
+    public static final int COLOR_COUNT = 6;
+    public static final String[] COLORS = {"RED", "GREEN", "YELLOW", "PURPLE", "ORANGE", "BLUE"};
 
+    private final String color;
+    // Índice del color en COLORS; no viaja por la red.
+    private final transient int colorIndex;
+
+    /**
+     * Las piezas no cambian de color: el tablero indexa sus bitsets, su clave y sus
+     * contadores por el color de cada pieza colocada.
+     * @throws IllegalArgumentException si el color no es uno de {@link #COLORS}.
+     */
     public Piece(String color) {
+        int index = colorIndex(color);
+        if (index < 0) {
+            throw new IllegalArgumentException("Unknown piece color: " + color);
+        }
         this.color = color;
+        this.colorIndex = index;
     }
 
     public String getColor() {
         return color;
     }
 
-    public void setColor(String color) {
-        this.color = color;
+    public int getColorIndex() {
+        return colorIndex;
+    }
+
+    /**
+     * Traduce el nombre de un color a su posición en {@link #COLORS}.
+     * @return El índice del color, o -1 si no es un color de jugador.
+     */
+    public static int colorIndex(String color) {
+        if (color == null) {
+            return -1;
+        }
+        return switch (color) {
+            case "RED" -> 0;
+            case "GREEN" -> 1;
+            case "YELLOW" -> 2;
+            case "PURPLE" -> 3;
+            case "ORANGE" -> 4;
+            case "BLUE" -> 5;
+            default -> -1;
+        };
     }
 }
@@ -0,0 +1,66 @@
+package Model.Entities;
+
+import java.util.SplittableRandom;
+
+/**
+ * Tablas de claves aleatorias para el hashing de Zobrist de una partida. La clave
+ * de una posición es el XOR de las claves de cada pieza en su celda, del turno
+ * y del estado de la secuencia de saltos, por lo que se actualiza con uno o dos
+ * XOR en cada cambio en lugar de recalcularse.
+ * La semilla es fija: la misma posición produce la misma clave en cualquier
+ * proceso, lo que permite usarla en archivos de repeticiones.
+ */
+public final class Zobrist {
+    private Zobrist() {}
+
+    private static final long SEED = 0x5DEECE66DL;
+
+    private static final long[] PIECES = new long[Piece.COLOR_COUNT * BoardIndex.CELL_COUNT];
+    private static final long[] TURNS = new long[Piece.COLOR_COUNT];
+    private static final long[] JUMPS = new long[BoardIndex.CELL_COUNT * Direction.COUNT];
+    private static final long[] SELECTIONS = new long[BoardIndex.CELL_COUNT];
+
+    static {
+        SplittableRandom random = new SplittableRandom(SEED);
+        fill(PIECES, random);
+        fill(TURNS, random);
+        fill(JUMPS, random);
+        fill(SELECTIONS, random);
+    }
+
+    private static void fill(long[] table, SplittableRandom random) {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = random.nextLong();
+        }
+    }
+
+    /**
+     * Clave de una pieza de un color en una celda.
+     */
+    public static long piece(int colorIndex, int index) {
+        return PIECES[colorIndex * BoardIndex.CELL_COUNT + index];
+    }
+
+    /**
+     * Clave del jugador que tiene el turno, por su posición en la lista de jugadores.
+     */
+    public static long turn(int turnIndex) {
+        return TURNS[turnIndex];
+    }
+
+    /**
+     * Clave de una secuencia de saltos en curso: la pieza que salta está en la
+     * celda dada y sólo puede continuar en la dirección indicada.
+     */
+    public static long jump(int index, int direction) {
+        return JUMPS[index * Direction.COUNT + direction];
+    }
+
+    /**
+     * Clave de la pieza seleccionada. No forma parte de la clave de la posición;
+     * sirve para distinguir estados de vista que sólo difieren en la selección.
+     */
+    public static long selection(int index) {
+        return SELECTIONS[index];
+    }
+}
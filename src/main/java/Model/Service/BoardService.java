@@ -4,20 +4,29 @@ import Model.Entities.*;
 import View.PixelCell;
 import org.javatuples.Pair;
 import java.util.ArrayList;
-import java.util.Map;
 import static java.lang.Math.sqrt;
 
 public class BoardService {
     private BoardService() {}
 
-    public static final Map<String, String> OPPOSITE_DIRECTIONS = Map.of(
-            "SW", "NE",
-            "SE", "NW",
-            "E", "W",
-            "NE", "SW",
-            "NW", "SE",
-            "W", "E"
-    );
+    // Para cada celda y dirección: índice del vecino y de la celda de aterrizaje
+    // de un salto (dos pasos en la misma dirección), o -1 si cae fuera del tablero.
+    private static final int[][] NEIGHBORS = new int[BoardIndex.CELL_COUNT][Direction.COUNT];
+    private static final int[][] JUMPS = new int[BoardIndex.CELL_COUNT][Direction.COUNT];
+    // Posición en píxeles de cada celda; Coords es inmutable, así que se comparte.
+    private static final Coords[] PIXELS = new Coords[BoardIndex.CELL_COUNT];
+
+    static {
+        for (int i = 0; i < BoardIndex.CELL_COUNT; i++) {
+            int q = BoardIndex.q(i);
+            int r = BoardIndex.r(i);
+            for (int d = 0; d < Direction.COUNT; d++) {
+                NEIGHBORS[i][d] = BoardIndex.indexOf(q + Direction.dq(d), r + Direction.dr(d));
+                JUMPS[i][d] = BoardIndex.indexOf(q + 2 * Direction.dq(d), r + 2 * Direction.dr(d));
+            }
+            PIXELS[i] = hexToPixel(q, r);
+        }
+    }
 
     /**
      * Construye el tablero de juego con forma de estrella. Lo hace creando
@@ -27,10 +36,10 @@ public class BoardService {
      */
     public static void createBoard(Board board) {
         //create first triangle
-        String[] directions = {"SW", "E", "NW"};
+        Direction[] directions = {Direction.SW, Direction.E, Direction.NW};
         createTriangleHex(board, directions, 0, 12, 4, -8);
         //create inverted triangle
-        String[] directionsInverted = {"NW", "E", "SW"};
+        Direction[] directionsInverted = {Direction.NW, Direction.E, Direction.SW};
         createTriangleHex(board, directionsInverted, 0, 12, -4, 8);
     }
 
@@ -38,13 +47,13 @@ public class BoardService {
      * Método recursivo que genera una sección triangular del tablero hexagonal,
      * moviéndose en direcciones específicas para colocar las celdas.
      */
-    public static Board createTriangleHex(Board board, String[] directions, int dirIndex, int stepsMax, int q, int r) {
+    public static Board createTriangleHex(Board board, Direction[] directions, int dirIndex, int stepsMax, int q, int r) {
         if (stepsMax < 0) {
             return board;
         }
-        String currentDir = directions[dirIndex];
+        Direction currentDir = directions[dirIndex];
         if (stepsMax == 12) {
-            Coords newCoord = calculateMove(OPPOSITE_DIRECTIONS.get(currentDir), q, r);
+            Coords newCoord = calculateMove(currentDir.opposite(), q, r);
             q = newCoord.getX();
             r = newCoord.getY();
         }
@@ -53,7 +62,7 @@ public class BoardService {
             Coords newCoord = calculateMove(currentDir, q, r);
             q = newCoord.getX();
             r = newCoord.getY();
-            if (!board.contains(new Coords(q, r))) {
+            if (board.getCell(q, r) == null) {
                 HexCell cell = new HexCell(q, r, null);
                 board.putCell(cell);
             }
@@ -65,21 +74,13 @@ public class BoardService {
 
     /**
      * Calcula las nuevas coordenadas axiales (q, r) basadas en una dirección de movimiento.
-     * @param direction La dirección del movimiento (ej. "NW", "E").
+     * @param direction La dirección del movimiento (ej. NW, E).
      * @param q Coordenada actual q.
      * @param r Coordenada actual r.
      * @return Nuevas coordenadas.
      */
-    public static Coords calculateMove(String direction, int q, int r) {
-        return switch (direction) {
-            case "NW" -> new Coords(q, r - 1);
-            case "NE" -> new Coords(q + 1, r - 1);
-            case "W" -> new Coords(q - 1, r);
-            case "E" -> new Coords(q + 1, r);
-            case "SW" -> new Coords(q - 1, r + 1);
-            case "SE" -> new Coords(q, r + 1);
-            default -> throw new IllegalArgumentException("Invalid direction: " + direction);
-        };
+    public static Coords calculateMove(Direction direction, int q, int r) {
+        return Coords.of(q + direction.dq(), r + direction.dr());
     }
 
     /**
@@ -88,29 +89,68 @@ public class BoardService {
      * @param coords Las coordenadas de la celda central.
      * @return Una lista de pares, donde cada par contiene la dirección y la celda vecina.
      */
-    public static ArrayList<Pair<String, HexCell>> getNeighbors(Board board, Coords coords) {
-        ArrayList<Pair<String, HexCell>> neighbors = new ArrayList<>();
-        String[] directions = {"NW", "NE", "E", "SE", "SW", "W"};
-        for (String direction : directions) {
-            Coords newCoord = calculateMove(direction, coords.getX(), coords.getY());
-            neighbors.add(new Pair<>(
-                    direction,
-                    board.getCell(newCoord.getX(), newCoord.getY()))
-            );
+    public static ArrayList<Pair<Direction, HexCell>> getNeighbors(Board board, Coords coords) {
+        ArrayList<Pair<Direction, HexCell>> neighbors = new ArrayList<>(Direction.COUNT);
+        int index = BoardIndex.indexOf(coords.getX(), coords.getY());
+        for (int d = 0; d < Direction.COUNT; d++) {
+            HexCell cell = null;
+            if (index >= 0) {
+                int neighbor = NEIGHBORS[index][d];
+                cell = neighbor < 0 ? null : board.getCell(neighbor);
+            } else {
+                Coords newCoord = calculateMove(Direction.of(d), coords.getX(), coords.getY());
+                cell = board.getCell(newCoord.getX(), newCoord.getY());
+            }
+            neighbors.add(new Pair<>(Direction.of(d), cell));
         }
         return neighbors;
     }
 
+    /**
+     * Índice de la celda vecina en una dirección, leído de la tabla precalculada.
+     * @param index Índice de la celda de origen.
+     * @param direction Ordinal de la dirección en {@link Direction}.
+     * @return El índice del vecino, o -1 si queda fuera del tablero.
+     */
+    public static int neighbor(int index, int direction) {
+        return NEIGHBORS[index][direction];
+    }
+
+    /**
+     * Índice de la celda situada a dos pasos en una dirección, es decir, donde
+     * aterrizaría un salto, sin comprobar la ocupación.
+     * @return El índice de aterrizaje, o -1 si queda fuera del tablero.
+     */
+    public static int jumpLanding(int index, int direction) {
+        return JUMPS[index][direction];
+    }
+
     /**
      * Convierte coordenadas hexagonales (q, r) a coordenadas de píxeles en la pantalla.
      * Esencial para renderizar el estado del juego en la interfaz gráfica.
+     * Las celdas del tablero devuelven una instancia precalculada y compartida.
      * @param cell La celda hexagonal a convertir.
      * @return Las coordenadas (x, y) en píxeles.
      */
     public static Coords pointyHexToPixel(HexCell cell) {
+        int index = BoardIndex.indexOf(cell.getQ(), cell.getR());
+        if (index >= 0) {
+            return PIXELS[index];
+        }
+        return hexToPixel(cell.getQ(), cell.getR());
+    }
+
+    /**
+     * Devuelve las coordenadas en píxeles precalculadas de una celda por su índice.
+     */
+    public static Coords pixelOf(int index) {
+        return PIXELS[index];
+    }
+
+    private static Coords hexToPixel(int q, int r) {
         // hex to cartesian
-        double x = sqrt(3) * cell.getQ()  +  sqrt(3)/2 * cell.getR();
-        double y = 3.0/2.0 * cell.getR();
+        double x = sqrt(3) * q  +  sqrt(3)/2 * r;
+        double y = 3.0/2.0 * r;
         // scale cartesian coordinates
         int size = 25;
         x = x * size;
@@ -120,33 +160,22 @@ public class BoardService {
         return new Coords(roundX, roundY);
     }
 
-    /**
-     * Ajusta las coordenadas de píxeles de la ventana al centro del área de dibujo,
-     * para que el origen (0,0) del tablero coincida con el centro del panel.
-     */
-    private static Coords adjustPixelOffset(int pixelX, int pixelY) {
-        int centerX = 800 / 2; // mismo que BoardPanel
-        int centerY = 700 / 2;
-
-        int adjustedX = pixelX - centerX;
-        int adjustedY = pixelY - centerY;
-
-       return new Coords(adjustedX, adjustedY);
-    }
-
     /**
      * Convierte coordenadas de píxeles de la pantalla a coordenadas hexagonales (q, r).
      * Se utiliza para interpretar los clics del usuario en el tablero.
+     * Primero ajusta el clic al centro del área de dibujo, para que el origen
+     * (0,0) del tablero coincida con el centro del panel.
      * @param pixelX Coordenada X del clic.
      * @param pixelY Coordenada Y del clic.
      * @return Las coordenadas (q, r) de la celda hexagonal correspondiente.
      */
     public static Coords pixelToPointyHex(int pixelX, int pixelY) {
-        Coords point = adjustPixelOffset(pixelX, pixelY);
+        int centerX = 800 / 2; // mismo que BoardPanel
+        int centerY = 700 / 2;
         // invert the scaling
         int size = 25;
-        double x = (double) point.getX() / size;
-        double y = (double) point.getY() / size;
+        double x = (double) (pixelX - centerX) / size;
+        double y = (double) (pixelY - centerY) / size;
         // cartesian to hex
         double q = sqrt(3)/3 * x  -  1.0/3 * y;
         double r = 2.0/3 * y;
@@ -173,36 +202,7 @@ public class BoardService {
         else {
             r = -q-s;
         }
-        return new Coords(q, r);
-    }
-
-    /**
-     * Calcula y devuelve las celdas que forman una de las "esquinas" o
-     * triángulos iniciales del tablero.
-     */
-    public static ArrayList<HexCell> calculateCornerCells(Board board, ArrayList<HexCell> cornerCells, String[] directions,
-                                                          int dirIndex, int stepsMax, int q, int r, boolean firstLap) {
-        if (stepsMax < 0) {
-            return cornerCells;
-        }
-        String currentDir = directions[dirIndex];
-        if (firstLap) {
-            Coords newCoord = calculateMove(OPPOSITE_DIRECTIONS.get(currentDir), q, r);
-            q = newCoord.getX();
-            r = newCoord.getY();
-        }
-        int stepsCount = 0;
-        while (stepsCount <= stepsMax) {
-            Coords newCoord = calculateMove(currentDir, q, r);
-            q = newCoord.getX();
-            r = newCoord.getY();
-            if (board.contains(new Coords(q, r))) {
-                cornerCells.add(board.getCell(q, r));
-            }
-            stepsCount++;
-        }
-        int nextDirIndex = (dirIndex + 1) % directions.length;
-        return calculateCornerCells(board, cornerCells, directions, nextDirIndex, stepsMax - 1, q, r, false);
+        return Coords.of(q, r);
     }
 
     /**
@@ -213,29 +213,36 @@ public class BoardService {
      * @param position La posición de origen del salto.
      * @return Las coordenadas de destino si el salto es válido, de lo contrario null.
      */
-    public static Coords calculateJump(Board board, String direction, Coords position) {
-        int q = position.getX();
-        int r = position.getY();
-        Coords step = calculateMove(direction, q, r);
-        if (step == null) {
-            return null;
-        }
-        HexCell intermediateCell = board.getCell(step.getX(), step.getY());
-        if (intermediateCell == null) {
+    public static Coords calculateJump(Board board, Direction direction, Coords position) {
+        int index = BoardIndex.indexOf(position.getX(), position.getY());
+        if (index < 0 || direction == null) {
             return null;
         }
-        if (intermediateCell.getPiece() == null) {
+        int dest = jumpDestination(board, index, direction.ordinal());
+        if (dest < 0) {
             return null;
         }
-        Coords destPos = calculateMove(direction, step.getX(), step.getY());
-        if (!board.contains(destPos)) {
-            return null;
+        return Coords.ofIndex(dest);
+    }
+
+    /**
+     * Versión sin reservas de memoria de {@link #calculateJump}: trabaja con
+     * índices de celda y las tablas de adyacencia precalculadas.
+     * @param board El tablero de juego.
+     * @param from Índice de la celda de origen.
+     * @param direction Ordinal de la dirección en {@link Direction}.
+     * @return El índice de destino si el salto es válido, de lo contrario -1.
+     */
+    public static int jumpDestination(Board board, int from, int direction) {
+        int middle = NEIGHBORS[from][direction];
+        int dest = JUMPS[from][direction];
+        if (middle < 0 || dest < 0 || !board.contains(dest)) {
+            return -1;
         }
-        HexCell destCell = board.getCell(destPos.getX(), destPos.getY());
-        if (destCell.getPiece() != null) {
-            return null;
+        if (!board.isOccupied(middle) || board.isOccupied(dest)) {
+            return -1;
         }
-        return new Coords(destPos.getX(), destPos.getY());
+        return dest;
     }
 
     /**
@@ -243,46 +250,26 @@ public class BoardService {
      * Utilizado para verificar la condición de victoria.
      */
     public static Coords getOppositeCorner(String color) {
-        Map <String, Coords> cornerPositions = Map.of(
-                "GREEN", new Coords(-4, 8),
-                "BLUE", new Coords(4, 4),
-                "PURPLE", new Coords(8, -4),
-                "RED", new Coords(4, -8),
-                "ORANGE", new Coords(-4, -4),
-                "YELLOW", new Coords(-8, 4)
-        );
-        return cornerPositions.get(color);
-    }
-
-    /**
-     * Devuelve las direcciones necesarias para construir el triángulo de una esquina específica.
-     */
-    public static String[] getDirectionsForCorner(int q, int r) {
-        Coords corner = new Coords(q, r);
-        Map <Coords, String[]> cornerPositions = Map.of(
-                new Coords(4, -8), new String[]{"SW", "E", "NW"},
-                new Coords(-4, 8), new String[]{"NW", "E", "SW"},
-                new Coords(4, 4), new String[]{"W", "NE", "SE"},
-                new Coords(-4, -4), new String[]{"E", "SW", "NW"},
-                new Coords(8, -4), new String[]{"W", "SE", "NE"},
-                new Coords(-8, 4), new String[]{"E", "NW", "SW"}
-        );
-        return cornerPositions.get(corner);
+        int colorIndex = Piece.colorIndex(color);
+        if (colorIndex < 0) {
+            return null;
+        }
+        return Coords.ofIndex(BoardIndex.goalApex(colorIndex));
     }
 
     /**
      * Verifica si un jugador ha movido todas sus piezas a la esquina opuesta,
-     * cumpliendo la condición de victoria.
+     * cumpliendo la condición de victoria. Compara el bitset de sus piezas con
+     * el del triángulo de meta precalculado.
      */
-    public static boolean checkOppositeCorner(Board board, String color, String[] directions, int q , int r) {
-        ArrayList<HexCell> initialCells = calculateCornerCells(board,
-                new ArrayList<>(), directions, 0, 3, q, r, true);
-        for (HexCell cell : initialCells) {
-            Piece piece = cell.getPiece();
-            if (piece == null) {
-                return false;
-            }
-            if(!piece.getColor().equals(color)) {
+    public static boolean checkOppositeCorner(Board board, String color) {
+        int colorIndex = Piece.colorIndex(color);
+        if (colorIndex < 0) {
+            return false;
+        }
+        for (int word = 0; word < BoardIndex.WORDS; word++) {
+            long goal = BoardIndex.goalMask(colorIndex, word);
+            if ((board.getOccupancy(colorIndex, word) & goal) != goal) {
                 return false;
             }
         }
@@ -293,76 +280,42 @@ public class BoardService {
      * Comprueba si la pieza en una coordenada específica pertenece al jugador actual.
      */
     public static boolean isPlayerPiece(Board board, Coords hexCoord, String currentPieceColor) {
-        if (!board.contains(hexCoord)) {
-            return false;
-        }
-        if (board.getCell(hexCoord.getX(), hexCoord.getY()).getPiece() == null) {
+        int index = BoardIndex.indexOf(hexCoord.getX(), hexCoord.getY());
+        int colorIndex = Piece.colorIndex(currentPieceColor);
+        if (!board.contains(index) || colorIndex < 0) {
             return false;
         }
-        Piece piece = board.getCell(hexCoord.getX(), hexCoord.getY()).getPiece();
-        return piece.getColor().equals(currentPieceColor);
+        return board.isOccupiedBy(index, colorIndex);
     }
 
     /**
      * Determina si un movimiento fue un salto válido, comprobando si la posición
      * previa es alcanzable mediante un salto inverso desde la nueva posición.
      */
-    public static boolean isJumpMove(Board board, Coords prevPosition, Coords newPosition, String direction) {
+    public static boolean isJumpMove(Board board, Coords prevPosition, Coords newPosition, Direction direction) {
         if(direction == null) {
             return false;
         }
-        String oppositeDirection = OPPOSITE_DIRECTIONS.get(direction);
-        Coords jumpBack = calculateJump(board, oppositeDirection, newPosition);
+        Coords jumpBack = calculateJump(board, direction.opposite(), newPosition);
         return prevPosition.equals(jumpBack);
     }
 
     /**
-     * Coloca las 10 piezas de un solo jugador en su esquina inicial correspondiente.
+     * Coloca las 10 piezas de un solo jugador en su esquina inicial correspondiente,
+     * leyendo las celdas del triángulo precalculado en BoardIndex.
      * @param board El tablero de juego.
      * @param color El color del jugador para el que se colocarán las piezas.
      */
     public static void setupPiecesForOnePlayer(Board board, String color) {
-        int q, r;
-        String[] directions;
-        switch(color) {
-            case "GREEN": {
-                q = 4; r = -8;
-                directions = new String[]{"SW", "E", "NW"};
-                break;
-            }
-            case "BLUE": {
-                q = -4; r = -4;
-                directions = new String[]{"E", "SW", "NW"};
-                break;
-            }
-            case "PURPLE": {
-                q = -8; r = 4;
-                directions = new String[]{"E", "NW", "SW"};
-                break;
-            }
-            case "RED": {
-                q = -4; r = 8;
-                directions = new String[]{"NW", "E", "SW"};
-                break;
-            }
-            case "ORANGE": {
-                q = 4; r = 4;
-                directions = new String[]{"W", "NE", "SE"};
-                break;
-            }
-            case "YELLOW": {
-                q = 8; r = -4;
-                directions = new String[]{"W", "SE", "NE"};
-                break;
-            }
-            default: {
-                throw new IllegalArgumentException("Invalid color: " + color);
-            }
+        int colorIndex = Piece.colorIndex(color);
+        if (colorIndex < 0) {
+            throw new IllegalArgumentException("Invalid color: " + color);
         }
-        ArrayList<HexCell> initialCells = calculateCornerCells(board,
-                new ArrayList<>(), directions, 0, 3, q, r, true);
-        for (HexCell cell : initialCells) {
-            cell.setPiece(new Piece(color));
+        for (int i = 0; i < BoardIndex.TRIANGLE_SIZE; i++) {
+            HexCell cell = board.getCell(BoardIndex.homeCell(colorIndex, i));
+            if (cell != null) {
+                cell.setPiece(new Piece(color));
+            }
         }
     }
 
@@ -385,9 +338,13 @@ public class BoardService {
      * @return Una lista de `PixelCell` con las coordenadas de píxeles y la pieza asociada.
      */
     public static ArrayList<PixelCell> getPixelPositions(Board board) {
-        ArrayList<PixelCell> pixelBoard = new ArrayList<>();
-        for (HexCell cell : board.getCells().values()) {
-            Coords pixelCoords = pointyHexToPixel(cell);
+        ArrayList<PixelCell> pixelBoard = new ArrayList<>(board.size());
+        for (int i = 0; i < BoardIndex.CELL_COUNT; i++) {
+            HexCell cell = board.getCell(i);
+            if (cell == null) {
+                continue;
+            }
+            Coords pixelCoords = pixelOf(i);
             PixelCell pixelCell = new PixelCell(pixelCoords, cell.getPiece());
             pixelBoard.add(pixelCell);
         }
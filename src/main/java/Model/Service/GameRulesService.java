@@ -1,16 +1,24 @@
 package Model.Service;
 
 import Model.Entities.Board;
+import Model.Entities.BoardIndex;
 import Model.Entities.Coords;
-import Model.Entities.HexCell;
+import Model.Entities.Direction;
+import Model.Entities.Move;
 import Model.Entities.Piece;
-import org.javatuples.Pair;
-import java.util.ArrayList;
 import java.util.HashMap;
 
 public class GameRulesService {
     private GameRulesService() {}
 
+    /** Máximo de movimientos de una pieza: un paso o un salto por dirección. */
+    public static final int MAX_PIECE_MOVES = 2 * Direction.COUNT;
+    /**
+     * Cota de movimientos de un turno completo: diez piezas, seis direcciones y
+     * como mucho ocho aterrizajes seguidos en una misma dirección.
+     */
+    public static final int MAX_TURN_MOVES = BoardIndex.TRIANGLE_SIZE * Direction.COUNT * 8;
+
     /**
      * Calcula todos los movimientos válidos para una pieza desde una posición dada.
      * Un movimiento válido puede ser un paso a una celda adyacente vacía o un
@@ -20,50 +28,122 @@ public class GameRulesService {
      * @return Un HashMap donde las claves son las coordenadas de destino válidas
      * y los valores son la dirección del movimiento.
      */
-    public static HashMap<Coords, String> getValidMoves(Board board, Coords currentPos) {
-        int q = currentPos.getX();
-        int r = currentPos.getY();
-        ArrayList<Pair<String, HexCell>> neighbors = BoardService.getNeighbors(board, new Coords(q, r));
-        HashMap<Coords, String> validMoves = new HashMap<>();
-        for (Pair<String, HexCell> neighbor : neighbors) {
-            if(neighbor == null) continue;
-            if(neighbor.getValue1() == null) continue;
-            String direction = neighbor.getValue0();
+    public static HashMap<Coords, Direction> getValidMoves(Board board, Coords currentPos) {
+        HashMap<Coords, Direction> validMoves = new HashMap<>();
+        int from = BoardIndex.indexOf(currentPos.getX(), currentPos.getY());
+        if (!board.contains(from)) {
+            return validMoves;
+        }
+        int[] moves = new int[MAX_PIECE_MOVES];
+        int count = getValidMoves(board, from, moves);
+        for (int i = 0; i < count; i++) {
+            int to = Move.to(moves[i]);
+            validMoves.put(Coords.ofIndex(to), Direction.of(Move.direction(moves[i])));
+        }
+        return validMoves;
+    }
+
+    /**
+     * Versión sin reservas de memoria de {@link #getValidMoves(Board, Coords)}.
+     * Escribe los movimientos codificados con {@link Move#encode} en el arreglo dado.
+     * @param board El tablero de juego actual.
+     * @param from Índice de la celda de la pieza a mover.
+     * @param moves Arreglo de salida con al menos {@link #MAX_PIECE_MOVES} posiciones.
+     * @return La cantidad de movimientos escritos.
+     */
+    public static int getValidMoves(Board board, int from, int[] moves) {
+        int count = 0;
+        for (int d = 0; d < Direction.COUNT; d++) {
+            int neighbor = BoardService.neighbor(from, d);
+            if (!board.contains(neighbor)) continue;
             // Movimiento simple a una celda adyacente vacía
-            if (neighbor.getValue1().getPiece() == null) {
-                HexCell cell = neighbor.getValue1();
-                Coords coords = new Coords(cell.getQ(), cell.getR());
-                validMoves.put(coords, direction);
+            if (!board.isOccupied(neighbor)) {
+                moves[count++] = Move.encode(from, neighbor, d, false);
+                continue;
             }
             // Salto sobre una pieza
-            Coords jump = BoardService.calculateJump(board, direction, currentPos);
-            if (jump != null) {
-                validMoves.put(jump, direction);
+            int jump = BoardService.jumpDestination(board, from, d);
+            if (jump >= 0) {
+                moves[count++] = Move.encode(from, jump, d, true);
             }
         }
-        return validMoves;
+        return count;
+    }
+
+    /**
+     * Genera todos los turnos posibles de un color según las reglas del juego: un
+     * paso a una celda vecina vacía, o un salto seguido opcionalmente de más saltos
+     * en la misma dirección, pudiendo detenerse tras cualquiera de ellos. Cada
+     * movimiento lleva el origen y el destino final, así que equivale a un turno
+     * completo. No reserva memoria.
+     * @param board El tablero de juego actual.
+     * @param colorIndex Índice del color que mueve.
+     * @param moves Arreglo de salida con al menos {@link #MAX_TURN_MOVES} posiciones.
+     * @return La cantidad de movimientos escritos.
+     */
+    public static int generateTurnMoves(Board board, int colorIndex, int[] moves) {
+        int count = 0;
+        for (int word = 0; word < BoardIndex.WORDS; word++) {
+            long pieces = board.getOccupancy(colorIndex, word);
+            while (pieces != 0) {
+                int from = (word << 6) + Long.numberOfTrailingZeros(pieces);
+                pieces &= pieces - 1;
+                for (int d = 0; d < Direction.COUNT; d++) {
+                    int neighbor = BoardService.neighbor(from, d);
+                    if (!board.contains(neighbor)) continue;
+                    if (!board.isOccupied(neighbor)) {
+                        moves[count++] = Move.encode(from, neighbor, d, false);
+                        continue;
+                    }
+                    // La cadena avanza en línea recta, así que nunca vuelve a pasar por el origen.
+                    int landing = BoardService.jumpDestination(board, from, d);
+                    while (landing >= 0) {
+                        moves[count++] = Move.encode(from, landing, d, true);
+                        landing = BoardService.jumpDestination(board, landing, d);
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Pasos que les faltan en total a las piezas de un color para entrar en su
+     * triángulo de meta, cada una hasta su celda de meta más cercana. Vale 0 cuando
+     * todas están dentro; es la cifra que reciben los clientes en los estados.
+     * @param board El tablero de juego.
+     * @param colorIndex Índice del color según {@link Piece#COLORS}.
+     */
+    public static int goalDistance(Board board, int colorIndex) {
+        return board.getGoalDistance(colorIndex);
+    }
+
+    /**
+     * Suma de las distancias hexagonales de las piezas de un color a la punta de su
+     * triángulo de meta. Vale 20 cuando el triángulo está completo y crece cuanto
+     * más lejos están las piezas, así que sirve como medida de avance; a diferencia
+     * de {@link #goalDistance}, sigue premiando acercarse a la punta ya dentro de la
+     * meta, que es lo que deja sitio a las piezas que faltan. Es la que evalúan los
+     * bots. El tablero la mantiene en cada movimiento, por lo que evaluar una
+     * posición es O(1).
+     * @param board El tablero de juego.
+     * @param colorIndex Índice del color según {@link Piece#COLORS}.
+     */
+    public static int apexDistance(Board board, int colorIndex) {
+        return board.getApexDistance(colorIndex);
     }
 
     /**
      * Verifica si un jugador ha ganado la partida. La condición de victoria se cumple
      * cuando todas las piezas de un jugador ocupan las celdas de la esquina
-     * opuesta a su esquina de inicio.
+     * opuesta a su esquina de inicio. El tablero lleva la cuenta de las piezas
+     * de cada color en su meta, así que la verificación es una comparación.
      * @param board El tablero de juego actual.
      * @param playerColor El color del jugador a verificar.
      * @return true si el jugador ha ganado, false en caso contrario.
      */
     public static boolean hasWon(Board board, String playerColor) {
-        Coords oppositeCorner = BoardService.getOppositeCorner(playerColor);
-        int q = oppositeCorner.getX();
-        int r = oppositeCorner.getY();
-        Piece pieceInOppositeCorner = board.getCell(q, r).getPiece();
-        if (pieceInOppositeCorner == null) {
-            return false;
-        }
-        if (!pieceInOppositeCorner.getColor().equals(playerColor)) {
-            return false;
-        }
-        String[] directionsForCorner = BoardService.getDirectionsForCorner(q, r);
-        return BoardService.checkOppositeCorner(board, playerColor, directionsForCorner, q, r);
+        int colorIndex = Piece.colorIndex(playerColor);
+        return colorIndex >= 0 && board.hasWon(colorIndex);
     }
-}
\ No newline at end of file
+}
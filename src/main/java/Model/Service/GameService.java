@@ -4,24 +4,26 @@ import Model.Entities.*;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
- * GameService es el núcleo de la lógica del juego. Implementado como un Singleton,
- * centraliza la gestión del estado del juego (GameState) y orquesta las acciones
- * principales como la creación de partidas, la gestión de turnos y la validación
- * de movimientos.
+ * GameService es el núcleo de la lógica del juego. Cada partida tiene su propia
+ * instancia, normalmente dentro de una {@link GameSession}; centraliza la gestión
+ * del estado del juego (GameState) y orquesta las acciones principales como la
+ * creación de partidas, la gestión de turnos y la validación de movimientos.
  */
 public class GameService {
-    private static GameService instance;
     private GameState gameState;
-    private GameStateListener listener;
+    private final List<GameStateListener> listeners = new CopyOnWriteArrayList<>();
+    // Última instantánea inmutable publicada; los lectores la toman sin bloqueo.
+    private volatile GameSnapshot snapshot = GameSnapshot.empty();
 
     /**
-     * El constructor es privado para garantizar que solo exista una instancia (Singleton).
-     * Inicializa un GameState vacío pero funcional.
+     * Crea el servicio de una partida nueva con un GameState vacío pero funcional.
      */
-    private GameService() {
+    public GameService() {
         // Inicializar gameState con todos los campos necesarios en el ORDEN CORRECTO
         this.gameState = new GameState(
                 new Board(),                    // board
@@ -37,29 +39,52 @@ public class GameService {
     }
 
     /**
-     * Proporciona acceso a la única instancia de GameService.
-     * @return La instancia Singleton de GameService.
+     * Registra un listener (normalmente el GameController o la sesión) que será
+     * notificado cada vez que el estado del juego cambie.
+     * @param listener El listener a notificar.
      */
-    public static synchronized GameService getInstance() {
-        if (instance == null) {
-            instance = new GameService();
-        }
-        return instance;
+    public void addGameStateListener(GameStateListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeGameStateListener(GameStateListener listener) {
+        listeners.remove(listener);
     }
 
     /**
-     * Registra un listener (normalmente el GameController o el Servidor) que será
-     * notificado cada vez que el estado del juego cambie.
-     * @param listener El listener a notificar.
+     * Quita todos los listeners, por ejemplo al cerrar la sesión de la partida.
      */
-    public void setGameStateListener(GameStateListener listener) {
-        this.listener = listener;
+    public void clearGameStateListeners() {
+        listeners.clear();
     }
 
     public GameState getGameState() {
         return gameState;
     }
 
+    /**
+     * Devuelve la última instantánea publicada del estado del juego. Puede leerse
+     * desde cualquier hilo sin sincronización y conservarse indefinidamente.
+     * @return La instantánea más reciente.
+     */
+    public GameSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Publica una instantánea del estado tras una acción y notifica a los listeners.
+     */
+    private void stateChanged() {
+        publishSnapshot();
+        for (GameStateListener listener : listeners) {
+            listener.onGameStateUpdated(gameState);
+        }
+    }
+
+    private void publishSnapshot() {
+        snapshot = GameSnapshot.capture(gameState, snapshot);
+    }
+
     /**
      * Configura una nueva partida. Crea un nuevo tablero, coloca las piezas
      * para cada jugador y establece el primer turno.
@@ -88,9 +113,7 @@ public class GameService {
         );
 
         //Notifica que el juego ha sido creado.
-        if (listener != null) {
-            listener.onGameStateUpdated(gameState);
-        }
+        stateChanged();
     }
 
     /**
@@ -109,11 +132,11 @@ public class GameService {
         gameState.getPlayers().add(player);
 
         //Añade las piezas del jugador si el tablero ya existe.
-        if (!gameState.getBoard().getCells().isEmpty()) {
+        if (gameState.getBoard().size() > 0) {
             BoardService.setupPiecesForOnePlayer(gameState.getBoard(), color);
-            if (listener != null) {
-                listener.onGameStateUpdated(gameState);
-            }
+            stateChanged();
+        } else {
+            publishSnapshot();
         }
     }
 
@@ -181,9 +204,7 @@ public class GameService {
                 endTurn(true);
             }
 
-            if (listener != null) {
-                listener.onGameStateUpdated(gameState);
-            }
+            stateChanged();
         }
         // Si estamos en una secuencia de saltos, no permite seleccionar otra pieza.
         if (gameState.isJumpSequence()) {
@@ -200,21 +221,33 @@ public class GameService {
     /**
      * Determina si el jugador puede y debe continuar una secuencia de saltos.
      * Si el último movimiento fue un salto, calcula si es posible otro salto
-     * en la misma dirección y actualiza los movimientos válidos.
+     * en la misma dirección y actualiza los movimientos válidos y la parte de la
+     * clave de Zobrist que describe la secuencia.
      * @param selectedCell La celda a la que se acaba de mover.
      * @return true si es posible continuar saltando, false en caso contrario.
      */
     private boolean setJumpSequence(Coords selectedCell) {
-        String lastDirection = gameState.getLastMoveDirection();
-        if (BoardService.isJumpMove(gameState.getBoard(), gameState.getSelectedPiece(), selectedCell, lastDirection)) {
-            Coords nextJump = BoardService.calculateJump(gameState.getBoard(), lastDirection, selectedCell);
-            if (nextJump != null) {
-                gameState.getCurrentValidMoves().clear();
-                gameState.getCurrentValidMoves().put(nextJump, lastDirection);
-                return true;
-            }
+        gameState.setJumpState(-1, -1);
+        Direction lastDirection = gameState.getLastMoveDirection();
+        if (lastDirection == null) {
+            return false;
         }
-        return false;
+        int direction = lastDirection.ordinal();
+        Coords previous = gameState.getSelectedPiece();
+        int from = BoardIndex.indexOf(previous.getX(), previous.getY());
+        int to = BoardIndex.indexOf(selectedCell.getX(), selectedCell.getY());
+        // Fue un salto si el destino está a dos pasos del origen en la dirección del movimiento.
+        if (from < 0 || BoardService.jumpLanding(from, direction) != to) {
+            return false;
+        }
+        int nextJump = BoardService.jumpDestination(gameState.getBoard(), to, direction);
+        if (nextJump < 0) {
+            return false;
+        }
+        gameState.setJumpState(to, direction);
+        gameState.getCurrentValidMoves().clear();
+        gameState.getCurrentValidMoves().put(Coords.ofIndex(nextJump), lastDirection);
+        return true;
     }
 
     /**
@@ -225,9 +258,7 @@ public class GameService {
         gameState.setSelectedPiece(selectedCell);
         gameState.getCurrentValidMoves().clear();
         gameState.setCurrentValidMoves(GameRulesService.getValidMoves(gameState.getBoard(), gameState.getSelectedPiece()));
-        if (listener != null) {
-            listener.onGameStateUpdated(gameState);
-        }
+        stateChanged();
     }
 
     /**
@@ -237,9 +268,8 @@ public class GameService {
         gameState.setSelectedPiece(null);
         gameState.getCurrentValidMoves().clear();
         gameState.setJumpSequence(false);
-        if (listener != null) {
-            listener.onGameStateUpdated(gameState);
-        }
+        gameState.setJumpState(-1, -1);
+        stateChanged();
     }
 
     /**
@@ -250,9 +280,7 @@ public class GameService {
         if (canEndTurn) {
             nextTurn();
             resetSelection();
-            if (listener != null) {
-                listener.onGameStateUpdated(gameState);
-            }
+            stateChanged();
         }
     }
 }
\ No newline at end of file
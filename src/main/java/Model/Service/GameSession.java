@@ -0,0 +1,94 @@
+package Model.Service;
+
+import Model.Entities.GameSnapshot;
+import Model.Entities.GameState;
+
+/**
+ * Una partida alojada en el servidor. Es dueña de su propio GameService (y por
+ * lo tanto de su GameState y de sus reglas) y de sus listeners, de modo que un
+ * mismo proceso puede alojar muchas partidas a la vez. Se crean, buscan y
+ * eliminan a través de un {@link GameSessionRegistry}.
+ * La sesión registra la hora de su última actividad para poder desalojar las
+ * partidas abandonadas.
+ */
+public class GameSession implements GameStateListener {
+    private final String id;
+    private final GameService gameService;
+    private final long createdAtMillis;
+    private volatile long lastActivityMillis;
+    private volatile boolean closed;
+
+    GameSession(String id) {
+        this.id = id;
+        this.gameService = new GameService();
+        this.createdAtMillis = System.currentTimeMillis();
+        this.lastActivityMillis = createdAtMillis;
+        this.gameService.addGameStateListener(this);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * El servicio con las reglas y el estado de esta partida. Sus métodos deben
+     * llamarse desde un solo hilo a la vez.
+     */
+    public GameService getGameService() {
+        return gameService;
+    }
+
+    /**
+     * La última instantánea publicada; puede leerse desde cualquier hilo.
+     */
+    public GameSnapshot getSnapshot() {
+        return gameService.getSnapshot();
+    }
+
+    /**
+     * Registra un listener que será notificado con cada cambio de estado de esta partida.
+     */
+    public void addListener(GameStateListener listener) {
+        gameService.addGameStateListener(listener);
+    }
+
+    public void removeListener(GameStateListener listener) {
+        gameService.removeGameStateListener(listener);
+    }
+
+    public long getCreatedAtMillis() {
+        return createdAtMillis;
+    }
+
+    /**
+     * Momento del último cambio de estado o de la última llamada a {@link #touch()}.
+     */
+    public long getLastActivityMillis() {
+        return lastActivityMillis;
+    }
+
+    /**
+     * Marca actividad en la partida aunque su estado no cambie (por ejemplo, un
+     * jugador que se conecta).
+     */
+    public void touch() {
+        lastActivityMillis = System.currentTimeMillis();
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Cierra la sesión: deja de notificar a sus listeners. Lo invoca el registro al desalojarla.
+     */
+    void close() {
+        closed = true;
+        gameService.clearGameStateListeners();
+    }
+
+    @Override
+    public void onGameStateUpdated(GameState newState) {
+        touch();
+    }
+}
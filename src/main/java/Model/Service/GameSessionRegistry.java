@@ -0,0 +1,89 @@
+package Model.Service;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Registro concurrente de las partidas alojadas en un proceso, indexadas por id.
+ * Crear, buscar y desalojar sesiones no necesita bloqueos externos; cada sesión
+ * sólo ocupa su tablero y su estado, así que un nodo puede alojar miles a la vez.
+ */
+public class GameSessionRegistry {
+    private final ConcurrentHashMap<String, GameSession> sessions = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong();
+
+    /**
+     * Crea una sesión con un id nuevo y la registra.
+     * @return La sesión creada.
+     */
+    public GameSession create() {
+        while (true) {
+            String id = Long.toString(nextId.incrementAndGet(), 36);
+            GameSession session = new GameSession(id);
+            if (sessions.putIfAbsent(id, session) == null) {
+                return session;
+            }
+        }
+    }
+
+    /**
+     * Crea y registra una sesión con un id elegido por quien llama.
+     * @throws IllegalArgumentException si ya existe una sesión con ese id.
+     */
+    public GameSession create(String id) {
+        GameSession session = new GameSession(id);
+        if (sessions.putIfAbsent(id, session) != null) {
+            throw new IllegalArgumentException("Session already exists: " + id);
+        }
+        return session;
+    }
+
+    /**
+     * Busca una sesión por id.
+     * @return La sesión, o null si no existe o fue desalojada.
+     */
+    public GameSession get(String id) {
+        return id == null ? null : sessions.get(id);
+    }
+
+    /**
+     * Quita una sesión del registro y la cierra.
+     * @return La sesión desalojada, o null si no existía.
+     */
+    public GameSession evict(String id) {
+        GameSession session = sessions.remove(id);
+        if (session != null) {
+            session.close();
+        }
+        return session;
+    }
+
+    /**
+     * Desaloja las sesiones sin actividad durante más del tiempo indicado.
+     * @return La cantidad de sesiones desalojadas.
+     */
+    public int evictIdle(long maxIdleMillis) {
+        long limit = System.currentTimeMillis() - maxIdleMillis;
+        int evicted = 0;
+        for (GameSession session : sessions.values()) {
+            if (session.getLastActivityMillis() < limit && sessions.remove(session.getId(), session)) {
+                session.close();
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    /**
+     * Vista de sólo lectura de las sesiones registradas.
+     */
+    public Collection<GameSession> getSessions() {
+        return Collections.unmodifiableCollection(sessions.values());
+    }
+}
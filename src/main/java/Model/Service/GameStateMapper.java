@@ -1,18 +1,34 @@
 package Model.Service;
 
 import DTO.GameStateDTO;
+import DTO.StateUpdateDTO;
 import Model.Entities.*;
 import View.PixelCell;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.HashSet;
 
 public class GameStateMapper {
 
+    // Una pieza compartida por color: el DTO sólo se lee o se serializa.
+    private static final Piece[] PIECES = new Piece[Piece.COLOR_COUNT];
+
+    static {
+        for (int i = 0; i < Piece.COLOR_COUNT; i++) {
+            PIECES[i] = new Piece(Piece.COLORS[i]);
+        }
+    }
+
     /**
      * Convierte un objeto `GameState` (el estado interno del juego) en un
      * `GameStateDTO` (un objeto de transferencia de datos para la vista/red).
+     * Debe llamarse desde el hilo que modifica el estado; los demás hilos deben
+     * usar {@link #toDTO(GameSnapshot)}.
      *
      * @param gameState El estado del juego del modelo.
      * @return Un DTO que contiene la información necesaria para ser renderizada o enviada por red.
@@ -21,56 +37,201 @@ public class GameStateMapper {
         if (gameState == null) {
             return createEmptyDTO();
         }
+        return toDTO(GameSnapshot.capture(gameState, null));
+    }
+
+    /**
+     * Convierte una instantánea inmutable del juego en un `GameStateDTO`. Es seguro
+     * llamarlo desde cualquier hilo.
+     *
+     * @param snapshot La instantánea del estado del juego.
+     * @return Un DTO que contiene la información necesaria para ser renderizada o enviada por red.
+     */
+    public static GameStateDTO toDTO(GameSnapshot snapshot) {
+        if (snapshot == null) {
+            return createEmptyDTO();
+        }
 
-        // 1. Transformación principal: Convierte el tablero de coordenadas lógicas (HexCell)
+        // 1. Transformación principal: Convierte el tablero de celdas indexadas
         //    a una lista de coordenadas de píxeles (PixelCell) que la vista puede dibujar directamente.
-        ArrayList<PixelCell> pixelBoard = BoardService.getPixelPositions(gameState.getBoard());
+        ArrayList<PixelCell> pixelBoard = new ArrayList<>(BoardIndex.CELL_COUNT);
+        if (snapshot.isBoardCreated()) {
+            for (int i = 0; i < BoardIndex.CELL_COUNT; i++) {
+                int color = snapshot.getCellColor(i);
+                Piece piece = color == GameSnapshot.EMPTY ? null : PIECES[color];
+                pixelBoard.add(new PixelCell(BoardService.pixelOf(i), piece));
+            }
+        }
 
-        // 2. Convierte las coordenadas de los movimientos válidos a píxeles.
+        // 2. Convierte los destinos de los movimientos válidos a píxeles.
         Set<Coords> validMoves = new HashSet<>();
-        for (Coords coords : gameState.getCurrentValidMoves().keySet()) {
-            HexCell cell = gameState.getBoard().getCell(coords.getX(), coords.getY());
-            validMoves.add(BoardService.pointyHexToPixel(cell));
+        for (int word = 0; word < BoardIndex.WORDS; word++) {
+            long moves = snapshot.getValidMoves(word);
+            while (moves != 0) {
+                int index = (word << 6) + Long.numberOfTrailingZeros(moves);
+                moves &= moves - 1;
+                validMoves.add(BoardService.pixelOf(index));
+            }
         }
 
-        // 3. Convierte la coordenada de la pieza seleccionada a píxeles.
+        // 3. Convierte la celda de la pieza seleccionada a píxeles.
         Coords selectedPixel = null;
-        Coords selectedPiece = gameState.getSelectedPiece();
-
-        if (selectedPiece != null && gameState.getBoard() != null) {
-            HexCell selectedCell = gameState.getBoard().getCell(selectedPiece.getX(), selectedPiece.getY());
-            if (selectedCell != null) {
-                selectedPixel = BoardService.pointyHexToPixel(selectedCell);
-            }
+        if (snapshot.getSelectedCell() >= 0 && snapshot.isBoardCreated()) {
+            selectedPixel = BoardService.pixelOf(snapshot.getSelectedCell());
         }
 
         // 4. Extrae datos simples como nombres de jugadores y ganador.
-        String currentPlayerName = (gameState.getCurrentPlayer() != null)
-                ? gameState.getCurrentPlayer().getName()
+        String currentPlayerName = (snapshot.getCurrentPlayer() != null)
+                ? snapshot.getCurrentPlayer().getName()
                 : "Waiting...";
 
-        String currentPlayerColor = (gameState.getCurrentPlayer() != null)
-                ? gameState.getCurrentPlayer().getColor()
+        String currentPlayerColor = (snapshot.getCurrentPlayer() != null)
+                ? snapshot.getCurrentPlayer().getColor()
                 : "Waiting...";
 
-        String winnerName = (gameState.getWinner() != null)
-                ? gameState.getWinner().getName()
+        String winnerName = (snapshot.getWinner() != null)
+                ? snapshot.getWinner().getName()
                 : null;
-        ArrayList<Player> players = gameState.getPlayers();
 
-        // 5. Construye y devuelve el DTO con todos los datos transformados.
+        // 5. Distancia a la meta de cada jugador, en el orden de los turnos.
+        Map<String, Integer> goalDistances = goalDistances(snapshot);
+
+        // 6. Construye y devuelve el DTO con todos los datos transformados.
         return new GameStateDTO(
                 pixelBoard,
                 selectedPixel,
                 validMoves,
                 currentPlayerName,
                 winnerName,
-                gameState.isJumpSequence(),
+                snapshot.isJumpSequence(),
                 currentPlayerColor,
-                players
+                snapshot.copyPlayers(),
+                goalDistances
+        );
+    }
+
+    /**
+     * Convierte una instantánea en una actualización para los clientes que guardan su
+     * propia copia del tablero. Si se da una base, sólo lleva las celdas que cambiaron
+     * desde ella (y los jugadores si cambiaron); si no, o si el tablero se creó después
+     * de la base, lleva el tablero entero.
+     *
+     * @param snapshot La instantánea a enviar.
+     * @param version La versión que tendrá en el cliente.
+     * @param base La instantánea que el cliente ya tiene, o null para un keyframe.
+     * @param baseVersion La versión de la base en el cliente; se ignora sin base.
+     * @return La actualización, lista para serializar.
+     */
+    public static StateUpdateDTO toUpdate(GameSnapshot snapshot, long version, GameSnapshot base, long baseVersion) {
+        if (base != null && base.isBoardCreated() != snapshot.isBoardCreated()) {
+            base = null;
+        }
+        byte[] cells;
+        if (base == null) {
+            cells = new byte[snapshot.isBoardCreated() ? BoardIndex.CELL_COUNT : 0];
+            for (int i = 0; i < cells.length; i++) {
+                cells[i] = (byte) snapshot.getCellColor(i);
+            }
+        } else if (snapshot.sharesBoardWith(base) || !snapshot.isBoardCreated()) {
+            cells = new byte[0];
+        } else {
+            // Una jugada mueve una pieza: casi siempre son dos celdas.
+            byte[] changes = new byte[8];
+            int length = 0;
+            for (int i = 0; i < BoardIndex.CELL_COUNT; i++) {
+                int color = snapshot.getCellColor(i);
+                if (color != base.getCellColor(i)) {
+                    if (length == changes.length) {
+                        changes = Arrays.copyOf(changes, length * 2);
+                    }
+                    changes[length++] = (byte) i;
+                    changes[length++] = (byte) color;
+                }
+            }
+            cells = Arrays.copyOf(changes, length);
+        }
+
+        int moveCount = 0;
+        for (int word = 0; word < BoardIndex.WORDS; word++) {
+            moveCount += Long.bitCount(snapshot.getValidMoves(word));
+        }
+        int[] validMoves = new int[moveCount];
+        int count = 0;
+        for (int word = 0; word < BoardIndex.WORDS; word++) {
+            long moves = snapshot.getValidMoves(word);
+            while (moves != 0) {
+                validMoves[count++] = (word << 6) + Long.numberOfTrailingZeros(moves);
+                moves &= moves - 1;
+            }
+        }
+
+        Player current = snapshot.getCurrentPlayer();
+        boolean playersChanged = base == null || !snapshot.getPlayers().equals(base.getPlayers());
+        return new StateUpdateDTO(
+                version,
+                base == null ? -1 : baseVersion,
+                cells,
+                snapshot.isBoardCreated() ? snapshot.getSelectedCell() : -1,
+                validMoves,
+                current != null ? current.getName() : "Waiting...",
+                current != null ? current.getColor() : "Waiting...",
+                snapshot.getWinner() != null ? snapshot.getWinner().getName() : null,
+                snapshot.isJumpSequence(),
+                playersChanged ? snapshot.copyPlayers() : null,
+                goalDistances(snapshot)
         );
     }
 
+    /**
+     * Arma el DTO que dibuja la vista a partir de la copia del estado que guarda un
+     * cliente: su tablero, ya con las celdas de la actualización aplicadas, y el resto
+     * de los datos de la actualización.
+     *
+     * @param board El color de cada celda, o un arreglo vacío si el tablero no existe.
+     * @param update La última actualización aplicada.
+     * @param players Los jugadores vigentes, de esta actualización o de una anterior.
+     * @return Un DTO equivalente al que produce {@link #toDTO(GameSnapshot)}.
+     */
+    public static GameStateDTO toDTO(byte[] board, StateUpdateDTO update, List<Player> players) {
+        ArrayList<PixelCell> pixelBoard = new ArrayList<>(board.length);
+        for (int i = 0; i < board.length; i++) {
+            Piece piece = board[i] == GameSnapshot.EMPTY ? null : PIECES[board[i]];
+            pixelBoard.add(new PixelCell(BoardService.pixelOf(i), piece));
+        }
+        Set<Coords> validMoves = new HashSet<>();
+        for (int index : update.getValidMoves()) {
+            validMoves.add(BoardService.pixelOf(index));
+        }
+        Coords selectedPixel = update.getSelectedCell() >= 0 ? BoardService.pixelOf(update.getSelectedCell()) : null;
+        return new GameStateDTO(
+                pixelBoard,
+                selectedPixel,
+                validMoves,
+                update.getCurrentPlayerName(),
+                update.getWinnerName(),
+                update.isJumpSequence(),
+                update.getCurrentPlayerColor(),
+                new ArrayList<>(players),
+                update.getGoalDistances()
+        );
+    }
+
+    /**
+     * Distancia a la meta de cada jugador, en el orden de los turnos y por color.
+     */
+    private static Map<String, Integer> goalDistances(GameSnapshot snapshot) {
+        Map<String, Integer> goalDistances = new LinkedHashMap<>();
+        if (snapshot.isBoardCreated()) {
+            for (Player player : snapshot.getPlayers()) {
+                int color = Piece.colorIndex(player.getColor());
+                if (color >= 0) {
+                    goalDistances.put(player.getColor(), snapshot.getGoalDistance(color));
+                }
+            }
+        }
+        return goalDistances;
+    }
+
     /**
      * Crea un DTO vacío para situaciones donde el estado del juego aún no está
      * inicializado, asegurando que la vista no reciba un objeto nulo.
@@ -85,7 +246,8 @@ public class GameStateMapper {
                 null,
                 false,
                 "Waiting for players...",
-                new ArrayList<>()
+                new ArrayList<>(),
+                new LinkedHashMap<>()
         );
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,140 @@
+package Model.Service;
+
+import Model.Entities.Board;
+import Model.Entities.BoardIndex;
+import Model.Entities.Direction;
+
+/**
+ * Generador de alcanzabilidad completa para una pieza: calcula todas las celdas a
+ * las que puede llegar con un paso simple o con cualquier cadena de saltos en
+ * cualquier dirección. El recorrido es un flood fill con un bitset de visitados
+ * y una pila explícita de índices; la celda de origen se considera vacía porque
+ * la pieza la abandona al moverse.
+ * Una instancia reutiliza sus buffers entre llamadas, así que {@link #compute}
+ * no reserva memoria. No es segura para usarse desde varios hilos a la vez:
+ * cada hilo de análisis debe tener la suya.
+ */
+public class JumpReachability {
+    private final int[] stack = new int[BoardIndex.CELL_COUNT];
+    private final int[] parent = new int[BoardIndex.CELL_COUNT];
+    private final long[] steps = new long[BoardIndex.WORDS];
+    private final long[] jumps = new long[BoardIndex.WORDS];
+    private int origin = -1;
+
+    /**
+     * Calcula los destinos alcanzables desde una celda. Los resultados quedan
+     * disponibles en esta instancia hasta la siguiente llamada.
+     * @param board El tablero de juego.
+     * @param from Índice de la celda de la pieza a mover.
+     * @return La cantidad total de destinos (pasos más saltos).
+     */
+    public int compute(Board board, int from) {
+        origin = from;
+        steps[0] = 0;
+        steps[1] = 0;
+        // El origen se marca como visitado para no volver a él, pero no es un destino.
+        long visited0 = from < 64 ? BoardIndex.bit(from) : 0;
+        long visited1 = from < 64 ? 0 : BoardIndex.bit(from);
+        parent[from] = -1;
+
+        for (int d = 0; d < Direction.COUNT; d++) {
+            int neighbor = BoardService.neighbor(from, d);
+            if (board.contains(neighbor) && !board.isOccupied(neighbor)) {
+                steps[BoardIndex.word(neighbor)] |= BoardIndex.bit(neighbor);
+                parent[neighbor] = from;
+            }
+        }
+
+        int top = 0;
+        stack[top++] = from;
+        while (top > 0) {
+            int current = stack[--top];
+            for (int d = 0; d < Direction.COUNT; d++) {
+                int middle = BoardService.neighbor(current, d);
+                int landing = BoardService.jumpLanding(current, d);
+                if (middle < 0 || landing < 0 || !board.contains(landing)) {
+                    continue;
+                }
+                if (middle == from || !board.isOccupied(middle)) {
+                    continue;
+                }
+                if (landing != from && board.isOccupied(landing)) {
+                    continue;
+                }
+                long bit = BoardIndex.bit(landing);
+                if (landing < 64) {
+                    if ((visited0 & bit) != 0) continue;
+                    visited0 |= bit;
+                } else {
+                    if ((visited1 & bit) != 0) continue;
+                    visited1 |= bit;
+                }
+                parent[landing] = current;
+                stack[top++] = landing;
+            }
+        }
+
+        long originBit = BoardIndex.bit(from);
+        jumps[0] = from < 64 ? visited0 & ~originBit : visited0;
+        jumps[1] = from < 64 ? visited1 : visited1 & ~originBit;
+        return Long.bitCount(steps[0] | jumps[0]) + Long.bitCount(steps[1] | jumps[1]);
+    }
+
+    /**
+     * Máscara de todos los destinos del último cálculo.
+     * @param word 0 para las celdas 0..63, 1 para las celdas 64..120.
+     */
+    public long getDestinations(int word) {
+        return steps[word] | jumps[word];
+    }
+
+    /**
+     * Máscara de los destinos alcanzables con un paso simple.
+     */
+    public long getStepDestinations(int word) {
+        return steps[word];
+    }
+
+    /**
+     * Máscara de los destinos alcanzables con al menos un salto.
+     */
+    public long getJumpDestinations(int word) {
+        return jumps[word];
+    }
+
+    public boolean isDestination(int index) {
+        return (getDestinations(BoardIndex.word(index)) & BoardIndex.bit(index)) != 0;
+    }
+
+    /**
+     * Celda desde la que se llega a un destino en el camino encontrado. Sólo es
+     * válida para el origen y para los destinos del último cálculo.
+     * @return El índice anterior en el camino, o -1 para el origen.
+     */
+    public int getParent(int index) {
+        return parent[index];
+    }
+
+    public int getOrigin() {
+        return origin;
+    }
+
+    /**
+     * Reconstruye el camino desde el origen hasta un destino usando la tabla de padres.
+     * @param dest Índice del destino; debe cumplir {@link #isDestination}.
+     * @param path Arreglo de salida con capacidad para {@link BoardIndex#CELL_COUNT} celdas.
+     * @return La longitud del camino escrito en {@code path}, origen y destino incluidos.
+     */
+    public int pathTo(int dest, int[] path) {
+        int length = 0;
+        for (int cell = dest; cell >= 0; cell = parent[cell]) {
+            path[length++] = cell;
+        }
+        for (int i = 0, j = length - 1; i < j; i++, j--) {
+            int tmp = path[i];
+            path[i] = path[j];
+            path[j] = tmp;
+        }
+        return length;
+    }
+}
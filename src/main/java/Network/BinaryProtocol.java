@@ -0,0 +1,309 @@
+package Network;
+
+import DTO.RoomDTO;
+import DTO.StateUpdateDTO;
+import Model.Entities.BoardIndex;
+import Model.Entities.Piece;
+import Model.Entities.Player;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Protocolo binario entre {@link Client} y {@link Server}, alternativo al de líneas
+ * JSON. El cliente lo pide enviando, en lugar de su nombre, los bytes {@link #MAGIC} y
+ * {@link #VERSION}; el servidor responde con una trama {@link #HELLO} con la versión
+ * acordada. Un cliente que empieza con texto usa el protocolo de líneas de siempre.
+ * <p>
+ * Después del saludo todo viaja en tramas: dos bytes con la longitud (big-endian) de
+ * lo que sigue, un byte con el tipo de mensaje y su contenido. Las tramas del servidor
+ * miden a lo sumo {@link #MAX_FRAME_LENGTH} bytes y las del cliente
+ * {@link #MAX_CLIENT_FRAME_LENGTH}; una trama más larga cierra la conexión. Los textos
+ * van como dos bytes de longitud y UTF-8; los colores, como su índice en
+ * {@link Piece#COLORS} (-1 si no hay); las celdas, como su índice en el tablero.
+ * Una conexión binaria recibe siempre el estado como actualizaciones
+ * ({@link StateUpdateDTO}) y confirma cada versión con {@link #ACK}.
+ */
+final class BinaryProtocol {
+    // Primer byte de un cliente binario; no puede empezar un nombre en UTF-8 razonable.
+    static final int MAGIC = 0xCC;
+    static final int VERSION = 1;
+    static final int MAX_FRAME_LENGTH = 0xFFFF;
+    static final int MAX_CLIENT_FRAME_LENGTH = 512;
+
+    // Mensajes del cliente.
+    static final byte NAME = 0x01;
+    static final byte LIST = 0x02;
+    static final byte CREATE = 0x03;
+    static final byte JOIN = 0x04;
+    static final byte WATCH = 0x05;
+    static final byte QUICK_JOIN = 0x06;
+    static final byte CLICK = 0x07;
+    static final byte END_TURN = 0x08;
+    static final byte HINT_REQUEST = 0x09;
+    static final byte ACK = 0x0A;
+    static final byte SYNC = 0x0B;
+
+    // Mensajes del servidor.
+    static final byte HELLO = 0x40;
+    static final byte ROOM_JOINED = 0x41;
+    static final byte COLOR_ASSIGNED = 0x42;
+    static final byte WAITING = 0x43;
+    static final byte GAME_FULL = 0x44;
+    static final byte ERROR = 0x45;
+    static final byte ROOMS = 0x46;
+    static final byte STATE = 0x47;
+    static final byte HINT = 0x48;
+
+    // Bits de la cabecera de STATE.
+    private static final int JUMP_SEQUENCE = 1;
+    private static final int HAS_CURRENT_PLAYER = 1 << 1;
+    private static final int HAS_WINNER = 1 << 2;
+    private static final int HAS_PLAYERS = 1 << 3;
+    private static final int BOARD_CREATED = 1 << 4;
+
+    // Lo que muestra la vista mientras no hay jugador en turno, como en el JSON.
+    private static final String NO_CURRENT_PLAYER = "Waiting...";
+
+    private BinaryProtocol() {
+    }
+
+    /**
+     * Una trama sin contenido.
+     */
+    static byte[] frame(byte type) {
+        return finish(start(0, type));
+    }
+
+    /**
+     * Una trama con un byte de contenido.
+     */
+    static byte[] frame(byte type, int value) {
+        ByteBuffer buffer = start(1, type);
+        buffer.put((byte) value);
+        return finish(buffer);
+    }
+
+    /**
+     * Una trama con un texto de contenido.
+     */
+    static byte[] frame(byte type, String text) {
+        byte[] bytes = utf8(text);
+        ByteBuffer buffer = start(2 + bytes.length, type);
+        buffer.putShort((short) bytes.length).put(bytes);
+        return finish(buffer);
+    }
+
+    /**
+     * Un clic en el tablero, en píxeles del panel.
+     */
+    static byte[] clickFrame(int pixelX, int pixelY) {
+        ByteBuffer buffer = start(4, CLICK);
+        buffer.putShort((short) pixelX).putShort((short) pixelY);
+        return finish(buffer);
+    }
+
+    /**
+     * La confirmación de una versión del estado.
+     */
+    static byte[] ackFrame(long version) {
+        ByteBuffer buffer = start(8, ACK);
+        buffer.putLong(version);
+        return finish(buffer);
+    }
+
+    /**
+     * Una sugerencia: celda de origen, celda de destino, puntaje y profundidad.
+     */
+    static byte[] hintFrame(int from, int to, int score, int depth) {
+        ByteBuffer buffer = start(7, HINT);
+        buffer.put((byte) from).put((byte) to).putInt(score).put((byte) Math.min(depth, Byte.MAX_VALUE));
+        return finish(buffer);
+    }
+
+    /**
+     * La lista de mesas. Si no cabe en una trama se envían sólo las primeras.
+     */
+    static byte[] roomsFrame(List<RoomDTO> rooms) {
+        List<byte[]> ids = new ArrayList<>(rooms.size());
+        int length = 2;
+        for (RoomDTO room : rooms) {
+            byte[] id = utf8(room.getId());
+            int size = 2 + id.length + 7;
+            if (3 + length + size > MAX_FRAME_LENGTH) {
+                break;
+            }
+            ids.add(id);
+            length += size;
+        }
+        ByteBuffer buffer = start(length, ROOMS);
+        buffer.putShort((short) ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            RoomDTO room = rooms.get(i);
+            buffer.putShort((short) ids.get(i).length).put(ids.get(i));
+            buffer.put((byte) room.getPlayers()).put((byte) room.getMaxPlayers())
+                    .putInt(room.getSpectators()).put((byte) (room.isStarted() ? 1 : 0));
+        }
+        return finish(buffer);
+    }
+
+    /**
+     * Una actualización del estado. Un keyframe lleva el tablero como 121 bytes fijos
+     * con el color de cada celda; un delta, la cantidad de celdas cambiadas y los pares
+     * celda-color.
+     */
+    static byte[] stateFrame(StateUpdateDTO update) {
+        byte[] cells = update.getCells();
+        byte[] currentName = update.getCurrentPlayerColor().equals(NO_CURRENT_PLAYER) ? null
+                : utf8(update.getCurrentPlayerName());
+        byte[] winnerName = update.getWinnerName() != null ? utf8(update.getWinnerName()) : null;
+        List<Player> players = update.getPlayers();
+        byte[][] playerNames = new byte[players != null ? players.size() : 0][];
+        // Versión, base, banderas, selección, cantidad de destinos y cantidad de distancias.
+        int length = 8 + 8 + 1 + 1 + 1 + 1 + update.getValidMoves().length + 3 * update.getGoalDistances().size();
+        length += update.isKeyframe() ? cells.length : 1 + cells.length;
+        if (currentName != null) {
+            length += 2 + currentName.length + 1;
+        }
+        if (winnerName != null) {
+            length += 2 + winnerName.length;
+        }
+        if (players != null) {
+            length += 1;
+            for (int i = 0; i < playerNames.length; i++) {
+                playerNames[i] = utf8(players.get(i).getName());
+                length += 2 + playerNames[i].length + 1;
+            }
+        }
+
+        int flags = (update.isJumpSequence() ? JUMP_SEQUENCE : 0)
+                | (currentName != null ? HAS_CURRENT_PLAYER : 0)
+                | (winnerName != null ? HAS_WINNER : 0)
+                | (players != null ? HAS_PLAYERS : 0)
+                | (update.isKeyframe() && cells.length == BoardIndex.CELL_COUNT ? BOARD_CREATED : 0);
+        ByteBuffer buffer = start(length, STATE);
+        buffer.putLong(update.getVersion()).putLong(update.getBaseVersion()).put((byte) flags);
+        if (update.isKeyframe()) {
+            buffer.put(cells);
+        } else {
+            buffer.put((byte) (cells.length / 2)).put(cells);
+        }
+        buffer.put((byte) update.getSelectedCell());
+        buffer.put((byte) update.getValidMoves().length);
+        for (int move : update.getValidMoves()) {
+            buffer.put((byte) move);
+        }
+        if (currentName != null) {
+            buffer.putShort((short) currentName.length).put(currentName);
+            buffer.put((byte) Piece.colorIndex(update.getCurrentPlayerColor()));
+        }
+        if (winnerName != null) {
+            buffer.putShort((short) winnerName.length).put(winnerName);
+        }
+        if (players != null) {
+            buffer.put((byte) players.size());
+            for (int i = 0; i < playerNames.length; i++) {
+                buffer.putShort((short) playerNames[i].length).put(playerNames[i]);
+                buffer.put((byte) Piece.colorIndex(players.get(i).getColor()));
+            }
+        }
+        buffer.put((byte) update.getGoalDistances().size());
+        for (Map.Entry<String, Integer> entry : update.getGoalDistances().entrySet()) {
+            buffer.put((byte) Piece.colorIndex(entry.getKey())).putShort(entry.getValue().shortValue());
+        }
+        return finish(buffer);
+    }
+
+    /**
+     * Lee el contenido de una trama {@link #STATE}.
+     * @throws IllegalArgumentException si la trama está mal formada.
+     */
+    static StateUpdateDTO readState(ByteBuffer payload) {
+        try {
+            long version = payload.getLong();
+            long baseVersion = payload.getLong();
+            int flags = payload.get();
+            byte[] cells;
+            if (baseVersion < 0) {
+                cells = new byte[(flags & BOARD_CREATED) != 0 ? BoardIndex.CELL_COUNT : 0];
+            } else {
+                cells = new byte[2 * Byte.toUnsignedInt(payload.get())];
+            }
+            payload.get(cells);
+            int selectedCell = payload.get();
+            int[] validMoves = new int[Byte.toUnsignedInt(payload.get())];
+            for (int i = 0; i < validMoves.length; i++) {
+                validMoves[i] = payload.get();
+            }
+            String currentName = NO_CURRENT_PLAYER;
+            String currentColor = NO_CURRENT_PLAYER;
+            if ((flags & HAS_CURRENT_PLAYER) != 0) {
+                currentName = getString(payload);
+                currentColor = color(payload.get());
+            }
+            String winnerName = (flags & HAS_WINNER) != 0 ? getString(payload) : null;
+            ArrayList<Player> players = null;
+            if ((flags & HAS_PLAYERS) != 0) {
+                int count = Byte.toUnsignedInt(payload.get());
+                players = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    players.add(new Player(getString(payload), color(payload.get())));
+                }
+            }
+            int distanceCount = Byte.toUnsignedInt(payload.get());
+            Map<String, Integer> goalDistances = new LinkedHashMap<>();
+            for (int i = 0; i < distanceCount; i++) {
+                goalDistances.put(color(payload.get()), (int) payload.getShort());
+            }
+            return new StateUpdateDTO(version, baseVersion, cells, selectedCell, validMoves, currentName,
+                    currentColor, winnerName, (flags & JUMP_SEQUENCE) != 0, players, goalDistances);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated state frame", e);
+        }
+    }
+
+    /**
+     * Lee un texto: dos bytes de longitud y UTF-8.
+     * @throws IllegalArgumentException si la trama termina antes.
+     */
+    static String getString(ByteBuffer payload) {
+        try {
+            byte[] bytes = new byte[Short.toUnsignedInt(payload.getShort())];
+            payload.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated string", e);
+        }
+    }
+
+    /**
+     * El nombre de un color a partir de su índice, o "" si no tiene.
+     */
+    static String color(int index) {
+        return index >= 0 && index < Piece.COLOR_COUNT ? Piece.COLORS[index] : "";
+    }
+
+    private static byte[] utf8(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static ByteBuffer start(int payloadLength, byte type) {
+        int length = 1 + payloadLength;
+        if (length > MAX_FRAME_LENGTH) {
+            throw new IllegalArgumentException("Frame too long: " + length + " bytes");
+        }
+        return ByteBuffer.allocate(2 + length).putShort((short) length).put(type);
+    }
+
+    private static byte[] finish(ByteBuffer buffer) {
+        if (buffer.hasRemaining()) {
+            throw new IllegalStateException("Frame length mismatch");
+        }
+        return buffer.array();
+    }
+}
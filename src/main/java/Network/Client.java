@@ -1,34 +1,52 @@
 package Network;
 
 import View.GameView;
+import DTO.ClickDTO;
 import DTO.GameStateDTO;
+import DTO.HintDTO;
+import DTO.StateUpdateDTO;
+import Model.Service.BoardService;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonSyntaxException;
 import org.javatuples.Pair;
 
 import javax.swing.*;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
+import java.io.DataInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.net.Socket;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
 
 /**
  * Representa el cliente de red del juego. Se ejecuta en un hilo separado para manejar
  * la comunicación con el servidor sin bloquear la interfaz de usuario (UI). Es responsable
  * de enviar las acciones del jugador (clics, fin de turno) al servidor y de recibir
  * las actualizaciones del estado del juego para mostrarlas en la vista (GameView).
+ * Habla el protocolo binario de {@link BinaryProtocol}; con la propiedad
+ * "wire.protocol=json" usa en su lugar el de líneas JSON.
  */
 public class Client extends Thread {
 
     private Socket socket;
     private PrintWriter out;
     private BufferedReader in;
+    // Flujos del protocolo binario; las tramas se escriben con el monitor del cliente.
+    private OutputStream frameOut;
+    private DataInputStream frameIn;
+    private final boolean binary;
     private final GameView gameView;
     private final String playerName;
     private final int playerCount;
     private final Gson gson;
+    // Copia local del estado, a la que se aplican los deltas del servidor.
+    private final RemoteGameState remoteState = new RemoteGameState();
     private boolean connected = false;
 
     /**
@@ -45,16 +63,22 @@ public class Client extends Thread {
         this.playerCount = playerCount;
         this.gameView = gameView;
         this.gson = new GsonBuilder().create();
-
+        this.binary = !"json".equalsIgnoreCase(System.getProperty("wire.protocol", "binary"));
 
         // Configura listeners en la vista para enviar acciones a este cliente.
         this.gameView.setCellClickListener(this::sendClickAction);
         this.gameView.addEndTurnListener(e -> sendEndTurnAction());
+        this.gameView.addHintListener(e -> sendHintRequest());
 
         try {
             this.socket = new Socket(host, port);
-            this.out = new PrintWriter(socket.getOutputStream(), true);
-            this.in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+            if (binary) {
+                this.frameOut = new BufferedOutputStream(socket.getOutputStream());
+                this.frameIn = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            } else {
+                this.out = new PrintWriter(socket.getOutputStream(), true);
+                this.in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+            }
             this.connected = true;
         } catch (IOException e) {
             handleConnectionError(e);
@@ -67,8 +91,11 @@ public class Client extends Thread {
      */
     private void sendClickAction(Pair<Integer, Integer> pixelPos) {
         if (!connected) return;
-        // Objeto simple para serializar los datos del clic.
-        ClickData clickData = new ClickData(pixelPos.getValue0(), pixelPos.getValue1());
+        if (binary) {
+            sendFrame(BinaryProtocol.clickFrame(pixelPos.getValue0(), pixelPos.getValue1()));
+            return;
+        }
+        ClickDTO clickData = new ClickDTO(pixelPos.getValue0(), pixelPos.getValue1());
         String jsonAction = gson.toJson(clickData);
         out.println(jsonAction);
     }
@@ -78,7 +105,35 @@ public class Client extends Thread {
      */
     private void sendEndTurnAction() {
         if (!connected) return;
-        out.println("END_TURN");
+        if (binary) {
+            sendFrame(BinaryProtocol.frame(BinaryProtocol.END_TURN));
+        } else {
+            out.println("END_TURN");
+        }
+    }
+
+    /**
+     * Pide al servidor una sugerencia de movimiento para la posición actual.
+     */
+    private void sendHintRequest() {
+        if (!connected) return;
+        if (binary) {
+            sendFrame(BinaryProtocol.frame(BinaryProtocol.HINT_REQUEST));
+        } else {
+            out.println("HINT");
+        }
+    }
+
+    /**
+     * Escribe una trama completa. La llaman el hilo del cliente y el de la interfaz.
+     */
+    private synchronized void sendFrame(byte[] frame) {
+        try {
+            frameOut.write(frame);
+            frameOut.flush();
+        } catch (IOException e) {
+            System.err.println("Could not send frame: " + e.getMessage());
+        }
     }
 
     /**
@@ -90,38 +145,10 @@ public class Client extends Thread {
     @Override
     public void run() {
         try {
-            // 1. Enviar nombre y cantidad de jugadores al servidor para el registro.
-            out.println(playerName);
-            out.println(playerCount);
-
-            String serverLine;
-            while ((serverLine = in.readLine()) != null) {
-                final String line = serverLine;
-
-                // Manejo de mensajes simples de texto (no JSON).
-                if (line.startsWith("COLOR_ASSIGNED:")) {
-                    String color = line.split(":")[1];
-                    SwingUtilities.invokeLater(() -> gameView.setPlayerColor(color));
-                    continue;
-                }
-
-                if ("ESPERANDO_JUGADORES".equals(line)) {
-                    SwingUtilities.invokeLater(() -> gameView.showWaitingMessage());
-                    continue;
-                }
-
-                // El resto de mensajes se asume que son JSON con el estado del juego.
-                // Se usa SwingUtilities.invokeLater para actualizar la UI de forma segura.
-                SwingUtilities.invokeLater(() -> {
-                    try {
-                        GameStateDTO gameStateDTO = gson.fromJson(line, GameStateDTO.class);
-                        if (gameStateDTO != null) {
-                            gameView.updateView(gameStateDTO);
-                        }
-                    } catch (JsonSyntaxException e) {
-                        System.err.println("Received non-JSON or malformed JSON message: " + line);
-                    }
-                });
+            if (binary) {
+                readFrames();
+            } else {
+                readLines();
             }
         } catch (IOException e) {
             System.out.println("Disconnected from server.");
@@ -135,6 +162,174 @@ public class Client extends Thread {
         }
     }
 
+    /**
+     * Atiende el protocolo de líneas: mensajes simples de texto y JSON.
+     */
+    private void readLines() throws IOException {
+        // 1. Enviar nombre y cantidad de jugadores al servidor, que nos sienta en una mesa
+        //    de esa cantidad que esté esperando jugadores o en una nueva. Antes se pide
+        //    recibir el estado como deltas.
+        out.println(playerName);
+        out.println("DELTAS");
+        out.println(playerCount);
+
+        String serverLine;
+        while ((serverLine = in.readLine()) != null) {
+            final String line = serverLine;
+
+            // Manejo de mensajes simples de texto (no JSON).
+            if (line.startsWith("COLOR_ASSIGNED:")) {
+                String color = line.split(":")[1];
+                SwingUtilities.invokeLater(() -> gameView.setPlayerColor(color));
+                continue;
+            }
+
+            if (line.startsWith("ROOM_JOINED:")) {
+                String roomId = line.substring("ROOM_JOINED:".length());
+                SwingUtilities.invokeLater(() -> gameView.setRoomId(roomId));
+                continue;
+            }
+
+            if (line.startsWith("ERROR:")) {
+                System.err.println("Server error: " + line.substring("ERROR:".length()));
+                continue;
+            }
+
+            if (line.startsWith("HINT:")) {
+                try {
+                    HintDTO hint = gson.fromJson(line.substring("HINT:".length()), HintDTO.class);
+                    if (hint != null) {
+                        SwingUtilities.invokeLater(() -> gameView.showHint(hint));
+                    }
+                } catch (JsonSyntaxException e) {
+                    System.err.println("Malformed hint received: " + line);
+                }
+                continue;
+            }
+
+            if (line.startsWith("STATE:")) {
+                applyStateUpdate(line);
+                continue;
+            }
+
+            if ("ESPERANDO_JUGADORES".equals(line)) {
+                SwingUtilities.invokeLater(() -> gameView.showWaitingMessage());
+                continue;
+            }
+
+            // El resto de mensajes se asume que son JSON con el estado del juego.
+            // Se usa SwingUtilities.invokeLater para actualizar la UI de forma segura.
+            SwingUtilities.invokeLater(() -> {
+                try {
+                    GameStateDTO gameStateDTO = gson.fromJson(line, GameStateDTO.class);
+                    if (gameStateDTO != null) {
+                        gameView.updateView(gameStateDTO);
+                    }
+                } catch (JsonSyntaxException e) {
+                    System.err.println("Received non-JSON or malformed JSON message: " + line);
+                }
+            });
+        }
+    }
+
+    /**
+     * Atiende el protocolo binario: el saludo y después una trama tras otra. El tipo de
+     * cada trama está en su primer byte, así que no hay texto que interpretar.
+     */
+    private void readFrames() throws IOException {
+        synchronized (this) {
+            frameOut.write(BinaryProtocol.MAGIC);
+            frameOut.write(BinaryProtocol.VERSION);
+        }
+        String name = playerName.length() > Server.MAX_NAME_LENGTH
+                ? playerName.substring(0, Server.MAX_NAME_LENGTH) : playerName;
+        sendFrame(BinaryProtocol.frame(BinaryProtocol.NAME, name));
+        sendFrame(BinaryProtocol.frame(BinaryProtocol.QUICK_JOIN, playerCount));
+
+        while (true) {
+            int length = frameIn.readUnsignedShort();
+            if (length == 0) {
+                throw new IOException("Empty frame received from server");
+            }
+            byte[] frame = new byte[length];
+            frameIn.readFully(frame);
+            try {
+                handleFrame(frame[0], ByteBuffer.wrap(frame, 1, length - 1));
+            } catch (BufferUnderflowException | IllegalArgumentException e) {
+                System.err.println("Malformed frame of type " + frame[0] + " received from server.");
+            }
+        }
+    }
+
+    private void handleFrame(byte type, ByteBuffer payload) {
+        switch (type) {
+            case BinaryProtocol.HELLO -> {
+                int version = payload.get();
+                if (version != BinaryProtocol.VERSION) {
+                    System.err.println("Server answered with protocol version " + version + ".");
+                }
+            }
+            case BinaryProtocol.ROOM_JOINED -> {
+                String roomId = BinaryProtocol.getString(payload);
+                SwingUtilities.invokeLater(() -> gameView.setRoomId(roomId));
+            }
+            case BinaryProtocol.COLOR_ASSIGNED -> {
+                String color = BinaryProtocol.color(payload.get());
+                SwingUtilities.invokeLater(() -> gameView.setPlayerColor(color));
+            }
+            case BinaryProtocol.WAITING -> SwingUtilities.invokeLater(() -> gameView.showWaitingMessage());
+            case BinaryProtocol.GAME_FULL -> System.err.println("Server error: GAME_FULL");
+            case BinaryProtocol.ERROR -> System.err.println("Server error: " + BinaryProtocol.getString(payload));
+            case BinaryProtocol.STATE -> applyStateUpdate(BinaryProtocol.readState(payload));
+            case BinaryProtocol.HINT -> {
+                int from = payload.get();
+                int to = payload.get();
+                int score = payload.getInt();
+                int depth = payload.get();
+                HintDTO hint = new HintDTO(BoardService.pixelOf(from), BoardService.pixelOf(to), score, depth);
+                SwingUtilities.invokeLater(() -> gameView.showHint(hint));
+            }
+            default -> {
+                // Mensajes que este cliente no usa, como la lista de mesas.
+            }
+        }
+    }
+
+    /**
+     * Lee una actualización "STATE:" del protocolo de líneas y la aplica.
+     */
+    private void applyStateUpdate(String line) {
+        StateUpdateDTO update = null;
+        try {
+            update = gson.fromJson(line.substring("STATE:".length()), StateUpdateDTO.class);
+        } catch (JsonSyntaxException e) {
+            System.err.println("Malformed state update received: " + line);
+        }
+        applyStateUpdate(update);
+    }
+
+    /**
+     * Aplica un keyframe o un delta a la copia local del estado, confirma su versión al
+     * servidor y muestra el resultado. Si el delta no se puede aplicar, pide un keyframe.
+     */
+    private void applyStateUpdate(StateUpdateDTO update) {
+        GameStateDTO gameStateDTO = update != null ? remoteState.apply(update) : null;
+        if (gameStateDTO == null) {
+            if (binary) {
+                sendFrame(BinaryProtocol.frame(BinaryProtocol.SYNC));
+            } else {
+                out.println("SYNC");
+            }
+            return;
+        }
+        if (binary) {
+            sendFrame(BinaryProtocol.ackFrame(update.getVersion()));
+        } else {
+            out.println("ACK:" + update.getVersion());
+        }
+        SwingUtilities.invokeLater(() -> gameView.updateView(gameStateDTO));
+    }
+
     /**
      * Maneja errores de conexión inicial, mostrando un diálogo de error al usuario.
      */
@@ -158,7 +353,4 @@ public class Client extends Thread {
             e.printStackTrace();
         }
     }
-    // Record simple para serializar los datos de un clic.
-        private record ClickData(int value0, int value1) {
-    }
 }
\ No newline at end of file
@@ -0,0 +1,58 @@
+package Network;
+
+import Model.Entities.Player;
+
+/**
+ * Una conexión de un cliente con el servidor, independiente de cómo se haga la E/S
+ * (un hilo bloqueante por cliente o un bucle de eventos con Selector). El protocolo
+ * es de líneas de texto: el cliente envía su nombre y después un mensaje por línea,
+ * primero comandos del lobby y, una vez en una mesa, acciones; el servidor responde
+ * con una línea por mensaje. Los clientes binarios intercambian en su lugar tramas
+ * de {@link BinaryProtocol}.
+ */
+interface Connection {
+
+    /**
+     * Envía una línea al cliente. Puede llamarse desde cualquier hilo.
+     */
+    void sendMessage(String message);
+
+    /**
+     * Cierra la conexión y la quita del servidor. Llamarlo más de una vez no tiene efecto.
+     */
+    void close();
+
+    /**
+     * El jugador de esta conexión, o null hasta que envía su nombre. Tiene color sólo si está sentado en una mesa.
+     */
+    Player getPlayer();
+
+    void setPlayer(Player player);
+
+    /**
+     * La mesa a la que el servidor enruta los mensajes de esta conexión, o null mientras está en el lobby.
+     */
+    Room getRoom();
+
+    void setRoom(Room room);
+
+    /**
+     * El cliente pidió con "DELTAS" recibir el estado como actualizaciones con versión
+     * en lugar del GameStateDTO completo.
+     */
+    boolean isDeltaUpdates();
+
+    void setDeltaUpdates(boolean deltaUpdates);
+
+    /**
+     * El cliente habla el protocolo de {@link BinaryProtocol}: se le envían tramas con
+     * {@link #sendFrame(byte[])} en lugar de líneas.
+     */
+    boolean isBinary();
+
+    /**
+     * Envía una trama ya codificada, con su longitud. Puede llamarse desde cualquier
+     * hilo; el arreglo no se modifica y puede compartirse entre conexiones.
+     */
+    void sendFrame(byte[] frame);
+}
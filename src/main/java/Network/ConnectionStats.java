@@ -0,0 +1,52 @@
+package Network;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contadores de las conexiones del servidor: abiertas, aceptadas en total y bytes
+ * recibidos y enviados. Los actualizan los hilos de E/S sin bloquearse entre sí.
+ */
+public class ConnectionStats {
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder closed = new LongAdder();
+    private final LongAdder bytesIn = new LongAdder();
+    private final LongAdder bytesOut = new LongAdder();
+
+    void connectionOpened() {
+        accepted.increment();
+    }
+
+    void connectionClosed() {
+        closed.increment();
+    }
+
+    void addBytesIn(long bytes) {
+        bytesIn.add(bytes);
+    }
+
+    void addBytesOut(long bytes) {
+        bytesOut.add(bytes);
+    }
+
+    public long getOpenConnections() {
+        return accepted.sum() - closed.sum();
+    }
+
+    public long getAcceptedConnections() {
+        return accepted.sum();
+    }
+
+    public long getBytesIn() {
+        return bytesIn.sum();
+    }
+
+    public long getBytesOut() {
+        return bytesOut.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "connections " + getOpenConnections() + " open / " + getAcceptedConnections() + " accepted, "
+                + getBytesIn() + " bytes in, " + getBytesOut() + " bytes out";
+    }
+}
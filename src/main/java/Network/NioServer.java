@@ -0,0 +1,490 @@
+package Network;
+
+import Model.Entities.Player;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Transporte no bloqueante del servidor: un hilo acepta conexiones y las reparte
+ * entre unos pocos bucles de eventos, cada uno con su {@link Selector}. Usa los mismos
+ * protocolos que {@link Client}, de líneas o binario, así que los clientes no notan la diferencia.
+ * Para que miles de conexiones inactivas ocupen poca memoria, el búfer de lectura es
+ * uno por bucle; una conexión sólo guarda bytes propios mientras tiene una línea a
+ * medio recibir o mensajes pendientes de enviar. Un mismo mensaje difundido a todos
+ * los clientes se codifica una sola vez y se comparte.
+ * Los mensajes recibidos se entregan al servidor desde el hilo del bucle, y los envíos
+ * sólo encolan, así que ningún bucle queda bloqueado en un socket.
+ */
+class NioServer {
+    private static final int READ_BUFFER_BYTES = 64 * 1024;
+    // Líneas más largas que esto se desconectan, como los clientes que no leen lo que se les
+    // envía (Server.MAX_PENDING_BYTES).
+    private static final int MAX_LINE_BYTES = 64 * 1024;
+    // Un búfer de línea parcial mayor que esto se libera en cuanto se completa la línea.
+    private static final int RETAINED_PARTIAL_BYTES = 1024;
+    private static final int ACCEPT_BACKLOG = 1024;
+
+    private final Server server;
+    private final ConnectionStats stats;
+    private final EventLoop[] loops;
+
+    /**
+     * Crea y arranca los bucles de eventos.
+     * @param server El servidor al que se entregan las conexiones y los mensajes.
+     * @param stats Contadores a actualizar.
+     * @param loopCount Cantidad de hilos de E/S.
+     */
+    NioServer(Server server, ConnectionStats stats, int loopCount) throws IOException {
+        this.server = server;
+        this.stats = stats;
+        this.loops = new EventLoop[loopCount];
+        for (int i = 0; i < loopCount; i++) {
+            loops[i] = new EventLoop();
+            Thread thread = new Thread(loops[i], "nio-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * Acepta conexiones en el puerto indicado hasta que falle el socket del servidor.
+     * Bloquea el hilo que lo llama.
+     */
+    void listen(int port) throws IOException {
+        try (ServerSocketChannel acceptor = ServerSocketChannel.open()) {
+            acceptor.bind(new InetSocketAddress(port), ACCEPT_BACKLOG);
+            System.out.println("Server is listening on port " + port + " (NIO, " + loops.length + " event loops)");
+            int next = 0;
+            while (true) {
+                SocketChannel channel = acceptor.accept();
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                EventLoop loop = loops[next];
+                next = (next + 1) % loops.length;
+                NioConnection connection = new NioConnection(channel, loop);
+                stats.connectionOpened();
+                // El registro se encola antes que cualquier envío, así que se hace primero.
+                loop.execute(connection::register);
+            }
+        }
+    }
+
+    /**
+     * Codifica un mensaje como una línea UTF-8. Devuelve una vista propia de los bytes
+     * compartidos, porque cada conexión avanza su posición al escribirlos.
+     */
+    private ByteBuffer encode(String message) {
+        return ByteBuffer.wrap(server.encodeLine(message)).asReadOnlyBuffer();
+    }
+
+    /**
+     * Un hilo de E/S con su selector, su búfer de lectura y una cola de tareas que
+     * otros hilos usan para pedirle registros, envíos y cierres.
+     */
+    private final class EventLoop implements Runnable {
+        private final Selector selector;
+        private final ConcurrentLinkedQueue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(READ_BUFFER_BYTES);
+
+        EventLoop() throws IOException {
+            this.selector = Selector.open();
+        }
+
+        void execute(Runnable task) {
+            tasks.add(task);
+            selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (true) {
+                    selector.select();
+                    Runnable task;
+                    while ((task = tasks.poll()) != null) {
+                        try {
+                            task.run();
+                        } catch (RuntimeException e) {
+                            System.err.println("NIO task failed: " + e.getMessage());
+                        }
+                    }
+                    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        SelectionKey key = keys.next();
+                        keys.remove();
+                        NioConnection connection = (NioConnection) key.attachment();
+                        try {
+                            if (key.isValid() && key.isReadable()) {
+                                connection.read(readBuffer);
+                            }
+                            if (key.isValid() && key.isWritable()) {
+                                connection.flush();
+                            }
+                        } catch (RuntimeException e) {
+                            System.err.println("NIO connection failed: " + e.getMessage());
+                            connection.close();
+                        }
+                    }
+                }
+            } catch (IOException | ClosedSelectorException e) {
+                System.err.println("NIO event loop stopped: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Una conexión no bloqueante. La lectura, el registro y el cierre del canal sólo
+     * ocurren en el hilo de su bucle; los envíos pueden llegar desde cualquier hilo.
+     */
+    private final class NioConnection implements Connection {
+        private final SocketChannel channel;
+        private final EventLoop loop;
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private SelectionKey key;
+        private volatile Player player;
+        private volatile Room room;
+        private volatile boolean deltaUpdates;
+        private volatile boolean binary;
+
+        // Estado de lectura, sólo del hilo del bucle.
+        private byte[] partial;
+        private int partialLength;
+        // Ya se leyó el primer byte, que decide el protocolo.
+        private boolean protocolKnown;
+        // Un cliente binario ya envió la versión que pide.
+        private boolean versionReceived;
+
+        // Envíos pendientes, protegidos por el monitor de la conexión.
+        private ArrayDeque<ByteBuffer> pending;
+        private int pendingBytes;
+        // Hay una escritura encolada en el bucle o a la espera de OP_WRITE.
+        private boolean flushScheduled;
+
+        NioConnection(SocketChannel channel, EventLoop loop) {
+            this.channel = channel;
+            this.loop = loop;
+        }
+
+        void register() {
+            if (closed.get()) {
+                return;
+            }
+            try {
+                key = channel.register(loop.selector, SelectionKey.OP_READ, this);
+            } catch (IOException e) {
+                close();
+            }
+        }
+
+        @Override
+        public void sendMessage(String message) {
+            if (closed.get()) {
+                return;
+            }
+            enqueue(encode(message));
+        }
+
+        @Override
+        public void sendFrame(byte[] frame) {
+            if (closed.get()) {
+                return;
+            }
+            enqueue(ByteBuffer.wrap(frame).asReadOnlyBuffer());
+        }
+
+        private void enqueue(ByteBuffer bytes) {
+            boolean overflow;
+            synchronized (this) {
+                if (pending == null) {
+                    pending = new ArrayDeque<>(4);
+                }
+                pending.add(bytes);
+                pendingBytes += bytes.remaining();
+                overflow = pendingBytes > Server.MAX_PENDING_BYTES;
+                if (!overflow && flushScheduled) {
+                    return;
+                }
+                flushScheduled = true;
+            }
+            if (overflow) {
+                System.err.println("Client is not reading, closing connection.");
+                // Quien encola puede tener tomado el lock de una mesa; el cierre va aparte.
+                loop.execute(this::close);
+                return;
+            }
+            loop.execute(this::flush);
+        }
+
+        /**
+         * Escribe todo lo que el socket acepte sin bloquear. Si queda algo, espera a
+         * OP_WRITE para seguir.
+         */
+        void flush() {
+            if (key == null || !key.isValid()) {
+                return;
+            }
+            try {
+                while (true) {
+                    ByteBuffer head;
+                    synchronized (this) {
+                        head = pending == null ? null : pending.peek();
+                        if (head == null) {
+                            flushScheduled = false;
+                            pending = null;
+                            key.interestOps(SelectionKey.OP_READ);
+                            return;
+                        }
+                    }
+                    int written = channel.write(head);
+                    stats.addBytesOut(written);
+                    if (head.hasRemaining()) {
+                        key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                        return;
+                    }
+                    synchronized (this) {
+                        pending.poll();
+                        pendingBytes -= head.limit();
+                    }
+                }
+            } catch (IOException e) {
+                close();
+            }
+        }
+
+        /**
+         * Lee lo disponible y entrega cada línea completa al servidor.
+         */
+        void read(ByteBuffer buffer) {
+            buffer.clear();
+            int read;
+            try {
+                read = channel.read(buffer);
+            } catch (IOException e) {
+                read = -1;
+            }
+            if (read < 0) {
+                System.out.println("Connection lost with " + (player != null ? player.getName() : "client"));
+                close();
+                return;
+            }
+            stats.addBytesIn(read);
+            buffer.flip();
+            if (!protocolKnown && buffer.hasRemaining()) {
+                protocolKnown = true;
+                binary = Byte.toUnsignedInt(buffer.get(0)) == BinaryProtocol.MAGIC;
+            }
+            if (binary) {
+                readFrames(buffer);
+                return;
+            }
+            int start = 0;
+            for (int i = 0; i < buffer.limit(); i++) {
+                if (buffer.get(i) != '\n') continue;
+                String line = line(buffer, start, i - start);
+                start = i + 1;
+                deliver(line);
+                if (closed.get()) return;
+            }
+            int leftover = buffer.limit() - start;
+            if (leftover > 0) {
+                if (partialLength + leftover > MAX_LINE_BYTES) {
+                    System.err.println("Line too long from client, closing connection.");
+                    close();
+                    return;
+                }
+                ensurePartial(partialLength + leftover);
+                buffer.get(start, partial, partialLength, leftover);
+                partialLength += leftover;
+            }
+        }
+
+        /**
+         * Entrega cada trama completa al servidor. Lo que quede de una trama a medio
+         * recibir se guarda, antepuesto a la próxima lectura.
+         */
+        private void readFrames(ByteBuffer buffer) {
+            ByteBuffer data = buffer;
+            if (partialLength > 0) {
+                int total = partialLength + buffer.remaining();
+                ensurePartial(total);
+                buffer.get(partial, partialLength, buffer.remaining());
+                data = ByteBuffer.wrap(partial, 0, total);
+                partialLength = 0;
+            }
+            while (!closed.get()) {
+                if (!versionReceived) {
+                    if (data.remaining() < 2) {
+                        break;
+                    }
+                    data.get();
+                    versionReceived = true;
+                    if (!server.startBinary(Byte.toUnsignedInt(data.get()), this)) {
+                        close();
+                        return;
+                    }
+                    continue;
+                }
+                if (data.remaining() < 2) {
+                    break;
+                }
+                int length = Short.toUnsignedInt(data.getShort(data.position()));
+                if (length == 0 || length > BinaryProtocol.MAX_CLIENT_FRAME_LENGTH) {
+                    System.err.println("Invalid frame length " + length + " from client, closing connection.");
+                    close();
+                    return;
+                }
+                if (data.remaining() < 2 + length) {
+                    break;
+                }
+                int payload = data.position() + 3;
+                byte type = data.get(data.position() + 2);
+                data.position(payload + length - 1);
+                if (!server.handleFrame(type, data.slice(payload, length - 1), this)) {
+                    close();
+                    return;
+                }
+            }
+            int leftover = data.remaining();
+            if (leftover == 0 || closed.get()) {
+                if (partial != null && partial.length > RETAINED_PARTIAL_BYTES) {
+                    partial = null;
+                }
+                return;
+            }
+            // Lo que queda es menos que una trama del cliente; no hace falta retener un búfer grande.
+            byte[] rest = partial != null && partial.length >= leftover && partial.length <= RETAINED_PARTIAL_BYTES
+                    ? partial : new byte[Math.max(leftover, 256)];
+            data.get(data.position(), rest, 0, leftover);
+            partial = rest;
+            partialLength = leftover;
+        }
+
+        private void ensurePartial(int capacity) {
+            if (partial == null || partial.length < capacity) {
+                byte[] grown = new byte[Math.max(capacity, partial == null ? 256 : partial.length * 2)];
+                if (partial != null) {
+                    System.arraycopy(partial, 0, grown, 0, partialLength);
+                }
+                partial = grown;
+            }
+        }
+
+        /**
+         * Decodifica una línea que termina en el búfer, precedida por lo que hubiera
+         * quedado de lecturas anteriores.
+         */
+        private String line(ByteBuffer buffer, int start, int length) {
+            String line;
+            if (partialLength == 0) {
+                byte[] bytes = new byte[length];
+                buffer.get(start, bytes);
+                line = new String(bytes, StandardCharsets.UTF_8);
+            } else {
+                ensurePartial(partialLength + length);
+                buffer.get(start, partial, partialLength, length);
+                line = new String(partial, 0, partialLength + length, StandardCharsets.UTF_8);
+                partialLength = 0;
+                if (partial.length > RETAINED_PARTIAL_BYTES) {
+                    partial = null;
+                }
+            }
+            return line.endsWith("\r") ? line.substring(0, line.length() - 1) : line;
+        }
+
+        /**
+         * La primera línea es el nombre; el resto, mensajes para el lobby o la mesa.
+         */
+        private void deliver(String line) {
+            if (player != null) {
+                server.handleClientMessage(line, this);
+            } else if (line.trim().isEmpty()) {
+                System.err.println("Client connected without a name. Closing connection.");
+                close();
+            } else {
+                server.register(line.trim(), this);
+            }
+        }
+
+        @Override
+        public void close() {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            stats.connectionClosed();
+            server.removeClient(this);
+            loop.execute(() -> {
+                // Último intento de enviar lo pendiente (por ejemplo GAME_FULL) antes de cerrar.
+                synchronized (this) {
+                    if (pending != null) {
+                        try {
+                            for (ByteBuffer bytes : pending) {
+                                channel.write(bytes);
+                                if (bytes.hasRemaining()) break;
+                            }
+                        } catch (IOException ignored) {
+                            // El canal se cierra de todos modos.
+                        }
+                        pending = null;
+                    }
+                }
+                if (key != null) {
+                    key.cancel();
+                }
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    System.err.println("Error closing connection: " + e.getMessage());
+                }
+                partial = null;
+            });
+        }
+
+        @Override
+        public Player getPlayer() {
+            return player;
+        }
+
+        @Override
+        public void setPlayer(Player player) {
+            this.player = player;
+        }
+
+        @Override
+        public Room getRoom() {
+            return room;
+        }
+
+        @Override
+        public void setRoom(Room room) {
+            this.room = room;
+        }
+
+        @Override
+        public boolean isDeltaUpdates() {
+            return deltaUpdates;
+        }
+
+        @Override
+        public boolean isBinary() {
+            return binary;
+        }
+
+        @Override
+        public void setDeltaUpdates(boolean deltaUpdates) {
+            this.deltaUpdates = deltaUpdates;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package Network;
+
+import DTO.GameStateDTO;
+import DTO.StateUpdateDTO;
+import Model.Entities.BoardIndex;
+import Model.Entities.Player;
+import Model.Entities.Piece;
+import Model.Service.GameStateMapper;
+
+import java.util.List;
+
+/**
+ * La copia del estado de la mesa que guarda un {@link Client} que recibe deltas.
+ * Conserva los tableros de las últimas versiones recibidas y no sólo el último,
+ * porque el servidor calcula cada delta desde la última versión que el cliente
+ * confirmó, que puede ser anterior a la última que recibió si la confirmación aún
+ * no llegó. Sólo la usa el hilo que lee del servidor.
+ */
+class RemoteGameState {
+
+    /**
+     * Un estado recibido: su tablero y sus jugadores. Los tableros no se modifican
+     * una vez guardados, así que versiones sin movimientos comparten el arreglo.
+     */
+    private static final class Version {
+        private final long version;
+        private final byte[] board;
+        private final List<Player> players;
+
+        private Version(long version, byte[] board, List<Player> players) {
+            this.version = version;
+            this.board = board;
+            this.players = players;
+        }
+    }
+
+    private final Version[] history = new Version[Room.STATE_HISTORY];
+
+    /**
+     * Aplica una actualización del servidor y guarda el estado resultante.
+     * @param update Un keyframe o un delta.
+     * @return El DTO para la vista, o null si la actualización es inválida o su base ya
+     *         no está en el historial; en ese caso hay que pedir un keyframe.
+     */
+    GameStateDTO apply(StateUpdateDTO update) {
+        byte[] cells = update.getCells() != null ? update.getCells() : new byte[0];
+        byte[] board;
+        List<Player> players = update.getPlayers();
+        if (update.isKeyframe()) {
+            if (cells.length != 0 && cells.length != BoardIndex.CELL_COUNT) {
+                return null;
+            }
+            board = cells.clone();
+            if (players == null) {
+                players = List.of();
+            }
+        } else {
+            Version base = find(update.getBaseVersion());
+            if (base == null || cells.length % 2 != 0) {
+                return null;
+            }
+            board = cells.length == 0 ? base.board : base.board.clone();
+            for (int i = 0; i < cells.length; i += 2) {
+                int index = cells[i];
+                int color = cells[i + 1];
+                if (index < 0 || index >= board.length || color < -1 || color >= Piece.COLOR_COUNT) {
+                    return null;
+                }
+                board[index] = (byte) color;
+            }
+            if (players == null) {
+                players = base.players;
+            }
+        }
+        history[slot(update.getVersion())] = new Version(update.getVersion(), board, players);
+        return GameStateMapper.toDTO(board, update, players);
+    }
+
+    private Version find(long version) {
+        Version entry = history[slot(version)];
+        return entry != null && entry.version == version ? entry : null;
+    }
+
+    private static int slot(long version) {
+        return (int) Math.floorMod(version, (long) Room.STATE_HISTORY);
+    }
+}
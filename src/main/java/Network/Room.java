@@ -0,0 +1,688 @@
+package Network;
+
+import Controller.GameController;
+import Controller.GameStatsController;
+import DTO.ClickDTO;
+import DTO.RoomDTO;
+import DTO.StateUpdateDTO;
+import Model.AI.BotPlayer;
+import Model.AI.EndgameTable;
+import Model.AI.HintService;
+import Model.AI.MonteCarloBudget;
+import Model.AI.MonteCarloSearch;
+import Model.AI.ParanoidSearch;
+import Model.AI.SearchResult;
+import Model.AI.TranspositionTable;
+import Model.Entities.GameSnapshot;
+import Model.Entities.Move;
+import Model.Entities.Player;
+import Model.Service.GameSession;
+import Model.Service.GameStateMapper;
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Una mesa del servidor: una partida independiente, con su propia sesión, sus
+ * jugadores, sus espectadores y sus bots. El {@link Server} le entrega ya enrutados
+ * los mensajes de sus conexiones, y ella difunde su estado sólo a ellas.
+ * Cada mesa protege su estado con su propio {@link ReentrantLock}, así las mesas no
+ * se esperan entre sí. Los envíos se hacen con él tomado, lo que mantiene el orden de
+ * los estados, pero sólo encolan en la conexión, que escribe desde su propio hilo: un
+ * socket lento no detiene la mesa ni fija un hilo virtual a su portador.
+ * <p>
+ * Las conexiones que enviaron "DELTAS" reciben el estado como "STATE:" seguido de un
+ * {@link DTO.StateUpdateDTO}: un keyframe con el tablero entero al entrar o cuando
+ * lo piden con "SYNC", y después deltas con sólo las celdas que cambiaron desde la
+ * última versión que confirmaron con "ACK:versión". Las demás siguen recibiendo el
+ * GameStateDTO completo en cada cambio.
+ */
+class Room implements GameController.GameStateUpdateCallback {
+    // Versiones difundidas que se conservan como base de los deltas; un cliente que no
+    // confirmó ninguna de ellas recibe un keyframe.
+    static final int STATE_HISTORY = 64;
+    // Desde cuántos jugadores los bots usan MCTS en lugar de alfa-beta.
+    private static final int MONTE_CARLO_MIN_PLAYERS = 4;
+    // Espera antes de reintentar el turno de un bot MCTS cuando no hay búsquedas libres.
+    private static final long BOT_RETRY_MILLIS = 20;
+
+    private final GameSession session;
+    private final GameController gameController;
+    private final int maxPlayers;
+    // Segundos de espera antes de completar la mesa con bots; negativo para no hacerlo.
+    private final int botFillSeconds;
+    // Hilos donde piensan los bots de todas las mesas, fuera de sus locks.
+    private final ScheduledExecutorService botExecutor;
+    // Hilos y árboles MCTS de todas las mesas.
+    private final MonteCarloBudget monteCarloBudget;
+    // Tabla de transposiciones de los bots alfa-beta y las sugerencias de todas las mesas.
+    private final TranspositionTable botTable;
+    private final EndgameTable endgameTable;
+    private final GameStatsController statsController;
+    private final Gson gson;
+    // Jugadores y espectadores de la mesa: quienes reciben sus difusiones.
+    private final List<Connection> connections = new CopyOnWriteArrayList<>();
+
+    // Protege el estado de la mesa, de sus bots y de la difusión.
+    private final ReentrantLock lock = new ReentrantLock();
+    // Clave del último estado difundido, para no reenviar un estado sin cambios.
+    private long lastBroadcastKey;
+    // Versión del último estado difundido; 0 antes de la primera difusión.
+    private long stateVersion;
+    // Las últimas instantáneas difundidas, en la posición versión % STATE_HISTORY.
+    private final GameSnapshot[] sentStates = new GameSnapshot[STATE_HISTORY];
+    // El último estado difundido como GameStateDTO en JSON, hecho la primera vez que se necesita.
+    private String lastStateJson;
+    // Actualizaciones del último estado difundido por versión base (-1 para el keyframe),
+    // hechas la primera vez que se necesitan.
+    private final Map<Long, EncodedUpdate> encodedUpdates = new HashMap<>();
+    // Última versión confirmada por cada conexión que recibe deltas, o -1 si debe recibir
+    // un keyframe. Se escribe sin el lock al llegar las confirmaciones.
+    private final Map<Connection, Long> deltaAcks = new ConcurrentHashMap<>();
+    // Jugadores de la computadora, indexados por su jugador en la partida.
+    private final Map<Player, BotPlayer> bots = new HashMap<>();
+    // Hay un turno de bot calculándose o aplicándose.
+    private boolean botTurnPending = false;
+    // Sugerencias de movimiento; se crea con la primera petición.
+    private HintService hintService;
+
+    // Se escriben con el lock tomado y se leen sin él para listar la mesa.
+    private volatile int seated;
+    private volatile int spectators;
+    private volatile boolean started;
+    private volatile boolean closed;
+
+    /**
+     * @param session La sesión de la partida de esta mesa.
+     * @param maxPlayers Asientos de la mesa; la partida se crea al ocuparse todos.
+     * @param botFillSeconds Segundos desde el primer jugador hasta completar con bots, o -1.
+     * @param botExecutor Hilos compartidos donde piensan los bots y se calculan las sugerencias.
+     * @param monteCarloBudget Hilos y árboles compartidos de los bots MCTS.
+     * @param botTable Tabla de transposiciones compartida de los bots alfa-beta y las sugerencias.
+     * @param endgameTable Tabla de finales para los bots y las sugerencias, o null.
+     * @param statsController Dónde guardar las estadísticas de las partidas terminadas.
+     * @param gson Serializador compartido de los mensajes.
+     */
+    Room(GameSession session, int maxPlayers, int botFillSeconds, ScheduledExecutorService botExecutor,
+         MonteCarloBudget monteCarloBudget, TranspositionTable botTable, EndgameTable endgameTable,
+         GameStatsController statsController, Gson gson) {
+        this.session = session;
+        this.gameController = new GameController(session);
+        this.gameController.setUpdateCallback(this);
+        this.maxPlayers = maxPlayers;
+        this.botFillSeconds = botFillSeconds;
+        this.botExecutor = botExecutor;
+        this.monteCarloBudget = monteCarloBudget;
+        this.botTable = botTable;
+        this.endgameTable = endgameTable;
+        this.statsController = statsController;
+        this.gson = gson;
+    }
+
+    String getId() {
+        return session.getId();
+    }
+
+    int getMaxPlayers() {
+        return maxPlayers;
+    }
+
+    /**
+     * Quedan asientos libres y la partida no ha empezado.
+     */
+    boolean isOpen() {
+        return !closed && !started && seated < maxPlayers;
+    }
+
+    /**
+     * No queda ninguna conexión en la mesa, ni jugando ni mirando.
+     */
+    boolean isEmpty() {
+        return connections.isEmpty();
+    }
+
+    RoomDTO toDTO() {
+        return new RoomDTO(getId(), seated, maxPlayers, spectators, started);
+    }
+
+    /**
+     * Sienta al jugador de una conexión. Si es el primero, programa el relleno con
+     * bots; si ocupa el último asiento, crea la partida.
+     * @return false si la mesa está cerrada, llena o ya empezó.
+     */
+    boolean join(Connection connection) {
+        lock.lock();
+        try {
+            if (!isOpen()) {
+                return false;
+            }
+            if (seated == 0 && botFillSeconds >= 0) {
+                botExecutor.schedule(this::fillWithBots, botFillSeconds, TimeUnit.SECONDS);
+            }
+            Player player = connection.getPlayer();
+            connection.setRoom(this);
+            connections.add(connection);
+            if (connection.isDeltaUpdates()) {
+                deltaAcks.put(connection, -1L);
+            }
+            gameController.addPlayer(player);
+            seated++;
+            session.touch();
+            String color = player.getColor();
+            ServerMessages.roomJoined(connection, getId());
+            // Notifica al cliente el color que le fue asignado.
+            ServerMessages.colorAssigned(connection, color);
+            if (seated == maxPlayers) {
+                System.out.println("Mesa " + getId() + " completa. Creando juego...");
+                startGame();
+            } else {
+                ServerMessages.waitingForPlayers(connection);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Agrega una conexión como espectadora: recibe las difusiones, y el último estado
+     * si la partida ya empezó, pero sus acciones se ignoran.
+     * @return false si la mesa está cerrada.
+     */
+    boolean watch(Connection connection) {
+        lock.lock();
+        try {
+            if (closed) {
+                return false;
+            }
+            connection.setRoom(this);
+            connections.add(connection);
+            spectators++;
+            ServerMessages.roomJoined(connection, getId());
+            sendFullState(connection);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Quita una conexión que se desconectó. Su jugador sigue sentado: la partida
+     * espera su turno como antes de existir las mesas.
+     */
+    void leave(Connection connection) {
+        lock.lock();
+        try {
+            if (connections.remove(connection) && !isSeated(connection)) {
+                spectators--;
+            }
+            deltaAcks.remove(connection);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reenvía el estado completo a una conexión de la mesa: un keyframe si recibe
+     * deltas, que pasan a calcularse desde él cuando lo confirme, o el GameStateDTO.
+     */
+    void sync(Connection connection) {
+        lock.lock();
+        try {
+            if (!connections.contains(connection)) {
+                return;
+            }
+            sendFullState(connection);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Envía el último estado difundido, completo, a una conexión. Debe llamarse con el lock tomado.
+     */
+    private void sendFullState(Connection connection) {
+        if (connection.isDeltaUpdates()) {
+            deltaAcks.put(connection, -1L);
+        }
+        if (stateVersion > 0) {
+            Object message = connection.isDeltaUpdates() ? encodedUpdate(-1).messageFor(connection) : stateJson();
+            deliver(connection, message);
+        }
+    }
+
+    /**
+     * Registra la confirmación de una versión. No toma el lock: la próxima difusión
+     * calculará el delta de esta conexión desde la mayor versión confirmada.
+     */
+    private void acknowledge(Connection connection, long version) {
+        deltaAcks.computeIfPresent(connection, (c, previous) -> Math.max(previous, version));
+    }
+
+    private boolean isSeated(Connection connection) {
+        return connection.getPlayer() != null && gameController.getPlayers().contains(connection.getPlayer());
+    }
+
+    private void startGame() {
+        started = true;
+        gameController.createNewGame(new ArrayList<>(gameController.getPlayers()));
+    }
+
+    /**
+     * Método de callback que se invoca cuando el GameController notifica un cambio
+     * en el estado del juego. Difunde el nuevo estado y, si el turno es de un bot,
+     * lo pone a pensar.
+     */
+    @Override
+    public void onStateUpdated() {
+        broadcastGameState();
+        scheduleBotTurn();
+    }
+
+    /**
+     * Difunde el estado actual del juego a las conexiones de la mesa.
+     * Toma la última instantánea del juego y, para cada conexión, la serializa como
+     * GameStateDTO completo o como delta desde la versión que esa conexión confirmó.
+     * Si hay un ganador, también guarda las estadísticas del juego.
+     * Si la clave del estado visible no cambió desde la última difusión, no envía nada.
+     */
+    private void broadcastGameState() {
+        lock.lock();
+        try {
+            broadcastLocked();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void broadcastLocked() {
+        // Una sola instantánea para la clave y los mensajes, así ambos describen el mismo estado.
+        GameSnapshot snapshot = gameController.getSnapshot();
+        long viewKey = snapshot.getViewKey();
+        if (stateVersion > 0 && viewKey == lastBroadcastKey) {
+            return;
+        }
+        // Si hay un ganador, guarda las estadísticas.
+        Player winner = snapshot.getWinner();
+        if (winner != null && winner.getName() != null && !winner.getName().isEmpty()) {
+            String[] players = snapshot.getPlayers().stream().map(Player::getName).toArray(String[]::new);
+            Player current = snapshot.getCurrentPlayer();
+            statsController.addStatsGame(
+                    winner.getName(),
+                    current != null ? current.getColor() : "Waiting...",
+                    players
+            );
+        }
+        stateVersion++;
+        sentStates[(int) (stateVersion % STATE_HISTORY)] = snapshot;
+        lastBroadcastKey = viewKey;
+        lastStateJson = null;
+        encodedUpdates.clear();
+
+        // Cada mensaje se serializa una sola vez por formato: normalmente todas las
+        // conexiones con deltas confirmaron la versión anterior y reciben el mismo.
+        Connection[] targets = connections.toArray(new Connection[0]);
+        Object[] messages = new Object[targets.length];
+        for (int i = 0; i < targets.length; i++) {
+            Long acked = deltaAcks.get(targets[i]);
+            messages[i] = acked == null ? stateJson() : encodedUpdate(acked).messageFor(targets[i]);
+        }
+        for (int i = 0; i < targets.length; i++) {
+            deliver(targets[i], messages[i]);
+        }
+    }
+
+    /**
+     * Envía un mensaje preparado por {@link EncodedUpdate#messageFor} o {@link #stateJson()}.
+     */
+    private static void deliver(Connection connection, Object message) {
+        if (message instanceof byte[] frame) {
+            connection.sendFrame(frame);
+        } else {
+            connection.sendMessage((String) message);
+        }
+    }
+
+    /**
+     * La instantánea difundida con esa versión, o null si no existe o ya salió del historial.
+     */
+    private GameSnapshot sentState(long version) {
+        if (version <= 0 || version > stateVersion || version <= stateVersion - STATE_HISTORY) {
+            return null;
+        }
+        return sentStates[(int) (version % STATE_HISTORY)];
+    }
+
+    /**
+     * El último estado difundido como GameStateDTO en JSON. Debe llamarse con el lock tomado.
+     */
+    private String stateJson() {
+        if (lastStateJson == null) {
+            lastStateJson = gson.toJson(GameStateMapper.toDTO(sentState(stateVersion)));
+        }
+        return lastStateJson;
+    }
+
+    /**
+     * La actualización del último estado difundido para quien confirmó esa versión: un
+     * delta si la versión sigue en el historial, o el keyframe. Debe llamarse con el lock tomado.
+     */
+    private EncodedUpdate encodedUpdate(long acked) {
+        GameSnapshot base = sentState(acked);
+        long baseVersion = base == null ? -1 : acked;
+        return encodedUpdates.computeIfAbsent(baseVersion, version ->
+                new EncodedUpdate(GameStateMapper.toUpdate(sentState(stateVersion), stateVersion, base, version)));
+    }
+
+    /**
+     * Una actualización del estado, serializada a lo sumo una vez en cada formato.
+     */
+    private final class EncodedUpdate {
+        private final StateUpdateDTO update;
+        private String json;
+        private byte[] frame;
+
+        private EncodedUpdate(StateUpdateDTO update) {
+            this.update = update;
+        }
+
+        /**
+         * El mensaje para una conexión: una trama si es binaria o una línea "STATE:".
+         */
+        Object messageFor(Connection connection) {
+            if (connection.isBinary()) {
+                if (frame == null) {
+                    frame = BinaryProtocol.stateFrame(update);
+                }
+                return frame;
+            }
+            if (json == null) {
+                json = "STATE:" + gson.toJson(update);
+            }
+            return json;
+        }
+    }
+
+    /**
+     * Procesa un mensaje de texto de una conexión de la mesa. Valida que el mensaje provenga
+     * del jugador que tiene el turno actual antes de pasarlo al GameController.
+     * @param messageJson El mensaje en formato JSON o texto simple.
+     * @param source La conexión que originó el mensaje.
+     */
+    void handleClientMessage(String messageJson, Connection source) {
+        // Cualquier conexión de la mesa puede pedir una sugerencia, tenga o no el turno.
+        // No necesita el lock: trabaja sobre la última instantánea y una sugerencia en
+        // caché se envía en este mismo hilo.
+        if ("HINT".equals(messageJson)) {
+            requestHint(source);
+        } else if (messageJson.startsWith("ACK:")) {
+            try {
+                acknowledge(source, Long.parseLong(messageJson.substring("ACK:".length()).trim()));
+            } catch (NumberFormatException e) {
+                System.err.println("Invalid acknowledgement received from client: " + messageJson);
+            }
+        } else if ("SYNC".equals(messageJson)) {
+            sync(source);
+        } else if ("END_TURN".equals(messageJson) || "\"END_TURN\"".equals(messageJson)) {
+            endTurn(source);
+        } else {
+            try {
+                ClickDTO click = gson.fromJson(messageJson, ClickDTO.class);
+                if (click != null) {
+                    click(source, click.getValue0(), click.getValue1());
+                }
+            } catch (JsonSyntaxException e) {
+                System.err.println("Invalid JSON received from client: " + messageJson);
+            }
+        }
+    }
+
+    /**
+     * Procesa una trama de una conexión binaria de la mesa, como {@link #handleClientMessage}.
+     * @throws java.nio.BufferUnderflowException si la trama es más corta que su tipo.
+     */
+    void handleFrame(byte type, ByteBuffer payload, Connection source) {
+        switch (type) {
+            case BinaryProtocol.CLICK -> click(source, payload.getShort(), payload.getShort());
+            case BinaryProtocol.END_TURN -> endTurn(source);
+            case BinaryProtocol.HINT_REQUEST -> requestHint(source);
+            case BinaryProtocol.ACK -> acknowledge(source, payload.getLong());
+            case BinaryProtocol.SYNC -> sync(source);
+            default -> System.out.println("Unknown frame type " + type + " in a room. Frame ignored.");
+        }
+    }
+
+    private void click(Connection source, int pixelX, int pixelY) {
+        lock.lock();
+        try {
+            if (isTurnOf(source)) {
+                gameController.handleCellClick(pixelX, pixelY);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void endTurn(Connection source) {
+        lock.lock();
+        try {
+            if (isTurnOf(source)) {
+                gameController.endTurn();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Indica si la conexión es la del jugador que tiene el turno. Debe llamarse con el lock tomado.
+     */
+    private boolean isTurnOf(Connection source) {
+        Player sender = source.getPlayer();
+        // Ignora la acción si no es del jugador correcto o la partida no ha empezado.
+        if (sender == null || !sender.equals(gameController.getCurrentPlayer())) {
+            System.out.println("Action from wrong player or game not ready. Action ignored.");
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Pide una sugerencia para la posición actual y se la envía al cliente cuando esté
+     * lista, desde el hilo de sugerencias. Si la posición cambia antes, no se envía nada.
+     */
+    private void requestHint(Connection client) {
+        HintService hints = hintService();
+        if (hints == null) {
+            return;
+        }
+        GameSnapshot snapshot = gameController.getSnapshot();
+        hints.requestHint(snapshot).thenAccept(result -> {
+            if (result == null || result.getBestMove() < 0) {
+                return;
+            }
+            if (gameController.getSnapshot().getZobristKey() != snapshot.getZobristKey()) {
+                return;
+            }
+            int move = result.getBestMove();
+            ServerMessages.hint(client, Move.from(move), Move.to(move), result.getScore(), result.getDepth(), gson);
+        });
+    }
+
+    /**
+     * El servicio de sugerencias de la mesa, creado en la primera petición. Busca en
+     * los hilos de los bots y con su tabla, que comparten todas las mesas. Null si la
+     * mesa está cerrada.
+     */
+    private HintService hintService() {
+        lock.lock();
+        try {
+            if (hintService == null && !closed) {
+                hintService = new HintService(session, HintService.DEFAULT_BUDGET_NANOS, botExecutor, botTable);
+                hintService.setEndgameTable(endgameTable);
+            }
+            return hintService;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Si el turno actual es de un bot y no hay otro turno de bot en curso, encarga
+     * a los hilos de bots que elija un movimiento sobre la última instantánea.
+     */
+    private void scheduleBotTurn() {
+        lock.lock();
+        try {
+            scheduleBotTurnLocked();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void scheduleBotTurnLocked() {
+        if (botTurnPending || closed) {
+            return;
+        }
+        GameSnapshot snapshot = gameController.getSnapshot();
+        if (!snapshot.isBoardCreated() || snapshot.getWinner() != null) {
+            return;
+        }
+        BotPlayer bot = bots.get(snapshot.getCurrentPlayer());
+        if (bot == null) {
+            return;
+        }
+        botTurnPending = true;
+        long requestedAt = System.nanoTime();
+        botExecutor.execute(() -> playBotTurn(bot, snapshot, requestedAt));
+    }
+
+    /**
+     * Calcula el turno de un bot sin tomar el lock de la mesa y luego lo aplica. Si el
+     * bot es MCTS y todas las búsquedas compartidas están ocupadas, vuelve a programarse
+     * en lugar de esperar, para no retener un hilo que necesitan las sugerencias y los
+     * demás bots; la espera se descuenta del tiempo del movimiento.
+     */
+    private void playBotTurn(BotPlayer bot, GameSnapshot snapshot, long requestedAt) {
+        int move = -1;
+        try {
+            if (closed) {
+                return;
+            }
+            move = bot.chooseMove(snapshot, System.nanoTime() - requestedAt);
+            if (move == BotPlayer.BUSY) {
+                botExecutor.schedule(() -> playBotTurn(bot, snapshot, requestedAt),
+                        BOT_RETRY_MILLIS, TimeUnit.MILLISECONDS);
+                return;
+            }
+            SearchResult result = bot.getLastResult();
+            if (result != null) {
+                String unit = bot.isMonteCarlo() ? "playouts" : "nodes";
+                System.out.println(bot.getPlayer().getName() + " searched depth " + result.getDepth()
+                        + ", " + result.getNodes() + " " + unit + ", " + result.getNodesPerSecond() + " " + unit
+                        + "/s (game average " + bot.getAverageNodesPerSecond() + " " + unit + "/s, CPU left "
+                        + bot.getRemainingCpuNanos() / 1_000_000 + " ms).");
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Bot search failed: " + e.getMessage());
+        }
+        applyBotMove(snapshot, move);
+    }
+
+    /**
+     * Aplica el turno elegido por un bot con los mismos clics que haría un jugador.
+     * Si la posición cambió mientras pensaba, descarta el movimiento y vuelve a pensar;
+     * si no encontró movimiento, o el movimiento no se pudo aplicar, pasa el turno.
+     * Pase lo que pase, vuelve a programar el turno de bot siguiente.
+     */
+    private void applyBotMove(GameSnapshot snapshot, int move) {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            // Se compara la posición y no la versión: terminar un turno publica varias instantáneas.
+            if (gameController.getSnapshot().getZobristKey() != snapshot.getZobristKey()) {
+                System.out.println("Position changed while the bot was thinking, searching again.");
+            } else if (move < 0) {
+                gameController.endTurn();
+            } else if (!gameController.playMove(move)) {
+                System.err.println("Bot move " + Move.from(move) + "->" + Move.to(move) + " was rejected, ending the turn.");
+                gameController.endTurn();
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Applying the bot move failed: " + e.getMessage());
+            gameController.endTurn();
+        } finally {
+            botTurnPending = false;
+            try {
+                scheduleBotTurnLocked();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Ocupa con bots los asientos que sigan libres y crea la partida.
+     */
+    private void fillWithBots() {
+        lock.lock();
+        try {
+            if (closed || started || seated == 0) {
+                return;
+            }
+            int botCount = maxPlayers - seated;
+            while (seated < maxPlayers) {
+                Player botPlayer = new Player("Bot " + (bots.size() + 1), "");
+                gameController.addPlayer(botPlayer);
+                seated++;
+                if (maxPlayers >= MONTE_CARLO_MIN_PLAYERS) {
+                    bots.put(botPlayer, new BotPlayer(botPlayer, new MonteCarloSearch(monteCarloBudget)));
+                } else {
+                    bots.put(botPlayer, new BotPlayer(botPlayer, new ParanoidSearch(botTable)));
+                }
+                bots.get(botPlayer).setEndgameTable(endgameTable);
+            }
+            System.out.println("Mesa " + getId() + ": seated " + botCount + " bots. Creando juego...");
+            startGame();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Cierra la mesa si ya no le queda ninguna conexión: deja de aceptar conexiones y
+     * detiene sus bots y sus sugerencias. La sesión la desaloja el servidor.
+     * @return true si la cerró; false si sigue en uso o ya estaba cerrada.
+     */
+    boolean closeIfEmpty() {
+        lock.lock();
+        try {
+            if (closed || !connections.isEmpty()) {
+                return false;
+            }
+            closed = true;
+            for (BotPlayer bot : bots.values()) {
+                bot.close();
+            }
+            bots.clear();
+            if (hintService != null) {
+                hintService.close();
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -1,23 +1,41 @@
 package Network;
 
-import Controller.GameController;
 import Controller.GameStatsController;
+import DTO.RoomDTO;
+import Model.AI.EndgameTable;
+import Model.AI.MonteCarloBudget;
+import Model.AI.TranspositionTable;
 import Model.Entities.Player;
-import DTO.GameStateDTO;
+import Model.Service.GameSession;
+import Model.Service.GameSessionRegistry;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
-import com.google.gson.JsonSyntaxException;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
+import java.io.DataInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.io.PrintWriter;
+import java.io.OutputStream;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
 
 /*
 * Danny Jafet Alfaro Sánchez
@@ -28,16 +46,83 @@ import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * La clase Server es el punto central de la red para el juego. Se encarga de
- * aceptar conexiones de clientes, gestionar una lista de manejadores de clientes
- * (ClientHandler) y orquestar el flujo del juego. Implementa GameStateUpdateCallback
- * para ser notificado por el GameController cada vez que el estado del juego cambia.
+ * aceptar conexiones de clientes y de llevarlas, a través de un lobby, a una de sus
+ * mesas ({@link Room}), cada una con su partida independiente. Un mismo proceso
+ * aloja cientos de mesas; se crean cuando alguien las pide y se destruyen cuando se
+ * va la última conexión.
+ * Después de enviar su nombre, una conexión está en el lobby y puede enviar:
+ * <ul>
+ *   <li>una cantidad de jugadores (el saludo de siempre del {@link Client}): se sienta
+ *       en la mesa de esa cantidad que esté esperando jugadores, o en una nueva;</li>
+ *   <li>"LIST": recibe "ROOMS:" y la lista de mesas en JSON;</li>
+ *   <li>"CREATE:n": crea una mesa de n asientos y se sienta en ella;</li>
+ *   <li>"JOIN:id": se sienta en esa mesa, o recibe "GAME_FULL";</li>
+ *   <li>"WATCH:id": mira esa mesa sin jugar.</li>
+ * </ul>
+ * Al entrar en una mesa recibe "ROOM_JOINED:id" y desde entonces sus mensajes van a
+ * esa mesa. Los errores del lobby se informan con "ERROR:" y un código.
+ * En cualquier momento puede enviar "DELTAS" para recibir el estado como
+ * actualizaciones "STATE:" con versión en lugar del GameStateDTO completo; ver {@link Room}.
+ * Un cliente puede usar en su lugar el protocolo binario de {@link BinaryProtocol},
+ * con los mismos comandos como tramas; el servidor lo reconoce por el primer byte.
+ * Opcionalmente las mesas ocupan con jugadores de la computadora (BotPlayer) los
+ * asientos que sigan libres un tiempo después de que se siente el primer jugador.
+ * La E/S de red puede hacerse con un hilo bloqueante por cliente (de plataforma o
+ * virtual) o, en modo {@link IoMode#NIO}, con unos pocos bucles de eventos no bloqueantes.
  */
-public class Server implements GameController.GameStateUpdateCallback {
+public class Server {
 
-    private final GameController gameController;
+    /**
+     * Cómo atiende el servidor las conexiones.
+     */
+    public enum IoMode {
+        /** Un hilo de plataforma por cliente, con lecturas y escrituras bloqueantes. */
+        THREADS,
+        /** Un hilo virtual por cliente: el mismo código bloqueante, sin un hilo del sistema por conexión. */
+        VIRTUAL,
+        /** Bucles de eventos con Selector; miles de conexiones con pocos hilos. */
+        NIO
+    }
+
+    public static final int MIN_PLAYERS = 2;
+    public static final int MAX_PLAYERS = 6;
+    // Mesas abiertas a la vez como máximo; cada una cuesta poco, porque los hilos y la memoria
+    // de los bots y las sugerencias son del servidor y no de cada mesa.
+    public static final int MAX_ROOMS = 1000;
+    // Los nombres más largos se recortan, así un estado siempre cabe en una trama binaria.
+    public static final int MAX_NAME_LENGTH = 64;
+    // Bytes pendientes de enviar a un cliente a partir de los cuales se lo da por perdido.
+    static final int MAX_PENDING_BYTES = 8 * 1024 * 1024;
+
+    // Tabla de finales proyectada en memoria, o null si no hay archivo.
+    private final EndgameTable endgameTable;
+    private final GameSessionRegistry sessions = new GameSessionRegistry();
+    // Mesas abiertas, por id; el id es el de su sesión.
+    private final ConcurrentHashMap<String, Room> rooms = new ConcurrentHashMap<>();
+    // Por cantidad de jugadores, la mesa donde se sientan quienes se unen sin elegir mesa.
+    private final ConcurrentHashMap<Integer, Room> quickJoinRooms = new ConcurrentHashMap<>();
     private final GameStatsController statsController = new GameStatsController();
-    private final List<ClientHandler> clients = new CopyOnWriteArrayList<>();
+    private final ConnectionStats connectionStats = new ConnectionStats();
+    // Cada cuánto se informan los contadores de conexiones.
+    private static final int STATS_LOG_SECONDS = 60;
     private final Gson gson;
+    // Segundos de espera antes de completar una mesa con bots; negativo para no hacerlo.
+    private final int botFillSeconds;
+    // Hilos donde piensan los bots de todas las mesas, fuera de sus locks.
+    private final ScheduledExecutorService botExecutor;
+    // Memoria para los árboles MCTS de todas las mesas, repartida en árboles de 8 MB que
+    // los bots conservan entre turnos mientras nadie los necesite.
+    private static final long BOT_TREE_MEMORY_BYTES = 96L << 20;
+    private static final int BOT_TREES = 12;
+    // Tabla de transposiciones de los bots alfa-beta y las sugerencias de todas las mesas.
+    private static final int BOT_TABLE_MEGABYTES = 16;
+    // Hilos y árboles de los bots MCTS, compartidos por todas las mesas.
+    private final MonteCarloBudget monteCarloBudget;
+    private final TranspositionTable botTable;
+    // Hilos que vacían las colas de salida de las conexiones bloqueantes.
+    private ExecutorService writers;
+    // Último mensaje codificado, para no volver a codificarlo en cada cliente de una difusión.
+    private volatile EncodedLine lastLine;
 
     /**
      * Inicia el servidor en un puerto específico, escuchando conexiones entrantes.
@@ -45,165 +130,399 @@ public class Server implements GameController.GameStateUpdateCallback {
      * @param port El puerto en el que el servidor escuchará.
      */
     public Server(int port) {
-        this.gameController = new GameController();
-        this.gameController.setUpdateCallback(this);
+        this(port, -1);
+    }
+
+    /**
+     * Inicia el servidor y, si botFillSeconds no es negativo, completa con bots los
+     * asientos libres de cada mesa pasados esos segundos desde que se sienta el primero.
+     * @param port El puerto en el que el servidor escuchará.
+     * @param botFillSeconds Segundos de espera antes de sentar bots, o -1 para desactivarlos.
+     */
+    public Server(int port, int botFillSeconds) {
+        this(port, botFillSeconds, IoMode.THREADS);
+    }
+
+    /**
+     * Inicia el servidor con el modo de E/S indicado. En modo NIO usa un bucle de
+     * eventos por cada dos núcleos; los bots de todas las mesas piensan en un hilo por
+     * cada dos núcleos, y los MCTS simulan en otros tantos hilos con árboles prestados
+     * de un presupuesto común.
+     * @param port El puerto en el que el servidor escuchará.
+     * @param botFillSeconds Segundos de espera antes de sentar bots, o -1 para desactivarlos.
+     * @param ioMode Cómo atender las conexiones.
+     */
+    public Server(int port, int botFillSeconds, IoMode ioMode) {
+        this.botFillSeconds = botFillSeconds;
+        this.endgameTable = loadEndgameTable();
         this.gson = new GsonBuilder().create();
+        int cores = Runtime.getRuntime().availableProcessors();
+        AtomicInteger botThreads = new AtomicInteger();
+        this.botExecutor = Executors.newScheduledThreadPool(Math.max(1, cores / 2), runnable -> {
+            Thread thread = new Thread(runnable, "bot-" + botThreads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        int searchThreads = Math.max(1, cores / 2);
+        // Cada búsqueda MCTS usa dos hilos, así varias mesas buscan a la vez.
+        this.monteCarloBudget = new MonteCarloBudget(searchThreads, BOT_TREE_MEMORY_BYTES, BOT_TREES,
+                Math.max(1, searchThreads / 2));
+        this.botTable = new TranspositionTable(BOT_TABLE_MEGABYTES);
+        botExecutor.scheduleAtFixedRate(
+                () -> System.out.println("Server stats: " + connectionStats + ", rooms " + rooms.size()),
+                STATS_LOG_SECONDS, STATS_LOG_SECONDS, TimeUnit.SECONDS);
 
+        try {
+            if (ioMode == IoMode.NIO) {
+                new NioServer(this, connectionStats, Math.max(1, cores / 2)).listen(port);
+            } else {
+                listenBlocking(port, ioMode);
+            }
+        } catch (IOException ex) {
+            System.err.println("Server exception: " + ex.getMessage());
+            ex.printStackTrace();
+        }
+    }
+
+    /**
+     * Acepta conexiones y atiende cada una en su propio hilo, virtual en modo VIRTUAL.
+     */
+    private void listenBlocking(int port, IoMode ioMode) throws IOException {
+        ExecutorService handlers = ioMode == IoMode.VIRTUAL
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newThreadPerTaskExecutor(Thread.ofPlatform().factory());
+        writers = ioMode == IoMode.VIRTUAL
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newCachedThreadPool();
         try (ServerSocket serverSocket = new ServerSocket(port)) {
-            System.out.println("Server is listening on port " + port);
+            System.out.println("Server is listening on port " + port + " (" + ioMode + ")");
 
             while (true) {
                 Socket socket = serverSocket.accept();
                 System.out.println("New client connected.");
                 ClientHandler newClient = new ClientHandler(socket, this);
-                clients.add(newClient);
-                new Thread(newClient).start();
+                connectionStats.connectionOpened();
+                handlers.execute(newClient);
             }
-        } catch (IOException ex) {
-            System.err.println("Server exception: " + ex.getMessage());
-            ex.printStackTrace();
         }
     }
 
     /**
-     * Método de callback que se invoca cuando el GameController notifica un cambio
-     * en el estado del juego. Su única función es iniciar la difusión del nuevo estado.
+     * Contadores de conexiones y de tráfico. En los modos con un hilo por cliente sólo se
+     * cuentan los bytes enviados.
      */
-    @Override
-    public void onStateUpdated() {
-        System.out.println("Server received state update. Broadcasting to clients...");
-        broadcastGameState();
+    public ConnectionStats getConnectionStats() {
+        return connectionStats;
     }
 
     /**
-     * Difunde el estado actual del juego a todos los clientes conectados.
-     * Obtiene el DTO del GameController, lo serializa a JSON y lo envía.
-     * Si hay un ganador, también guarda las estadísticas del juego.
+     * Codifica un mensaje como una línea UTF-8. Los clientes de una difusión reciben el
+     * mismo String, así que comparten los bytes; nadie debe modificarlos.
      */
-    private synchronized void broadcastGameState() {
-        GameStateDTO gameStateDTO = gameController.getGameViewDTO();
-        if (gameStateDTO == null) {
-            System.err.println("Cannot broadcast a null game state.");
-            return;
+    byte[] encodeLine(String message) {
+        EncodedLine encoded = lastLine;
+        if (encoded == null || encoded.message != message) {
+            byte[] text = message.getBytes(StandardCharsets.UTF_8);
+            byte[] line = new byte[text.length + 1];
+            System.arraycopy(text, 0, line, 0, text.length);
+            line[text.length] = '\n';
+            encoded = new EncodedLine(message, line);
+            lastLine = encoded;
         }
-        // Si hay un ganador, guarda las estadísticas.
-        if (gameStateDTO.getWinnerName() != null && !gameStateDTO.getWinnerName().isEmpty()) {
-            String[] players = gameStateDTO.getPlayers().stream().map(Player::getName).toArray(String[]::new);
-            statsController.addStatsGame(
-                    gameStateDTO.getWinnerName(),
-                    gameStateDTO.getCurrentPlayerColor(),
-                    players
-            );
-        }
-        System.out.println(gameStateDTO.getPiecePositions().toString());
-        String jsonState = gson.toJson(gameStateDTO);
-        for (ClientHandler client : clients) {
-            client.sendMessage(jsonState);
+        return encoded.bytes;
+    }
+
+    private static final class EncodedLine {
+        final String message;
+        final byte[] bytes;
+
+        EncodedLine(String message, byte[] bytes) {
+            this.message = message;
+            this.bytes = bytes;
         }
-        System.out.println("Broadcasted game state to " + clients.size() + " clients.");
     }
 
     /**
-     * Procesa un mensaje recibido de un cliente. Valida que el mensaje provenga
-     * del jugador que tiene el turno actual antes de pasarlo al GameController.
-     * @param messageJson El mensaje en formato JSON o texto simple.
-     * @param source El ClientHandler que originó el mensaje.
+     * Cantidad de mesas abiertas.
      */
-    private synchronized void handleClientMessage(String messageJson, ClientHandler source) {
-        Player sender = source.getPlayer();
-        Player currentPlayer = gameController.getCurrentPlayer();
+    public int getRoomCount() {
+        return rooms.size();
+    }
 
-        // Ignora la acción si no es del jugador correcto o la partida no ha empezado.
-        if (sender == null || !sender.equals(currentPlayer)) {
-            System.out.println("Action from wrong player or game not ready. Action ignored.");
+    /**
+     * Registra el nombre que una conexión envía al conectarse; desde entonces está en el lobby.
+     */
+    void register(String playerName, Connection connection) {
+        if (playerName.length() > MAX_NAME_LENGTH) {
+            playerName = playerName.substring(0, MAX_NAME_LENGTH);
+        }
+        connection.setPlayer(new Player(playerName, ""));
+    }
+
+    /**
+     * Enruta un mensaje de una conexión: a su mesa si está en una, o al lobby.
+     * @param message El mensaje recibido, sin el fin de línea.
+     * @param source La conexión que originó el mensaje.
+     */
+    void handleClientMessage(String message, Connection source) {
+        Room room = source.getRoom();
+        if ("DELTAS".equals(message.trim())) {
+            source.setDeltaUpdates(true);
+            if (room != null) {
+                room.sync(source);
+            }
             return;
         }
+        if (room != null) {
+            room.handleClientMessage(message, source);
+        } else {
+            handleLobbyCommand(message.trim(), source);
+        }
+    }
 
+    private void handleLobbyCommand(String command, Connection source) {
+        if ("LIST".equals(command)) {
+            listRooms(source);
+        } else if (command.startsWith("CREATE:")) {
+            createAndJoin(parsePlayerCount(command.substring("CREATE:".length())), source);
+        } else if (command.startsWith("JOIN:")) {
+            enterRoom(command.substring("JOIN:".length()), false, source);
+        } else if (command.startsWith("WATCH:")) {
+            enterRoom(command.substring("WATCH:".length()), true, source);
+        } else {
+            int playerCount = parsePlayerCount(command);
+            if (playerCount < 0) {
+                ServerMessages.error(source, "UNKNOWN_COMMAND");
+                return;
+            }
+            quickJoin(playerCount, source);
+        }
+    }
+
+    /**
+     * Empieza el protocolo binario en una conexión que envió {@link BinaryProtocol#MAGIC}
+     * y la versión que pide: responde con la versión acordada y, desde entonces, le envía
+     * el estado como actualizaciones.
+     * @return false si la versión no es soportada; la conexión debe cerrarse.
+     */
+    boolean startBinary(int version, Connection connection) {
+        if (version < 1 || version > BinaryProtocol.VERSION) {
+            ServerMessages.error(connection, "UNSUPPORTED_VERSION");
+            return false;
+        }
+        connection.setDeltaUpdates(true);
+        connection.sendFrame(BinaryProtocol.frame(BinaryProtocol.HELLO, version));
+        return true;
+    }
+
+    /**
+     * Enruta una trama de una conexión binaria: la primera debe ser el nombre; las
+     * demás son comandos del lobby o, en una mesa, acciones.
+     * @param type El tipo de mensaje.
+     * @param payload El contenido de la trama, a leer antes de volver.
+     * @param source La conexión que originó la trama.
+     * @return false si la trama es inválida; la conexión debe cerrarse.
+     */
+    boolean handleFrame(byte type, ByteBuffer payload, Connection source) {
         try {
-            // Procesa el fin de turno o un clic en el tablero.
-            if ("END_TURN".equals(messageJson) || "\"END_TURN\"".equals(messageJson)) {
-                gameController.endTurn();
-            } else {
-                Map<String, Double> pixelPos = gson.fromJson(messageJson, Map.class);
-                int pixelX = pixelPos.get("value0").intValue();
-                int pixelY = pixelPos.get("value1").intValue();
-                gameController.handleCellClick(pixelX, pixelY);
-                System.out.println("Click recibido: " + pixelX + ", " + pixelY);
+            if (source.getPlayer() == null) {
+                String name = type == BinaryProtocol.NAME ? BinaryProtocol.getString(payload).trim() : "";
+                if (name.isEmpty()) {
+                    System.err.println("Client connected without a name. Closing connection.");
+                    return false;
+                }
+                register(name, source);
+                return true;
+            }
+            Room room = source.getRoom();
+            if (room != null) {
+                room.handleFrame(type, payload, source);
+                return true;
+            }
+            switch (type) {
+                case BinaryProtocol.LIST -> listRooms(source);
+                case BinaryProtocol.CREATE -> createAndJoin(validPlayerCount(payload.get()), source);
+                case BinaryProtocol.JOIN -> enterRoom(BinaryProtocol.getString(payload), false, source);
+                case BinaryProtocol.WATCH -> enterRoom(BinaryProtocol.getString(payload), true, source);
+                case BinaryProtocol.QUICK_JOIN -> {
+                    int playerCount = validPlayerCount(payload.get());
+                    if (playerCount < 0) {
+                        ServerMessages.error(source, "INVALID_PLAYER_COUNT");
+                    } else {
+                        quickJoin(playerCount, source);
+                    }
+                }
+                default -> ServerMessages.error(source, "UNKNOWN_COMMAND");
             }
-        } catch (JsonSyntaxException e) {
-            System.err.println("Invalid JSON received from client: " + messageJson);
+            return true;
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            System.err.println("Malformed frame of type " + type + " received from client.");
+            return false;
         }
     }
 
-    private int targetPlayerCount = 0;
+    private void listRooms(Connection source) {
+        List<RoomDTO> list = new ArrayList<>(rooms.size());
+        for (Room room : rooms.values()) {
+            list.add(room.toDTO());
+        }
+        ServerMessages.rooms(source, list, gson);
+    }
 
     /**
-     * Añade un nuevo jugador a la partida. Si es el primer jugador, establece el
-     * número total de jugadores para la partida. Inicia el juego cuando todos
-     * los jugadores esperados se han conectado.
-     * @param playerName El nombre del nuevo jugador.
-     * @param playerCount El número de jugadores que el cliente espera en la partida.
-     * @param clientHandler El manejador del cliente que se está uniendo.
+     * Crea una mesa de esa cantidad de jugadores y sienta en ella a la conexión.
      */
-    private synchronized void addPlayer(String playerName, int playerCount, ClientHandler clientHandler) {
-        if (gameController.getPlayers().size() >= 6) {
-            System.out.println("Game is full, rejecting player: " + playerName);
-            clientHandler.close();
+    private void createAndJoin(int playerCount, Connection source) {
+        if (playerCount < 0) {
+            ServerMessages.error(source, "INVALID_PLAYER_COUNT");
             return;
         }
-        // Si es el primer jugador, define el tamaño de la partida.
-        if (gameController.getPlayers().isEmpty()) {
-            targetPlayerCount = playerCount;
-            System.out.println("Partida configurada para " + targetPlayerCount + " jugadores.");
+        Room room = createRoom(playerCount);
+        if (room == null) {
+            ServerMessages.error(source, "TOO_MANY_ROOMS");
+        } else if (!room.join(source)) {
+            ServerMessages.gameFull(source);
         }
+    }
 
-        // Rechaza jugadores si la partida ya está llena.
-        if (gameController.getPlayers().size() >= targetPlayerCount) {
-            System.out.println("Game is full (max " + targetPlayerCount + "), rejecting player: " + playerName);
-            clientHandler.sendMessage("GAME_FULL");
-            clientHandler.close();
-            return;
+    /**
+     * Sienta a la conexión en una mesa, o la agrega como espectadora.
+     */
+    private void enterRoom(String roomId, boolean watch, Connection source) {
+        Room room = rooms.get(roomId);
+        if (room == null) {
+            ServerMessages.error(source, "NO_SUCH_ROOM");
+        } else if (watch ? !room.watch(source) : !room.join(source)) {
+            if (watch) {
+                ServerMessages.error(source, "NO_SUCH_ROOM");
+            } else {
+                ServerMessages.gameFull(source);
+            }
         }
+    }
 
-        Player newPlayer = new Player(playerName, "");
-        clientHandler.setPlayer(newPlayer);
-        gameController.addPlayer(newPlayer);
-        // Notifica al cliente el color que le fue asignado.
-        clientHandler.sendMessage("COLOR_ASSIGNED:" + newPlayer.getColor());
-        // Si se alcanza el número de jugadores, inicia el juego.
-        if (gameController.getPlayers().size() == targetPlayerCount) {
-            System.out.println("Todos los jugadores conectados. Creando juego...");
-            gameController.createNewGame(new ArrayList<>(gameController.getPlayers()));
-        } else {
-            // Si no, informa que se está esperando a otros.
-            clientHandler.sendMessage("ESPERANDO_JUGADORES");
+    /**
+     * Sienta a la conexión en la mesa de esa cantidad de jugadores que esté esperando,
+     * o en una nueva si no hay ninguna o se llenó mientras tanto.
+     */
+    private void quickJoin(int playerCount, Connection source) {
+        while (true) {
+            Room room = quickJoinRooms.compute(playerCount,
+                    (count, current) -> current != null && current.isOpen() ? current : createRoom(count));
+            if (room == null) {
+                ServerMessages.error(source, "TOO_MANY_ROOMS");
+                return;
+            }
+            if (room.join(source)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return La cantidad, o -1 si no es un número de {@link #MIN_PLAYERS} a {@link #MAX_PLAYERS}.
+     */
+    private static int parsePlayerCount(String text) {
+        try {
+            return validPlayerCount(Integer.parseInt(text.trim()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static int validPlayerCount(int count) {
+        return count >= MIN_PLAYERS && count <= MAX_PLAYERS ? count : -1;
+    }
+
+    /**
+     * Crea una mesa con su propia sesión y la registra.
+     * @return La mesa, o null si ya hay {@link #MAX_ROOMS} abiertas.
+     */
+    private Room createRoom(int playerCount) {
+        if (rooms.size() >= MAX_ROOMS) {
+            return null;
         }
+        GameSession session = sessions.create();
+        Room room = new Room(session, playerCount, botFillSeconds, botExecutor, monteCarloBudget, botTable,
+                endgameTable, statsController, gson);
+        rooms.put(room.getId(), room);
+        System.out.println("Mesa " + room.getId() + " creada para " + playerCount + " jugadores.");
+        return room;
     }
 
     /**
-     * Elimina un cliente de la lista de clientes por desconexión
+     * Proyecta la tabla de finales indicada por la propiedad "endgame.table" (por
+     * defecto {@link EndgameTable#DEFAULT_FILE}). Sin archivo, los bots buscan también
+     * en los finales.
      */
-    private void removeClient(ClientHandler client) {
-        clients.remove(client);
+    private static EndgameTable loadEndgameTable() {
+        Path path = Path.of(System.getProperty("endgame.table", EndgameTable.DEFAULT_FILE));
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        try {
+            EndgameTable table = EndgameTable.open(path);
+            System.out.println("Loaded endgame table " + path + " (" + table.getStateCount() + " positions).");
+            return table;
+        } catch (IOException e) {
+            System.err.println("Could not load endgame table " + path + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Elimina un cliente por desconexión. Si era la última conexión de su mesa, la
+     * mesa se cierra y su sesión se desaloja.
+     */
+    void removeClient(Connection client) {
         if (client.getPlayer() != null) {
             System.out.println(client.getPlayer().getName() + " disconnected.");
         }
+        Room room = client.getRoom();
+        if (room != null) {
+            room.leave(client);
+            if (room.closeIfEmpty()) {
+                rooms.remove(room.getId(), room);
+                quickJoinRooms.remove(room.getMaxPlayers(), room);
+                sessions.evict(room.getId());
+                System.out.println("Mesa " + room.getId() + " cerrada.");
+            }
+        }
     }
 
+    /**
+     * Uso: Server [puerto] [segundos antes de completar con bots] [threads|virtual|nio]
+     */
     public static void main(String[] args) {
-        new Server(12345);
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 12345;
+        int botFillSeconds = args.length > 1 ? Integer.parseInt(args[1]) : -1;
+        IoMode ioMode = args.length > 2 ? IoMode.valueOf(args[2].toUpperCase()) : IoMode.THREADS;
+        new Server(port, botFillSeconds, ioMode);
     }
 
     /**
      * ClientHandler gestiona la comunicación con un único cliente en un hilo dedicado.
      * Lee los mensajes del cliente y los pasa al servidor principal para su procesamiento.
      */
-    private class ClientHandler implements Runnable {
+    private class ClientHandler implements Runnable, Connection {
         private final Socket socket;
         private final Server server;
-        private PrintWriter out;
         private BufferedReader in;
-        private Player player;
+        // Envíos pendientes, en orden; los escribe una sola tarea de writers a la vez.
+        private final ReentrantLock queueLock = new ReentrantLock();
+        private ArrayDeque<byte[]> pending;
+        private int pendingBytes;
+        // Hay una tarea de escritura encolada o escribiendo.
+        private boolean flushScheduled;
+        // La conexión se cerró con envíos pendientes; el socket se cierra al terminarlos.
+        private boolean closeWhenFlushed;
+        // Sólo la usa la tarea de escritura en curso.
+        private OutputStream output;
+        private volatile Player player;
+        private volatile Room room;
+        private volatile boolean deltaUpdates;
+        private volatile boolean binary;
+        private final AtomicBoolean closed = new AtomicBoolean();
 
         public ClientHandler(Socket socket, Server server) {
             this.socket = socket;
@@ -212,24 +531,36 @@ public class Server implements GameController.GameStateUpdateCallback {
 
         public void setPlayer(Player player) { this.player = player; }
         public Player getPlayer() { return this.player; }
+        public void setRoom(Room room) { this.room = room; }
+        public Room getRoom() { return this.room; }
+        public void setDeltaUpdates(boolean deltaUpdates) { this.deltaUpdates = deltaUpdates; }
+        public boolean isDeltaUpdates() { return this.deltaUpdates; }
+        public boolean isBinary() { return this.binary; }
 
         @Override
         public void run() {
             try {
-                out = new PrintWriter(socket.getOutputStream(), true);
-                in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+                // El primer byte dice si el cliente habla el protocolo binario o el de líneas.
+                BufferedInputStream input = new BufferedInputStream(socket.getInputStream());
+                input.mark(1);
+                int first = input.read();
+                if (first < 0) {
+                    return;
+                }
+                input.reset();
+                if (first == BinaryProtocol.MAGIC) {
+                    readFrames(new DataInputStream(input));
+                    return;
+                }
+                in = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
 
-                // Lee la información inicial del jugador.
+                // Lee el nombre del jugador.
                 String name = in.readLine();
-                int playerCount = Integer.parseInt(in.readLine());
-
-                if (name != null && !name.trim().isEmpty()) {
-                    server.addPlayer(name.trim(), playerCount, this);
-                } else {
+                if (name == null || name.trim().isEmpty()) {
                     System.err.println("Client connected without a name. Closing connection.");
-                    close();
                     return;
                 }
+                server.register(name.trim(), this);
 
                 // Bucle para leer los mensajes del cliente.
                 String line;
@@ -244,19 +575,155 @@ public class Server implements GameController.GameStateUpdateCallback {
         }
 
         /**
-         * Envía un mensaje a este cliente específico.
+         * Atiende a un cliente binario: el saludo y después una trama tras otra, en un
+         * búfer reutilizado del tamaño máximo de una trama del cliente.
+         */
+        private void readFrames(DataInputStream input) throws IOException {
+            input.readUnsignedByte();
+            int version = input.readUnsignedByte();
+            binary = true;
+            if (!server.startBinary(version, this)) {
+                return;
+            }
+            byte[] frame = new byte[BinaryProtocol.MAX_CLIENT_FRAME_LENGTH];
+            while (true) {
+                int length = input.readUnsignedShort();
+                if (length == 0 || length > frame.length) {
+                    System.err.println("Invalid frame length " + length + " from client, closing connection.");
+                    return;
+                }
+                input.readFully(frame, 0, length);
+                if (!server.handleFrame(frame[0], ByteBuffer.wrap(frame, 1, length - 1), this)) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Envía un mensaje a este cliente específico. Sólo lo encola: nunca espera al socket.
          */
         public void sendMessage(String message) {
-            if (out != null && !out.checkError()) {
-                out.println(message);
+            if (closed.get()) {
+                return;
+            }
+            enqueue(server.encodeLine(message));
+        }
+
+        /**
+         * Envía una trama binaria a este cliente. Sólo la encola: nunca espera al socket.
+         */
+        public void sendFrame(byte[] frame) {
+            if (closed.get()) {
+                return;
+            }
+            enqueue(frame);
+        }
+
+        /**
+         * Agrega bytes a la cola de salida y, si no hay una escritura en marcha, la lanza.
+         * Un cliente que deja de leer acumula su cola hasta {@link #MAX_PENDING_BYTES} y
+         * entonces se desconecta.
+         */
+        private void enqueue(byte[] bytes) {
+            boolean overflow;
+            queueLock.lock();
+            try {
+                if (pending == null) {
+                    pending = new ArrayDeque<>(4);
+                }
+                pending.add(bytes);
+                pendingBytes += bytes.length;
+                overflow = pendingBytes > MAX_PENDING_BYTES;
+                if (!overflow && flushScheduled) {
+                    return;
+                }
+                flushScheduled = true;
+            } finally {
+                queueLock.unlock();
+            }
+            if (overflow) {
+                System.err.println("Client is not reading, closing connection.");
+                // Quien encola puede tener tomado el lock de una mesa; el cierre va aparte.
+                writers.execute(() -> {
+                    close();
+                    closeSocket();
+                });
+                return;
             }
+            writers.execute(this::flush);
         }
 
         /**
-         * Cierra la conexión y notifica al servidor para eliminar este handler.
+         * Escribe la cola en orden hasta vaciarla. Es la única que escribe en el socket,
+         * y la escritura bloqueante sólo detiene a esta conexión.
+         */
+        private void flush() {
+            try {
+                if (output == null) {
+                    output = new BufferedOutputStream(socket.getOutputStream());
+                }
+                while (true) {
+                    byte[] head;
+                    queueLock.lock();
+                    try {
+                        head = pending.poll();
+                        if (head == null) {
+                            pending = null;
+                        } else {
+                            pendingBytes -= head.length;
+                        }
+                    } finally {
+                        queueLock.unlock();
+                    }
+                    if (head == null) {
+                        output.flush();
+                        queueLock.lock();
+                        try {
+                            // Lo que llegó durante el flush se escribe en otra vuelta.
+                            if (pending == null) {
+                                flushScheduled = false;
+                                if (closeWhenFlushed) {
+                                    closeSocket();
+                                }
+                                return;
+                            }
+                        } finally {
+                            queueLock.unlock();
+                        }
+                        continue;
+                    }
+                    output.write(head);
+                    connectionStats.addBytesOut(head.length);
+                }
+            } catch (IOException e) {
+                close();
+                closeSocket();
+            }
+        }
+
+        /**
+         * Cierra la conexión y notifica al servidor para eliminar este handler. Lo que
+         * quedaba en la cola (por ejemplo GAME_FULL) se envía antes de cerrar el socket.
          */
         public void close() {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            connectionStats.connectionClosed();
             server.removeClient(this);
+            queueLock.lock();
+            try {
+                if (flushScheduled) {
+                    closeWhenFlushed = true;
+                    return;
+                }
+            } finally {
+                queueLock.unlock();
+            }
+            closeSocket();
+        }
+
+        private void closeSocket() {
             try {
                 if (socket != null && !socket.isClosed()) {
                     socket.close();
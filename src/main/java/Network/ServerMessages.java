@@ -0,0 +1,83 @@
+package Network;
+
+import DTO.HintDTO;
+import DTO.RoomDTO;
+import Model.Entities.Piece;
+import Model.Service.BoardService;
+import com.google.gson.Gson;
+
+import java.util.List;
+
+/**
+ * Los mensajes que el servidor envía fuera de la difusión del estado, cada uno en el
+ * formato de la conexión: una línea de texto o JSON, o una trama de
+ * {@link BinaryProtocol}.
+ */
+final class ServerMessages {
+
+    private ServerMessages() {
+    }
+
+    static void roomJoined(Connection connection, String roomId) {
+        if (connection.isBinary()) {
+            connection.sendFrame(BinaryProtocol.frame(BinaryProtocol.ROOM_JOINED, roomId));
+        } else {
+            connection.sendMessage("ROOM_JOINED:" + roomId);
+        }
+    }
+
+    static void colorAssigned(Connection connection, String color) {
+        if (connection.isBinary()) {
+            connection.sendFrame(BinaryProtocol.frame(BinaryProtocol.COLOR_ASSIGNED, Piece.colorIndex(color)));
+        } else {
+            connection.sendMessage("COLOR_ASSIGNED:" + color);
+        }
+    }
+
+    static void waitingForPlayers(Connection connection) {
+        if (connection.isBinary()) {
+            connection.sendFrame(BinaryProtocol.frame(BinaryProtocol.WAITING));
+        } else {
+            connection.sendMessage("ESPERANDO_JUGADORES");
+        }
+    }
+
+    static void gameFull(Connection connection) {
+        if (connection.isBinary()) {
+            connection.sendFrame(BinaryProtocol.frame(BinaryProtocol.GAME_FULL));
+        } else {
+            connection.sendMessage("GAME_FULL");
+        }
+    }
+
+    /**
+     * Un error del lobby o del protocolo, con su código (por ejemplo "NO_SUCH_ROOM").
+     */
+    static void error(Connection connection, String code) {
+        if (connection.isBinary()) {
+            connection.sendFrame(BinaryProtocol.frame(BinaryProtocol.ERROR, code));
+        } else {
+            connection.sendMessage("ERROR:" + code);
+        }
+    }
+
+    static void rooms(Connection connection, List<RoomDTO> rooms, Gson gson) {
+        if (connection.isBinary()) {
+            connection.sendFrame(BinaryProtocol.roomsFrame(rooms));
+        } else {
+            connection.sendMessage("ROOMS:" + gson.toJson(rooms));
+        }
+    }
+
+    /**
+     * Una sugerencia de movimiento entre dos celdas del tablero.
+     */
+    static void hint(Connection connection, int from, int to, int score, int depth, Gson gson) {
+        if (connection.isBinary()) {
+            connection.sendFrame(BinaryProtocol.hintFrame(from, to, score, depth));
+        } else {
+            HintDTO hint = new HintDTO(BoardService.pixelOf(from), BoardService.pixelOf(to), score, depth);
+            connection.sendMessage("HINT:" + gson.toJson(hint));
+        }
+    }
+}
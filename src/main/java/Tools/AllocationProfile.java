@@ -0,0 +1,64 @@
+package Tools;
+
+import Model.Entities.Board;
+import Model.Entities.BoardIndex;
+import Model.Entities.Coords;
+import Model.Entities.Player;
+import Model.Service.BoardService;
+import Model.Service.GameRulesService;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+
+/**
+ * Herramienta de consola que mide cuántos bytes reserva en el heap cada llamada
+ * a las rutinas de generación de movimientos, usando el contador de memoria
+ * asignada por hilo de la JVM (com.sun.management.ThreadMXBean).
+ */
+public class AllocationProfile {
+    private static final int WARMUP = 200_000;
+    private static final int ITERATIONS = 1_000_000;
+
+    public static void main(String[] args) {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+
+        Board board = new Board();
+        BoardService.createBoard(board);
+        ArrayList<Player> players = new ArrayList<>();
+        players.add(new Player("A", "RED"));
+        players.add(new Player("B", "GREEN"));
+        BoardService.setupPieces(board, players);
+
+        // Pieza del frente del triángulo rojo: tiene pasos y saltos disponibles.
+        Coords piece = Coords.of(-1, 5);
+        long sink = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            sink += GameRulesService.getValidMoves(board, piece).size();
+        }
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += GameRulesService.getValidMoves(board, piece).size();
+        }
+        long after = threads.getThreadAllocatedBytes(threadId);
+        report("getValidMoves(Board, Coords)", before, after);
+
+        int from = BoardIndex.indexOf(piece.getX(), piece.getY());
+        int[] moves = new int[GameRulesService.MAX_PIECE_MOVES];
+        for (int i = 0; i < WARMUP; i++) {
+            sink += GameRulesService.getValidMoves(board, from, moves);
+        }
+        before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += GameRulesService.getValidMoves(board, from, moves);
+        }
+        after = threads.getThreadAllocatedBytes(threadId);
+        report("getValidMoves(Board, int, int[])", before, after);
+        System.out.println("checksum " + sink);
+    }
+
+    private static void report(String name, long before, long after) {
+        System.out.printf("%s: %.1f bytes/call%n", name, (after - before) / (double) ITERATIONS);
+    }
+}
@@ -0,0 +1,114 @@
+package Tools;
+
+import Model.AI.AnalysisResult;
+import Model.AI.PositionAnalyzer;
+import Model.Entities.Board;
+import Model.Entities.GameSnapshot;
+import Model.Entities.GameState;
+import Model.Entities.Piece;
+import Model.Entities.Player;
+import Model.Service.BoardService;
+import Model.Service.GameRulesService;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Random;
+
+/**
+ * Mide la aceleración de {@link PositionAnalyzer} de 1 a N hilos sobre un conjunto
+ * fijo de posiciones: la salida de partidas de 2, 3, 4 y 6 jugadores y posiciones
+ * de medio juego obtenidas con movimientos aleatorios de semilla fija. Comprueba
+ * además que, sin tabla de transposiciones, las puntuaciones no cambian con la
+ * cantidad de hilos; con tabla informa su tasa de aciertos.
+ * Uso: AnalyzerBenchmark [hilos máximos] [profundidad] [repeticiones] [MB de tabla]
+ */
+public class AnalyzerBenchmark {
+    private static final int[] PLAYER_COUNTS = {2, 3, 4, 6};
+    private static final int[] RANDOM_PLIES = {0, 12, 30};
+
+    public static void main(String[] args) {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int depth = args.length > 1 ? Integer.parseInt(args[1]) : PositionAnalyzer.DEFAULT_DEPTH;
+        int repetitions = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+        int tableMegabytes = args.length > 3 ? Integer.parseInt(args[3]) : 0;
+
+        ArrayList<GameSnapshot> positions = new ArrayList<>();
+        Random random = new Random(7);
+        for (int players : PLAYER_COUNTS) {
+            for (int plies : RANDOM_PLIES) {
+                positions.add(position(players, plies, random));
+            }
+        }
+        System.out.printf("%d positions, depth %d, %d repetitions, table %d MB%n",
+                positions.size(), depth, repetitions, tableMegabytes);
+
+        int[][] reference = null;
+        double baseline = 0;
+        for (int threads = 1; threads <= maxThreads; threads++) {
+            try (PositionAnalyzer analyzer = new PositionAnalyzer(threads, tableMegabytes)) {
+                int[][] scores = new int[positions.size()][];
+                run(analyzer, positions, depth, scores);
+                long nodes = 0;
+                long start = System.nanoTime();
+                for (int rep = 0; rep < repetitions; rep++) {
+                    nodes += run(analyzer, positions, depth, scores);
+                }
+                double seconds = (System.nanoTime() - start) / 1e9;
+                if (threads == 1) {
+                    baseline = seconds;
+                    reference = scores;
+                } else if (analyzer.getTable() == null && !Arrays.deepEquals(scores, reference)) {
+                    System.out.println("WARNING: scores differ from the single-threaded run");
+                }
+                System.out.printf("threads %2d: %8.3f s, %,12.0f nodes/s, speedup %.2fx", threads, seconds,
+                        nodes / seconds, baseline / seconds);
+                if (analyzer.getTable() != null) {
+                    System.out.printf(", table hit rate %.1f%%", 100 * analyzer.getTable().getHitRate());
+                }
+                System.out.println();
+            }
+        }
+    }
+
+    /**
+     * Analiza todas las posiciones y guarda en scores los pares (movimiento,
+     * puntuación) de cada una.
+     * @return La cantidad de nodos visitados.
+     */
+    private static long run(PositionAnalyzer analyzer, ArrayList<GameSnapshot> positions, int depth,
+                            int[][] scores) {
+        long nodes = 0;
+        for (int i = 0; i < positions.size(); i++) {
+            AnalysisResult result = analyzer.analyze(positions.get(i), depth);
+            int[] row = new int[2 * result.getMoveCount()];
+            for (int m = 0; m < result.getMoveCount(); m++) {
+                row[2 * m] = result.getMove(m);
+                row[2 * m + 1] = result.getScore(m);
+            }
+            scores[i] = row;
+            nodes += result.getNodes();
+        }
+        return nodes;
+    }
+
+    private static GameSnapshot position(int playerCount, int plies, Random random) {
+        ArrayList<Player> players = new ArrayList<>();
+        for (int i = 0; i < playerCount; i++) {
+            players.add(new Player("P" + i, Piece.COLORS[i]));
+        }
+        Board board = new Board();
+        BoardService.createBoard(board);
+        BoardService.setupPieces(board, players);
+        GameState state = new GameState(board, players.getFirst(), players, 0, new HashMap<>(),
+                null, null, false, null);
+        int[] moves = new int[GameRulesService.MAX_TURN_MOVES];
+        for (int ply = 0; ply < plies; ply++) {
+            int color = Piece.colorIndex(state.getCurrentPlayer().getColor());
+            int count = GameRulesService.generateTurnMoves(board, color, moves);
+            if (count == 0) break;
+            state.makeMove(moves[random.nextInt(count)]);
+        }
+        return GameSnapshot.capture(state, null);
+    }
+}
@@ -0,0 +1,333 @@
+package Tools;
+
+import Model.Entities.BoardIndex;
+import Model.Entities.Coords;
+import Model.Service.BoardService;
+import Network.Server;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compara por loopback los modos de E/S del {@link Server} con muchas conexiones
+ * abiertas a la vez. Cada modo y cantidad de conexiones se mide en un proceso nuevo
+ * que levanta un servidor, abre una mesa de dos jugadores con esa cantidad de
+ * espectadores (conexiones que la miran con "WATCH" y sólo reciben las difusiones)
+ * y la completa. Informa:
+ * <ul>
+ *   <li>la memoria que cuestan las conexiones abiertas: heap tras un GC, hilos vivos
+ *       y memoria residente del proceso (de /proc, sólo en Linux);</li>
+ *   <li>la latencia de una difusión: desde que un jugador envía un clic que cambia
+ *       la selección hasta que la mitad y todos los espectadores recibieron el estado.</li>
+ * </ul>
+ * Los espectadores se leen desde un único Selector, así el lado cliente cuesta lo
+ * mismo en todos los modos. Cada conexión usa dos descriptores de archivo en este
+ * proceso: 10.000 conexiones necesitan un límite (ulimit -n) algo mayor que 20.000.
+ * Uso: ConnectionBenchmark [conexiones,...] [modos,...] [difusiones]
+ */
+public class ConnectionBenchmark {
+    private static final int[] DEFAULT_CONNECTIONS = {100, 1_000, 10_000};
+    private static final String DEFAULT_MODES = "threads,virtual,nio";
+    private static final int DEFAULT_BROADCASTS = 10;
+    private static final String CHILD_FLAG = "--child";
+    private static final long SETTLE_MILLIS = 1_000;
+    private static final long BROADCAST_TIMEOUT_NANOS = 30_000_000_000L;
+    // Centro del tablero en el panel del cliente; los clics llegan en coordenadas del panel.
+    private static final int PANEL_CENTER_X = 400;
+    private static final int PANEL_CENTER_Y = 350;
+    // Búfer de lectura del lado cliente; sólo lo usa el hilo principal.
+    private static final ByteBuffer BUFFER = ByteBuffer.allocateDirect(64 * 1024);
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length == 4 && CHILD_FLAG.equals(args[0])) {
+            runChild(Server.IoMode.valueOf(args[1]), Integer.parseInt(args[2]), Integer.parseInt(args[3]));
+            return;
+        }
+        int[] connections = args.length > 0
+                ? Arrays.stream(args[0].split(",")).mapToInt(Integer::parseInt).toArray()
+                : DEFAULT_CONNECTIONS;
+        String[] modes = (args.length > 1 ? args[1] : DEFAULT_MODES).split(",");
+        int broadcasts = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_BROADCASTS;
+
+        System.out.printf("%-8s %7s %12s %9s %12s %14s %14s%n", "mode", "conns", "heap/conn",
+                "threads", "rss/conn", "half received", "all received");
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        for (String modeName : modes) {
+            Server.IoMode mode = Server.IoMode.valueOf(modeName.trim().toUpperCase());
+            for (int count : connections) {
+                // Un proceso por medición, para que la memoria de una no se confunda con la de otra.
+                Process child = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                        ConnectionBenchmark.class.getName(), CHILD_FLAG, mode.name(),
+                        String.valueOf(count), String.valueOf(broadcasts)).inheritIO().start();
+                child.waitFor();
+            }
+        }
+    }
+
+    /**
+     * Hace una medición e imprime su fila. Descarta la salida del servidor.
+     */
+    private static void runChild(Server.IoMode mode, int count, int broadcasts) throws InterruptedException {
+        PrintStream report = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        System.setErr(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            report.println(run(mode, count, broadcasts));
+        } catch (IOException e) {
+            report.printf("%-8s %7d failed: %s%n", mode, count, e.getMessage());
+        }
+        report.flush();
+        // Los hilos de los clientes del servidor no son daemon.
+        System.exit(0);
+    }
+
+    private static String run(Server.IoMode mode, int count, int broadcasts)
+            throws IOException, InterruptedException {
+        int port = freePort();
+        Thread serverThread = new Thread(() -> new Server(port, -1, mode), "benchmark-server-" + port);
+        serverThread.setDaemon(true);
+        serverThread.start();
+        waitUntilListening(port);
+
+        Selector selector = Selector.open();
+        List<SocketChannel> channels = new ArrayList<>();
+        Spectator[] spectators = new Spectator[count];
+        try {
+            // El primer jugador abre una mesa de dos, los espectadores la miran y el
+            // segundo jugador la completa. El primero, con el turno, alterna la selección
+            // entre dos de sus piezas y cada clic difunde un estado nuevo.
+            SocketChannel[] players = new SocketChannel[2];
+            players[0] = join(port, "Benchmark0", channels);
+            String roomJoined = readLine(players[0]);
+            String roomId = roomJoined.substring(roomJoined.indexOf(':') + 1);
+            readLine(players[0]);
+
+            ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+            settle();
+            long heapBefore = usedHeap();
+            long rssBefore = residentBytes();
+            int threadsBefore = threadBean.getThreadCount();
+            for (int i = 0; i < count; i++) {
+                SocketChannel channel;
+                try {
+                    channel = SocketChannel.open(new InetSocketAddress("localhost", port));
+                } catch (IOException e) {
+                    return String.format("%-8s %7d could only open %d connections: %s",
+                            mode, count, i, e.getMessage());
+                }
+                channels.add(channel);
+                write(channel, "Spectator" + i + "\nWATCH:" + roomId + "\n");
+                channel.configureBlocking(false);
+                spectators[i] = new Spectator(true);
+                channel.register(selector, SelectionKey.OP_READ, spectators[i]);
+            }
+            settle();
+            long heapPerConnection = (usedHeap() - heapBefore) / count;
+            double rssPerConnection = rssBefore < 0 ? Double.NaN : (residentBytes() - rssBefore) / (double) count;
+            int threads = threadBean.getThreadCount() - threadsBefore;
+
+            players[1] = join(port, "Benchmark1", channels);
+            for (SocketChannel player : players) {
+                player.configureBlocking(false);
+                player.register(selector, SelectionKey.OP_READ, new Spectator(false));
+            }
+            // "ROOM_JOINED" y el primer estado.
+            awaitLines(selector, spectators.length, 2, System.nanoTime());
+            Thread.sleep(SETTLE_MILLIS / 5);
+            drain(selector);
+            int expected = Arrays.stream(spectators).mapToInt(spectator -> spectator.lines).max().orElse(0);
+            long[] halfLatencies = new long[broadcasts];
+            long[] fullLatencies = new long[broadcasts];
+            for (int b = 0; b < broadcasts; b++) {
+                expected++;
+                Coords pixel = BoardService.pixelOf(BoardIndex.homeCell(0, b & 1));
+                long start = System.nanoTime();
+                write(players[0], "{\"value0\":" + (pixel.getX() + PANEL_CENTER_X)
+                        + ",\"value1\":" + (pixel.getY() + PANEL_CENTER_Y) + "}\n");
+                long[] latency = awaitLines(selector, spectators.length, expected, start);
+                halfLatencies[b] = latency[0];
+                fullLatencies[b] = latency[1];
+            }
+            Arrays.sort(halfLatencies);
+            Arrays.sort(fullLatencies);
+            return String.format("%-8s %7d %9.1f KB %9d %9.1f KB %11.2f ms %11.2f ms",
+                    mode, count, heapPerConnection / 1024.0, threads,
+                    rssPerConnection / 1024.0,
+                    halfLatencies[broadcasts / 2] / 1e6, fullLatencies[broadcasts / 2] / 1e6);
+        } finally {
+            for (SocketChannel channel : channels) {
+                channel.close();
+            }
+            selector.close();
+        }
+    }
+
+    /**
+     * Líneas recibidas por una conexión del lado cliente. Los jugadores también se
+     * leen, pero no cuentan para la latencia: reciben otros mensajes además del estado.
+     */
+    private static final class Spectator {
+        final boolean counted;
+        int lines;
+
+        Spectator(boolean counted) {
+            this.counted = counted;
+        }
+    }
+
+    /**
+     * Lee de todas las conexiones hasta que cada espectador haya recibido la cantidad
+     * de líneas indicada.
+     * @return Nanosegundos desde start hasta que la mitad de los espectadores y hasta
+     *         que todos llegaron a esa cantidad.
+     */
+    private static long[] awaitLines(Selector selector, int spectators, int expected, long start)
+            throws IOException {
+        long[] latency = new long[2];
+        int done = 0;
+        while (done < spectators) {
+            if (System.nanoTime() - start > BROADCAST_TIMEOUT_NANOS) {
+                throw new IOException("Broadcast timed out: " + done + " of " + spectators + " received");
+            }
+            selector.select(100);
+            for (SelectionKey key : selector.selectedKeys()) {
+                Spectator spectator = (Spectator) key.attachment();
+                int before = spectator.lines;
+                read(key);
+                if (spectator.counted && before < expected && spectator.lines >= expected) {
+                    done++;
+                    if (done == (spectators + 1) / 2) {
+                        latency[0] = System.nanoTime() - start;
+                    }
+                }
+            }
+            selector.selectedKeys().clear();
+        }
+        latency[1] = System.nanoTime() - start;
+        return latency;
+    }
+
+    /**
+     * Lee lo que haya llegado sin esperar, por ejemplo difusiones repetidas al crear la partida.
+     */
+    private static void drain(Selector selector) throws IOException {
+        selector.selectNow();
+        for (SelectionKey key : selector.selectedKeys()) {
+            read(key);
+        }
+        selector.selectedKeys().clear();
+    }
+
+    private static void read(SelectionKey key) throws IOException {
+        Spectator spectator = (Spectator) key.attachment();
+        SocketChannel channel = (SocketChannel) key.channel();
+        int read;
+        while ((read = channel.read(BUFFER.clear())) > 0) {
+            for (int i = 0; i < read; i++) {
+                if (BUFFER.get(i) == '\n') {
+                    spectator.lines++;
+                }
+            }
+        }
+        if (read < 0) {
+            key.cancel();
+        }
+    }
+
+    /**
+     * Conecta un jugador que se une sin elegir mesa, como lo hace {@link Network.Client}.
+     */
+    private static SocketChannel join(int port, String name, List<SocketChannel> channels) throws IOException {
+        SocketChannel player = SocketChannel.open(new InetSocketAddress("localhost", port));
+        channels.add(player);
+        write(player, name + "\n2\n");
+        return player;
+    }
+
+    /**
+     * Lee, bloqueando, la próxima línea.
+     */
+    private static String readLine(SocketChannel channel) throws IOException {
+        ByteBuffer single = ByteBuffer.allocate(1);
+        StringBuilder line = new StringBuilder();
+        while (true) {
+            single.clear();
+            if (channel.read(single) < 0) {
+                throw new IOException("Connection closed during the handshake");
+            }
+            char c = (char) single.get(0);
+            if (c == '\n') {
+                return line.toString();
+            }
+            line.append(c);
+        }
+    }
+
+    private static void write(SocketChannel channel, String text) throws IOException {
+        ByteBuffer bytes = ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket probe = new ServerSocket(0)) {
+            return probe.getLocalPort();
+        }
+    }
+
+    private static void waitUntilListening(int port) throws InterruptedException {
+        for (int attempt = 0; attempt < 100; attempt++) {
+            try {
+                SocketChannel.open(new InetSocketAddress("localhost", port)).close();
+                Thread.sleep(SETTLE_MILLIS / 2);
+                return;
+            } catch (IOException e) {
+                Thread.sleep(50);
+            }
+        }
+        throw new IllegalStateException("Server did not start on port " + port);
+    }
+
+    private static void settle() throws InterruptedException {
+        Thread.sleep(SETTLE_MILLIS);
+        System.gc();
+        Thread.sleep(SETTLE_MILLIS / 5);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Memoria residente del proceso en bytes, o -1 si no se puede leer.
+     */
+    private static long residentBytes() {
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc/self/status"))) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("\\D", "")) * 1024;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // Fuera de Linux no hay /proc.
+        }
+        return -1;
+    }
+}
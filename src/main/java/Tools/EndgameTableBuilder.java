@@ -0,0 +1,35 @@
+package Tools;
+
+import Model.AI.EndgameSolver;
+import Model.AI.EndgameTable;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Genera fuera de línea la tabla de finales que el servidor carga al arrancar.
+ * Con 2 piezas fuera de la meta son unas 276 mil posiciones y tarda segundos; con 3
+ * son unos 27 millones (27 MB) y tarda alrededor de un minuto.
+ * Uso: EndgameTableBuilder [piezas fuera de la meta] [archivo]
+ */
+public class EndgameTableBuilder {
+    public static void main(String[] args) throws IOException {
+        int maxOutside = args.length > 0 ? Integer.parseInt(args[0]) : 2;
+        Path path = Path.of(args.length > 1 ? args[1] : EndgameTable.DEFAULT_FILE);
+
+        EndgameSolver solver = new EndgameSolver(maxOutside);
+        System.out.printf("Solving %,d positions with up to %d pieces outside the goal...%n",
+                solver.getStateCount(), maxOutside);
+        long start = System.nanoTime();
+        int maxDistance = solver.solve();
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("Solved in %.1f s, longest finish %d moves, %,d positions unreached%n",
+                elapsed / 1e9, maxDistance, solver.countUnreached());
+        solver.write(path);
+
+        start = System.nanoTime();
+        EndgameTable table = EndgameTable.open(path);
+        System.out.printf("Wrote %s (%,d positions), mapped back in %.2f ms%n",
+                path, table.getStateCount(), (System.nanoTime() - start) / 1e6);
+    }
+}
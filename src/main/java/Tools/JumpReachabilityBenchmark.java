@@ -0,0 +1,81 @@
+package Tools;
+
+import Model.Entities.Board;
+import Model.Entities.BoardIndex;
+import Model.Entities.Piece;
+import Model.Service.BoardService;
+import Model.Service.JumpReachability;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+/**
+ * Mide el rendimiento de {@link JumpReachability} sobre posiciones aleatorias
+ * con las 60 piezas repartidas por el tablero: posiciones por segundo (todas las
+ * piezas de la posición) y bytes reservados por llamada.
+ * Uso: JumpReachabilityBenchmark [posiciones] [semilla]
+ */
+public class JumpReachabilityBenchmark {
+    private static final int PIECES = 60;
+
+    public static void main(String[] args) {
+        int positions = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 42L;
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+
+        // Se generan pocas posiciones distintas y se recorren en ciclo para medir
+        // sólo la generación, no la construcción de tableros.
+        Board[] boards = new Board[64];
+        Random random = new Random(seed);
+        for (int i = 0; i < boards.length; i++) {
+            boards[i] = randomPosition(random);
+        }
+        JumpReachability reachability = new JumpReachability();
+
+        long sink = run(boards, reachability, positions / 10);
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        sink += run(boards, reachability, positions);
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        long calls = (long) positions * PIECES;
+        System.out.printf("positions: %d, compute() calls: %d%n", positions, calls);
+        System.out.printf("%.0f positions/s, %.1f ns/call%n",
+                positions / (elapsed / 1e9), elapsed / (double) calls);
+        System.out.printf("%.3f bytes/call%n", allocated / (double) calls);
+        System.out.println("checksum " + sink);
+    }
+
+    private static long run(Board[] boards, JumpReachability reachability, int positions) {
+        long sink = 0;
+        for (int p = 0; p < positions; p++) {
+            Board board = boards[p & (boards.length - 1)];
+            for (int word = 0; word < BoardIndex.WORDS; word++) {
+                long pieces = board.getAnyOccupancy(word);
+                while (pieces != 0) {
+                    int index = (word << 6) + Long.numberOfTrailingZeros(pieces);
+                    pieces &= pieces - 1;
+                    sink += reachability.compute(board, index);
+                }
+            }
+        }
+        return sink;
+    }
+
+    private static Board randomPosition(Random random) {
+        Board board = new Board();
+        BoardService.createBoard(board);
+        int placed = 0;
+        while (placed < PIECES) {
+            int index = random.nextInt(BoardIndex.CELL_COUNT);
+            if (!board.isOccupied(index)) {
+                board.getCell(index).setPiece(new Piece(Piece.COLORS[placed % Piece.COLOR_COUNT]));
+                placed++;
+            }
+        }
+        return board;
+    }
+}
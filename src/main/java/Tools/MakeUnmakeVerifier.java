@@ -0,0 +1,176 @@
+package Tools;
+
+import Model.Entities.Board;
+import Model.Entities.BoardIndex;
+import Model.Entities.Direction;
+import Model.Entities.GameState;
+import Model.Entities.HexCell;
+import Model.Entities.Piece;
+import Model.Entities.Zobrist;
+import Model.Service.GameRulesService;
+
+import java.util.SplittableRandom;
+
+/**
+ * Comprueba el estado incremental del que dependen todas las búsquedas: juega
+ * secuencias aleatorias de {@link GameState#makeMove} desde la salida de partidas de
+ * 2, 3, 4 y 6 jugadores y las deshace con {@link GameState#unmakeMove}. Tras cada
+ * movimiento compara la clave de Zobrist, la ocupación por color, las piezas en la
+ * meta y las sumas de distancias del tablero con las mismas cifras recalculadas desde
+ * cero a partir de las celdas; tras cada deshacer, que la clave completa (con el turno
+ * y la secuencia de saltos abierta) vuelva a ser la de antes del movimiento.
+ * Algunos movimientos se hacen con una secuencia de saltos abierta, para comprobar
+ * que el token la restaura.
+ * Uso: MakeUnmakeVerifier [secuencias] [longitud máxima] [semilla]
+ */
+public class MakeUnmakeVerifier {
+    private static final int[] PLAYER_COUNTS = {2, 3, 4, 6};
+    // Probabilidad, en octavos, de abrir una secuencia de saltos antes de un movimiento.
+    private static final int JUMP_STATE_EIGHTHS = 1;
+
+    public static void main(String[] args) {
+        int sequences = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int maxLength = args.length > 1 ? Integer.parseInt(args[1]) : 60;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 1;
+        if (sequences < 1 || maxLength < 1) {
+            throw new IllegalArgumentException("Sequences and length must be positive");
+        }
+
+        boolean ok = true;
+        for (int playerCount : PLAYER_COUNTS) {
+            SplittableRandom random = new SplittableRandom(seed * 31 + playerCount);
+            GameState state = Perft.startPosition(playerCount);
+            long begin = System.nanoTime();
+            long plies = 0;
+            String failure = check(state);
+            for (int s = 0; failure == null && s < sequences; s++) {
+                int length = 1 + random.nextInt(maxLength);
+                long[] tokens = new long[length];
+                long[] keys = new long[length];
+                int[] moves = new int[GameRulesService.MAX_TURN_MOVES];
+                int played = 0;
+                while (played < length) {
+                    int color = Piece.colorIndex(state.getCurrentPlayer().getColor());
+                    int count = GameRulesService.generateTurnMoves(state.getBoard(), color, moves);
+                    if (count == 0) {
+                        break;
+                    }
+                    int move = moves[random.nextInt(count)];
+                    if (random.nextInt(8) < JUMP_STATE_EIGHTHS) {
+                        openJumpSequence(state, random);
+                    }
+                    keys[played] = state.getZobristKey();
+                    tokens[played++] = state.makeMove(move);
+                    plies++;
+                    failure = check(state);
+                    if (failure != null) {
+                        failure = "after move " + played + " of sequence " + s + ": " + failure;
+                        break;
+                    }
+                }
+                while (played > 0) {
+                    state.unmakeMove(tokens[--played]);
+                    if (failure == null && state.getZobristKey() != keys[played]) {
+                        failure = "key not restored by unmake " + played + " of sequence " + s;
+                    }
+                    // Las secuencias de saltos abiertas a propósito se cierran para la siguiente comprobación.
+                    state.setJumpSequence(false);
+                    state.setJumpState(-1, -1);
+                    if (failure == null) {
+                        String unmade = check(state);
+                        if (unmade != null) {
+                            failure = "after unmake " + played + " of sequence " + s + ": " + unmade;
+                        }
+                    }
+                }
+            }
+            double seconds = (System.nanoTime() - begin) / 1e9;
+            System.out.printf("%d players: %,d sequences, %,d moves checked in %.2f s  %s%n",
+                    playerCount, sequences, plies, seconds, failure == null ? "OK" : "MISMATCH " + failure);
+            ok &= failure == null;
+        }
+        System.out.println(ok ? "Incremental state matches." : "INCREMENTAL STATE DIFFERS");
+        if (!ok) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Abre una secuencia de saltos en una pieza del jugador con el turno, como si
+     * acabara de saltar en una dirección al azar.
+     */
+    private static void openJumpSequence(GameState state, SplittableRandom random) {
+        Board board = state.getBoard();
+        int color = Piece.colorIndex(state.getCurrentPlayer().getColor());
+        int start = random.nextInt(BoardIndex.CELL_COUNT);
+        for (int i = 0; i < BoardIndex.CELL_COUNT; i++) {
+            int cell = (start + i) % BoardIndex.CELL_COUNT;
+            if (board.isOccupiedBy(cell, color)) {
+                state.setJumpSequence(true);
+                state.setJumpState(cell, random.nextInt(Direction.COUNT));
+                return;
+            }
+        }
+    }
+
+    /**
+     * Recalcula desde las celdas lo que el tablero mantiene de forma incremental.
+     * @return Una descripción de la primera diferencia, o null si todo coincide.
+     */
+    static String check(GameState state) {
+        Board board = state.getBoard();
+        long[] occupancy = new long[(Piece.COLOR_COUNT + 1) * BoardIndex.WORDS];
+        int[] piecesInGoal = new int[Piece.COLOR_COUNT];
+        int[] goalDistance = new int[Piece.COLOR_COUNT];
+        int[] apexDistance = new int[Piece.COLOR_COUNT];
+        long key = 0;
+        for (int index = 0; index < BoardIndex.CELL_COUNT; index++) {
+            HexCell cell = board.getCell(index);
+            if (cell == null || cell.getPiece() == null) {
+                continue;
+            }
+            int color = cell.getPiece().getColorIndex();
+            int word = BoardIndex.word(index);
+            long bit = BoardIndex.bit(index);
+            occupancy[color * BoardIndex.WORDS + word] |= bit;
+            occupancy[Piece.COLOR_COUNT * BoardIndex.WORDS + word] |= bit;
+            key ^= Zobrist.piece(color, index);
+            if ((BoardIndex.goalMask(color, word) & bit) != 0) {
+                piecesInGoal[color]++;
+            }
+            goalDistance[color] += BoardIndex.goalDistance(color, index);
+            apexDistance[color] += BoardIndex.apexDistance(color, index);
+        }
+        for (int word = 0; word < BoardIndex.WORDS; word++) {
+            if (board.getAnyOccupancy(word) != occupancy[Piece.COLOR_COUNT * BoardIndex.WORDS + word]) {
+                return "any-piece mask, word " + word;
+            }
+            for (int color = 0; color < Piece.COLOR_COUNT; color++) {
+                if (board.getOccupancy(color, word) != occupancy[color * BoardIndex.WORDS + word]) {
+                    return "occupancy of " + Piece.COLORS[color] + ", word " + word;
+                }
+            }
+        }
+        for (int color = 0; color < Piece.COLOR_COUNT; color++) {
+            if (board.getPiecesInGoal(color) != piecesInGoal[color]) {
+                return "pieces in goal of " + Piece.COLORS[color] + ": " + board.getPiecesInGoal(color)
+                        + " instead of " + piecesInGoal[color];
+            }
+            if (board.getGoalDistance(color) != goalDistance[color]) {
+                return "goal distance of " + Piece.COLORS[color] + ": " + board.getGoalDistance(color)
+                        + " instead of " + goalDistance[color];
+            }
+            if (board.getApexDistance(color) != apexDistance[color]) {
+                return "apex distance of " + Piece.COLORS[color] + ": " + board.getApexDistance(color)
+                        + " instead of " + apexDistance[color];
+            }
+        }
+        if (board.getZobristKey() != key) {
+            return "board Zobrist key";
+        }
+        if (!state.isJumpSequence() && state.getZobristKey() != (key ^ Zobrist.turn(state.getCurentTurnIndex()))) {
+            return "position Zobrist key";
+        }
+        return null;
+    }
+}
@@ -0,0 +1,191 @@
+package Tools;
+
+import Model.Entities.Board;
+import Model.Entities.BoardIndex;
+import Model.Entities.GameSnapshot;
+import Model.Entities.GameState;
+import Model.Entities.Move;
+import Model.Entities.Piece;
+import Model.Entities.Player;
+import Model.Service.BoardService;
+import Model.Service.GameRulesService;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Cuenta las posiciones hoja a profundidad N desde la salida de partidas de 2, 3, 4
+ * y 6 jugadores (perft), donde cada nivel es un turno completo de un jugador: un paso
+ * o una cadena recta de saltos detenida en cualquier aterrizaje. Compara las cuentas
+ * con los valores de referencia incluidos e informa hojas por segundo, así que sirve
+ * para comprobar que un cambio en la representación del tablero no altera la
+ * generación de movimientos y para medir si la acelera. Los turnos del último nivel
+ * se cuentan sin jugarlos, como es habitual en perft.
+ * Con "verify" también cuenta con un generador de referencia construido como lo hace
+ * GameService al jugar: {@link GameRulesService#getValidMoves(Board, int, int[])} por
+ * pieza y, tras cada salto, los saltos siguientes en la misma dirección.
+ * Uso: Perft [profundidad] [hilos] [verify]
+ */
+public class Perft {
+    private static final int[] PLAYER_COUNTS = {2, 3, 4, 6};
+    private static final int MAX_DEPTH = 16;
+
+    // Hojas a cada profundidad, desde 1, para cada cantidad de PLAYER_COUNTS.
+    private static final long[][] GOLDEN = {
+            {14, 196, 4_228, 91_204, 2_238_424, 54_937_744},
+            {14, 196, 2_758, 59_494, 1_278_366, 27_490_456},
+            {14, 196, 2_758, 38_809, 833_901, 17_918_289},
+            {14, 196, 2_758, 38_809, 548_842, 7_761_798},
+    };
+
+    public static void main(String[] args) throws InterruptedException, ExecutionException {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        boolean verify = args.length > 2 && "verify".equals(args[2]);
+        if (depth < 1 || depth > MAX_DEPTH) {
+            throw new IllegalArgumentException("Depth must be 1.." + MAX_DEPTH + ": " + depth);
+        }
+
+        boolean ok = true;
+        ForkJoinPool pool = threads > 1 ? new ForkJoinPool(threads) : null;
+        try {
+            for (int p = 0; p < PLAYER_COUNTS.length; p++) {
+                GameState start = startPosition(PLAYER_COUNTS[p]);
+                for (int d = 1; d <= depth; d++) {
+                    long begin = System.nanoTime();
+                    long leaves = pool != null ? parallelPerft(pool, start, d) : perft(start, d);
+                    double seconds = (System.nanoTime() - begin) / 1e9;
+                    String check;
+                    if (d <= GOLDEN[p].length) {
+                        boolean matches = GOLDEN[p][d - 1] == leaves;
+                        ok &= matches;
+                        check = matches ? "OK" : "MISMATCH, expected " + GOLDEN[p][d - 1];
+                    } else {
+                        check = "no reference";
+                    }
+                    System.out.printf("%d players, depth %d: %,15d leaves %8.3f s %,14.0f leaves/s  %s%n",
+                            PLAYER_COUNTS[p], d, leaves, seconds, leaves / Math.max(seconds, 1e-9), check);
+                    if (verify) {
+                        long reference = referencePerft(start, d);
+                        ok &= reference == leaves;
+                        System.out.printf("%28s %,15d leaves  %s%n", "reference generator:", reference,
+                                reference == leaves ? "OK" : "MISMATCH");
+                    }
+                }
+            }
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+        System.out.println(ok ? "All counts match." : "COUNTS DIFFER");
+        if (!ok) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Posición de salida con los colores que GameService asigna por orden de llegada.
+     */
+    static GameState startPosition(int playerCount) {
+        ArrayList<Player> players = new ArrayList<>();
+        for (int i = 0; i < playerCount; i++) {
+            players.add(new Player("P" + i, Piece.COLORS[i]));
+        }
+        Board board = new Board();
+        BoardService.createBoard(board);
+        BoardService.setupPieces(board, players);
+        return new GameState(board, players.getFirst(), players, 0, new HashMap<>(),
+                null, null, false, null);
+    }
+
+    private static int[] turnColors(GameState state) {
+        int[] colors = new int[state.getPlayers().size()];
+        for (int i = 0; i < colors.length; i++) {
+            colors[i] = Piece.colorIndex(state.getPlayers().get(i).getColor());
+        }
+        return colors;
+    }
+
+    /**
+     * Perft con el generador de turnos completos de las búsquedas.
+     */
+    static long perft(GameState state, int depth) {
+        return perft(state, turnColors(state), new int[depth][GameRulesService.MAX_TURN_MOVES], depth, 0);
+    }
+
+    private static long perft(GameState state, int[] turnColors, int[][] moves, int depth, int ply) {
+        int[] buffer = moves[ply];
+        int count = GameRulesService.generateTurnMoves(state.getBoard(), turnColors[state.getCurentTurnIndex()], buffer);
+        if (depth == 1) {
+            return count;
+        }
+        long leaves = 0;
+        for (int i = 0; i < count; i++) {
+            long token = state.makeMove(buffer[i]);
+            leaves += perft(state, turnColors, moves, depth - 1, ply + 1);
+            state.unmakeMove(token);
+        }
+        return leaves;
+    }
+
+    /**
+     * Reparte los turnos de la raíz entre los hilos del pool; cada uno trabaja sobre su
+     * propia copia del estado.
+     */
+    private static long parallelPerft(ForkJoinPool pool, GameState state, int depth)
+            throws InterruptedException, ExecutionException {
+        int[] rootMoves = new int[GameRulesService.MAX_TURN_MOVES];
+        int count = GameRulesService.generateTurnMoves(state.getBoard(),
+                turnColors(state)[state.getCurentTurnIndex()], rootMoves);
+        if (depth == 1) {
+            return count;
+        }
+        GameSnapshot snapshot = GameSnapshot.capture(state, null);
+        return pool.submit(() -> IntStream.range(0, count).parallel().mapToLong(i -> {
+            GameState copy = snapshot.toGameState();
+            copy.makeMove(rootMoves[i]);
+            return perft(copy, depth - 1);
+        }).sum()).get();
+    }
+
+    /**
+     * Perft con el generador de referencia: recorre todas las celdas buscando las
+     * piezas del color y arma cada turno con los movimientos de una pieza y la
+     * continuación de saltos, igual que la selección y los clics de GameService.
+     */
+    static long referencePerft(GameState state, int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+        Board board = state.getBoard();
+        int color = Piece.colorIndex(state.getCurrentPlayer().getColor());
+        int[] pieceMoves = new int[GameRulesService.MAX_PIECE_MOVES];
+        ArrayList<Integer> turns = new ArrayList<>();
+        for (int from = 0; from < BoardIndex.CELL_COUNT; from++) {
+            if (!board.isOccupiedBy(from, color)) continue;
+            int count = GameRulesService.getValidMoves(board, from, pieceMoves);
+            for (int i = 0; i < count; i++) {
+                int move = pieceMoves[i];
+                turns.add(move);
+                if (!Move.isJump(move)) continue;
+                int direction = Move.direction(move);
+                int landing = BoardService.jumpDestination(board, Move.to(move), direction);
+                while (landing >= 0) {
+                    turns.add(Move.encode(from, landing, direction, true));
+                    landing = BoardService.jumpDestination(board, landing, direction);
+                }
+            }
+        }
+        long leaves = 0;
+        for (int move : turns) {
+            long token = state.makeMove(move);
+            leaves += referencePerft(state, depth - 1);
+            state.unmakeMove(token);
+        }
+        return leaves;
+    }
+}
@@ -21,12 +21,15 @@ class BoardPanel extends JPanel {
     private ArrayList<PixelCell> piecePositions = new ArrayList<>();
     private Coords selectedPixel = null;
     private Set<Coords> validMovePixels = Set.of();
+    private Coords hintFromPixel = null;
+    private Coords hintToPixel = null;
 
     private final Color boardBgColor = new Color(0xFFFFFF);
     private final Color hexColor = new Color(0xE0E0E0);
     private final Color hexBorderColor = new Color(0x000000);
     private final Color validMoveColor = new Color(0xB0E5B4);
     private final Color selectedHexColor = new Color(0x6EC3E5);
+    private final Color hintColor = new Color(0xFF9800);
 
     public BoardPanel() {
         this.setBackground(boardBgColor);
@@ -54,6 +57,11 @@ class BoardPanel extends JPanel {
         this.validMovePixels = validMoves != null ? validMoves : Set.of();
     }
 
+    public void setHint(Coords from, Coords to) {
+        this.hintFromPixel = from;
+        this.hintToPixel = to;
+    }
+
     public void setCellClickListener(CellClickListener listener) {
         this.cellClickListener = listener;
     }
@@ -87,6 +95,15 @@ class BoardPanel extends JPanel {
             HexagonDrawer.draw(g2d, x, y, HEX_SIZE, selectedHexColor, false);
         }
 
+        if (hintFromPixel != null && hintToPixel != null) {
+            g2d.setStroke(new BasicStroke(3));
+            g2d.setColor(hintColor);
+            g2d.drawLine(centerX + hintFromPixel.getX(), centerY + hintFromPixel.getY(),
+                    centerX + hintToPixel.getX(), centerY + hintToPixel.getY());
+            HexagonDrawer.draw(g2d, centerX + hintFromPixel.getX(), centerY + hintFromPixel.getY(), HEX_SIZE, hintColor, false);
+            HexagonDrawer.draw(g2d, centerX + hintToPixel.getX(), centerY + hintToPixel.getY(), HEX_SIZE, hintColor, false);
+        }
+
         for (PixelCell pixelCell : piecePositions) {
             if (pixelCell.getPiece() != null) {
                 int x = centerX + pixelCell.getCoords().getX();
@@ -1,6 +1,7 @@
 package View;
 
 import DTO.GameStateDTO;
+import DTO.HintDTO;
 import Model.Entities.Coords;
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
@@ -8,13 +9,16 @@ import java.awt.*;
 import java.awt.event.ActionListener;
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
 public class GameView extends JFrame {
     private BoardPanel pnlBoard;
     private final JButton btnEndTurn = new JButton("Finalizar Turno");
+    private final JButton btnHint = new JButton("Pista");
     private final JLabel lblTurn = new JLabel("Turno de: JUGADOR");
     private final JLabel lblColor = new JLabel("Color: --");
+    private final JLabel lblProgress = new JLabel(" ");
 
     public GameView() {
         setTitle("Chinese Checkers");
@@ -36,13 +40,17 @@ public class GameView extends JFrame {
 
         lblTurn.setFont(new Font("Segoe UI", Font.BOLD, 16));
         lblColor.setFont(new Font("Segoe UI", Font.BOLD, 16));
+        lblProgress.setFont(new Font("Segoe UI", Font.PLAIN, 14));
         btnEndTurn.setFont(new Font("Segoe UI", Font.PLAIN, 14));
         btnEndTurn.setBackground(new Color(0x6200EE));
         btnEndTurn.setForeground(Color.WHITE);
+        btnHint.setFont(new Font("Segoe UI", Font.PLAIN, 14));
 
         controlPanel.add(lblTurn);
         controlPanel.add(lblColor);
+        controlPanel.add(lblProgress);
         controlPanel.add(btnEndTurn);
+        controlPanel.add(btnHint);
         add(controlPanel, BorderLayout.SOUTH);
     }
 
@@ -58,6 +66,20 @@ public class GameView extends JFrame {
         lblTurn.setText("Turno de: " + state.getCurrentPlayerName());
         lblColor.setText("Color: " + state.getCurrentPlayerColor());
         btnEndTurn.setEnabled(state.isJumpSequence());
+        updateProgress(state.getGoalDistances());
+    }
+
+    // Muestra cuántos pasos le faltan a cada color para llegar a su meta.
+    private void updateProgress(Map<String, Integer> goalDistances) {
+        if (goalDistances == null || goalDistances.isEmpty()) {
+            lblProgress.setText(" ");
+            return;
+        }
+        StringBuilder text = new StringBuilder("Faltan:");
+        for (Map.Entry<String, Integer> entry : goalDistances.entrySet()) {
+            text.append(' ').append(entry.getKey()).append(' ').append(entry.getValue());
+        }
+        lblProgress.setText(text.toString());
     }
 
     private void updateBoard(GameStateDTO state) {
@@ -86,6 +108,8 @@ public class GameView extends JFrame {
         pnlBoard.updateBoard(allCells);
         pnlBoard.updatePieces(pieceOnlyCells);
         pnlBoard.setHighlights(selectedPixel, validMovePixels);
+        // Un estado nuevo deja obsoleta la pista anterior.
+        pnlBoard.setHint(null, null);
         pnlBoard.repaint();
     }
 
@@ -104,6 +128,16 @@ public class GameView extends JFrame {
         btnEndTurn.addActionListener(listener);
     }
 
+    public void addHintListener(ActionListener listener) {
+        btnHint.addActionListener(listener);
+    }
+
+    // Resalta el movimiento sugerido hasta la próxima actualización del estado.
+    public void showHint(HintDTO hint) {
+        pnlBoard.setHint(hint.getFromPixel(), hint.getToPixel());
+        pnlBoard.repaint();
+    }
+
     public void setCellClickListener(BoardPanel.CellClickListener listener) {
         pnlBoard.setCellClickListener(listener);
     }
@@ -112,6 +146,11 @@ public class GameView extends JFrame {
         lblColor.setText("Color: " + color);
     }
 
+    // Muestra en el título la mesa del servidor en la que se juega.
+    public void setRoomId(String roomId) {
+        setTitle("Chinese Checkers - Mesa " + roomId);
+    }
+
     public void showWaitingMessage() {
         lblTurn.setText("Esperando jugadores...");
     }